@@ -0,0 +1,135 @@
+package io.github.suppie.spring.cache.benchmark;
+
+import io.github.suppie.spring.cache.CompressingRedisSerializer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Compression ratio against CPU cost of {@link CompressingRedisSerializer} for JSON documents of
+ * typical sizes. Time per operation is the CPU cost, while {@code rawBytes} and {@code
+ * storedBytes} counters of {@link #compress} give the compression ratio.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class CompressionBenchmark {
+
+  private static final String[] WORDS = {
+    "organic", "cotton", "shirt", "regular", "fit", "blue", "size", "machine", "washable", "soft",
+    "durable", "stitching", "collar", "sleeve", "summer", "collection", "breathable", "fabric",
+    "classic", "design", "premium", "quality", "everyday", "comfort", "lightweight", "material"
+  };
+
+  @Param({"1024", "20480", "204800"})
+  int payloadSize;
+
+  @Param({"1", "6"})
+  int level;
+
+  private RedisSerializer<byte[]> serializer;
+  private byte[] payload;
+  private byte[] compressed;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    serializer = new CompressingRedisSerializer<>(RedisSerializer.byteArray(), 0, level);
+    payload = productDocument(payloadSize);
+    compressed = serializer.serialize(payload);
+  }
+
+  @Benchmark
+  public byte[] compress(Sizes sizes) {
+    byte[] stored = serializer.serialize(payload);
+    sizes.rawBytes += payload.length;
+    sizes.storedBytes += stored.length;
+    return stored;
+  }
+
+  @Benchmark
+  public byte[] decompress() {
+    return serializer.deserialize(compressed);
+  }
+
+  /** Baseline cost of a value copy, which is what storing uncompressed values amounts to */
+  @Benchmark
+  public byte[] copy() {
+    return payload.clone();
+  }
+
+  /** Bytes before and after compression, their ratio is the compression ratio */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Sizes {
+
+    public long rawBytes;
+    public long storedBytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      rawBytes = 0;
+      storedBytes = 0;
+    }
+  }
+
+  /**
+   * @param size of the document in bytes, approximately
+   * @return JSON document resembling a product with variants and reviews
+   */
+  static byte[] productDocument(int size) {
+    Random random = new Random(size);
+    StringBuilder json = new StringBuilder(size + 256);
+    json.append("{\"@class\":\"com.example.catalog.Product\",\"id\":")
+        .append(random.nextInt(1_000_000))
+        .append(",\"sku\":\"SKU-")
+        .append(Integer.toHexString(random.nextInt()))
+        .append("\",\"name\":\"")
+        .append(words(random, 4))
+        .append("\",\"description\":\"")
+        .append(words(random, 30))
+        .append("\",\"variants\":[");
+
+    for (int i = 0; json.length() < size; i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("{\"id\":")
+          .append(random.nextInt(1_000_000))
+          .append(",\"color\":\"")
+          .append(WORDS[random.nextInt(WORDS.length)])
+          .append("\",\"price\":")
+          .append(random.nextInt(10_000) / 100.0)
+          .append(",\"stock\":")
+          .append(random.nextInt(500))
+          .append(",\"review\":{\"rating\":")
+          .append(1 + random.nextInt(5))
+          .append(",\"text\":\"")
+          .append(words(random, 12))
+          .append("\"}}");
+    }
+
+    return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String words(Random random, int count) {
+    StringBuilder words = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      if (i > 0) {
+        words.append(' ');
+      }
+      words.append(WORDS[random.nextInt(WORDS.length)]);
+    }
+    return words.toString();
+  }
+}
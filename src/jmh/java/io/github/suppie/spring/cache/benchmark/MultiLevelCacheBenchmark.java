@@ -1,27 +1,43 @@
 package io.github.suppie.spring.cache.benchmark;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.suppie.spring.cache.MultiLevelCache;
 import io.github.suppie.spring.cache.MultiLevelCacheConfigurationProperties;
+import io.github.suppie.spring.cache.MultiLevelCacheManager;
+import io.github.suppie.spring.cache.MultiLevelCacheOptions;
+import io.github.suppierk.java.Try;
+import java.lang.management.ManagementFactory;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
 import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.cache.autoconfigure.CacheProperties;
 import org.springframework.data.redis.cache.CacheStatistics;
 import org.springframework.data.redis.cache.CacheStatisticsCollector;
 import org.springframework.data.redis.cache.RedisCacheWriter;
@@ -30,8 +46,8 @@ import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 /**
- * Baseline benchmarks for the current {@link MultiLevelCache} implementation that relies on a
- * synchronized {@code get(key, loader)} implementation. These benchmarks intentionally exercise the
+ * Baseline benchmarks for the current {@link MultiLevelCache} implementation that coalesces
+ * concurrent {@code get(key, loader)} calls per key. These benchmarks intentionally exercise the
  * existing behaviour so that subsequent optimisations can be compared against a stable baseline.
  */
 @BenchmarkMode(Mode.AverageTime)
@@ -41,6 +57,12 @@ public class MultiLevelCacheBenchmark {
 
   private static final String VALUE = "cached-value";
 
+  private static final int ALLOCATION_CHECK_HITS = 100_000;
+
+  private static final int MISS_BURST_KEYS = 50_000;
+  private static final int MISS_BURST_CALLERS_PER_KEY = 2;
+  private static final int MISS_BURST_THREADS = 256;
+
   @Param({"1", "32"})
   int keyCount;
 
@@ -59,22 +81,7 @@ public class MultiLevelCacheBenchmark {
     properties.getLocal().setMaxSize(10_000);
     properties.setTimeToLive(Duration.ofHours(1));
 
-    RedisTemplate<Object, Object> redisTemplate = new RedisTemplate<>();
-    redisTemplate.setKeySerializer(new StringRedisSerializer());
-    redisTemplate.setValueSerializer(new JdkSerializationRedisSerializer());
-
-    cache =
-        new MultiLevelCache(
-            "benchmark",
-            properties,
-            new InMemoryRedisCacheWriter(),
-            redisTemplate,
-            Caffeine.newBuilder()
-                .maximumSize(properties.getLocal().getMaxSize())
-                .expireAfterWrite(properties.getTimeToLive())
-                .build(),
-            CircuitBreaker.ofDefaults("benchmark"),
-            "benchmark-instance");
+    cache = createCache("benchmark", properties);
 
     keys = new String[keyCount];
     for (int i = 0; i < keyCount; i++) {
@@ -90,9 +97,9 @@ public class MultiLevelCacheBenchmark {
 
   @Benchmark
   @SuppressWarnings("unused")
-  public void cacheHit(ThreadState threadState, Blackhole blackhole) {
+  public void cacheHit(CacheHitState state, ThreadState threadState, Blackhole blackhole) {
     String key = keys[keyIndex(threadState)];
-    Object value = cache.get(key, hitLoader);
+    Object value = state.cache.get(key, hitLoader);
     blackhole.consume(value);
   }
 
@@ -104,6 +111,97 @@ public class MultiLevelCacheBenchmark {
     blackhole.consume(value);
   }
 
+  /**
+   * Redis outage: loads must go straight to the loader without attempting Redis calls and handling
+   * circuit breaker rejections.
+   */
+  @Benchmark
+  public void breakerOpenMissLoads(BreakerOpenState state, Blackhole blackhole) {
+    String key = "open-miss-key-" + state.keyCounter.incrementAndGet();
+    Object value = state.cache.get(key, producingLoader);
+    blackhole.consume(value);
+  }
+
+  /**
+   * Redis outage: writes must only update local cache and defer eviction notification until Redis
+   * is available again.
+   */
+  @Benchmark
+  public void breakerOpenPut(BreakerOpenState state) {
+    state.cache.put("open-put-key-" + (state.keyCounter.incrementAndGet() & 1023), VALUE);
+  }
+
+  /**
+   * Baseline of {@link #breakerOpenMissLoads}: Redis lookup and eviction notification are rejected
+   * by circuit breaker with an exception, as they were before permission was checked up front.
+   */
+  @Benchmark
+  public void breakerOpenMissLoadsBaseline(BreakerOpenState state, Blackhole blackhole) {
+    String key = "open-miss-key-" + state.keyCounter.incrementAndGet();
+    blackhole.consume(state.rejectedRedisCall());
+    Object value = state.cache.get(key, producingLoader);
+    blackhole.consume(state.rejectedRedisCall());
+    blackhole.consume(value);
+  }
+
+  /**
+   * Baseline of {@link #breakerOpenPut}: Redis write and eviction notification are rejected by
+   * circuit breaker with an exception, as they were before permission was checked up front.
+   */
+  @Benchmark
+  public void breakerOpenPutBaseline(BreakerOpenState state, Blackhole blackhole) {
+    state.cache.put("open-put-key-" + (state.keyCounter.incrementAndGet() & 1023), VALUE);
+    blackhole.consume(state.rejectedRedisCall());
+    blackhole.consume(state.rejectedRedisCall());
+  }
+
+  /**
+   * Tens of thousands of distinct keys miss at the same time while every key is requested by
+   * several callers. The loader must run exactly once per key regardless of the amount of keys
+   * being loaded concurrently, the benchmark fails otherwise.
+   */
+  @Benchmark
+  @OperationsPerInvocation(MISS_BURST_KEYS * MISS_BURST_CALLERS_PER_KEY)
+  public void concurrentDistinctKeyMisses(MissBurstState state, Blackhole blackhole)
+      throws Exception {
+    final String prefix = "burst-" + state.invocation.incrementAndGet() + "-";
+    final AtomicInteger loaderCalls = new AtomicInteger();
+    final CountDownLatch start = new CountDownLatch(1);
+
+    List<Callable<Object>> calls = new ArrayList<>(MISS_BURST_KEYS * MISS_BURST_CALLERS_PER_KEY);
+    for (int i = 0; i < MISS_BURST_KEYS; i++) {
+      final String key = prefix + i;
+      final Callable<Object> loader =
+          () -> {
+            loaderCalls.incrementAndGet();
+            return VALUE;
+          };
+      for (int j = 0; j < MISS_BURST_CALLERS_PER_KEY; j++) {
+        calls.add(
+            () -> {
+              start.await();
+              return state.cache.get(key, loader);
+            });
+      }
+    }
+    Collections.shuffle(calls);
+
+    List<Future<Object>> futures = new ArrayList<>(calls.size());
+    for (Callable<Object> call : calls) {
+      futures.add(state.executor.submit(call));
+    }
+    start.countDown();
+
+    for (Future<Object> future : futures) {
+      blackhole.consume(future.get());
+    }
+
+    if (loaderCalls.get() != MISS_BURST_KEYS) {
+      throw new IllegalStateException(
+          "Expected " + MISS_BURST_KEYS + " loader calls, but got " + loaderCalls.get());
+    }
+  }
+
   private int keyIndex(ThreadState state) {
     if (keys.length == 1) {
       return 0;
@@ -116,9 +214,168 @@ public class MultiLevelCacheBenchmark {
     return next;
   }
 
+  /**
+   * Local cache hits must not allocate. Run with {@code -prof gc} to see {@code
+   * gc.alloc.rate.norm} of {@link #cacheHit}, while hits of the benchmark thread are measured after
+   * each iteration as well and the benchmark fails if they still allocate after warmup.
+   */
   @State(Scope.Thread)
   public static class ThreadState {
     int nextIndex;
+
+    @TearDown(Level.Iteration)
+    public void verifyCacheHitDoesNotAllocate(
+        MultiLevelCacheBenchmark benchmark, CacheHitState state) {
+      com.sun.management.ThreadMXBean threads =
+          (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+      long threadId = Thread.currentThread().getId();
+
+      long before = threads.getThreadAllocatedBytes(threadId);
+      for (int i = 0; i < ALLOCATION_CHECK_HITS; i++) {
+        state.cache.get(benchmark.keys[i % benchmark.keys.length], benchmark.hitLoader);
+      }
+      long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+      // Integer division leaves room for the bytes allocated by the measurement itself
+      if (allocated / ALLOCATION_CHECK_HITS > 0) {
+        throw new IllegalStateException(
+            "Expected allocation free cache hits, but got "
+                + allocated
+                + " bytes for "
+                + ALLOCATION_CHECK_HITS
+                + " hits");
+      }
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class CacheHitState {
+    /** Whether the cache keeps its entries in the local cache shared by all caches */
+    @Param({"false", "true"})
+    boolean sharedLocal;
+
+    MultiLevelCache cache;
+
+    @Setup(Level.Trial)
+    public void setUp(MultiLevelCacheBenchmark benchmark) {
+      if (!sharedLocal) {
+        cache = benchmark.cache;
+        return;
+      }
+
+      MultiLevelCacheConfigurationProperties properties =
+          new MultiLevelCacheConfigurationProperties();
+      properties.getLocal().setMaxSize(10_000);
+      properties.getLocal().setShared(true);
+      properties.setTimeToLive(Duration.ofHours(1));
+
+      MultiLevelCacheManager manager =
+          new MultiLevelCacheManager(
+              new StaticListableBeanFactory().getBeanProvider(CacheProperties.class),
+              properties,
+              redisTemplate(),
+              CircuitBreaker.ofDefaults("benchmark-shared"),
+              MultiLevelCacheOptions.builder().cacheWriter(new InMemoryRedisCacheWriter()).build());
+
+      cache = (MultiLevelCache) manager.getCache("benchmark-shared");
+      for (String key : benchmark.keys) {
+        cache.put(key, VALUE);
+      }
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class BreakerOpenState {
+    final AtomicInteger keyCounter = new AtomicInteger();
+
+    CircuitBreaker circuitBreaker;
+    MultiLevelCache cache;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      MultiLevelCacheConfigurationProperties properties =
+          new MultiLevelCacheConfigurationProperties();
+      properties.getLocal().setMaxSize(10_000);
+      properties.setTimeToLive(Duration.ofHours(1));
+
+      // Forced state keeps circuit breaker from probing Redis during the whole trial
+      circuitBreaker = CircuitBreaker.ofDefaults("benchmark-breaker-open");
+      circuitBreaker.transitionToForcedOpenState();
+
+      cache = createCache("benchmark-breaker-open", properties, circuitBreaker);
+    }
+
+    /**
+     * Calls Redis through circuit breaker without checking permission first, which creates and
+     * handles {@link CallNotPermittedException} while circuit breaker is open.
+     *
+     * @return {@code null} as the call is not permitted
+     */
+    Object rejectedRedisCall() {
+      return Try.of(() -> circuitBreaker.decorateCheckedSupplier(() -> VALUE).get())
+          .orElse(() -> null);
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class MissBurstState {
+    final AtomicInteger invocation = new AtomicInteger();
+
+    MultiLevelCache cache;
+    ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      MultiLevelCacheConfigurationProperties properties =
+          new MultiLevelCacheConfigurationProperties();
+      properties.getLocal().setMaxSize(MISS_BURST_KEYS * 4);
+      properties.setTimeToLive(Duration.ofHours(1));
+
+      cache = createCache("benchmark-burst", properties);
+      executor = Executors.newFixedThreadPool(MISS_BURST_THREADS);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearCache() {
+      cache.getNativeCache().clear(cache.getName(), new byte[0]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      executor.shutdownNow();
+    }
+  }
+
+  static MultiLevelCache createCache(
+      String name, MultiLevelCacheConfigurationProperties properties) {
+    return createCache(name, properties, CircuitBreaker.ofDefaults(name));
+  }
+
+  static MultiLevelCache createCache(
+      String name,
+      MultiLevelCacheConfigurationProperties properties,
+      CircuitBreaker circuitBreaker) {
+    return new MultiLevelCache(
+        name,
+        properties,
+        new InMemoryRedisCacheWriter(),
+        redisTemplate(),
+        Caffeine.newBuilder()
+            .maximumSize(properties.getLocal().getMaxSize())
+            .expireAfterWrite(properties.getTimeToLive())
+            .build(),
+        circuitBreaker,
+        name + "-instance");
+  }
+
+  /**
+   * @return Redis template without connection factory, as cache entries are written to memory
+   */
+  static RedisTemplate<Object, Object> redisTemplate() {
+    RedisTemplate<Object, Object> redisTemplate = new RedisTemplate<>();
+    redisTemplate.setKeySerializer(new StringRedisSerializer());
+    redisTemplate.setValueSerializer(new JdkSerializationRedisSerializer());
+    return redisTemplate;
   }
 
   /**
@@ -0,0 +1,111 @@
+package io.github.suppie.spring.cache.benchmark;
+
+import io.github.suppie.spring.cache.SmileRedisSerializer;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Throughput and size of values written by the value serializers available through {@code
+ * spring.cache.multilevel.value-serializer}. Time per operation is the CPU cost, while {@code
+ * bytes} counter of {@link #serialize} divided by its operations gives the size of a value.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class SerializerBenchmark {
+
+  @Param({"json", "smile", "jdk"})
+  String format;
+
+  @Param({"1", "50"})
+  int variantCount;
+
+  private RedisSerializer<Object> serializer;
+  private Product product;
+  private byte[] serialized;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    serializer =
+        switch (format) {
+          case "json" -> RedisSerializer.json();
+          case "smile" -> new SmileRedisSerializer(List.of(Product.class.getPackageName()));
+          case "jdk" -> RedisSerializer.java();
+          default -> throw new IllegalArgumentException("Unknown format " + format);
+        };
+
+    List<Variant> variants = new ArrayList<>();
+    for (int i = 0; i < variantCount; i++) {
+      variants.add(new Variant(1000L + i, "color-" + (i % 8), "size-" + (i % 5), 19.99 + i, i * 3));
+    }
+
+    Map<String, String> attributes = new LinkedHashMap<>();
+    attributes.put("material", "organic cotton");
+    attributes.put("care", "machine washable");
+    attributes.put("origin", "Portugal");
+
+    product =
+        new Product(
+            42L,
+            "SKU-0042",
+            "Regular fit organic cotton shirt",
+            "Breathable everyday shirt made of soft and durable organic cotton",
+            variants,
+            attributes);
+    serialized = serializer.serialize(product);
+  }
+
+  @Benchmark
+  public byte[] serialize(Sizes sizes) {
+    byte[] bytes = serializer.serialize(product);
+    sizes.bytes += bytes.length;
+    return bytes;
+  }
+
+  @Benchmark
+  public Object deserialize() {
+    return serializer.deserialize(serialized);
+  }
+
+  /** Bytes written by the serializer */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Sizes {
+
+    public long bytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      bytes = 0;
+    }
+  }
+
+  /** Cached value resembling a catalog entry */
+  public record Product(
+      long id,
+      String sku,
+      String name,
+      String description,
+      List<Variant> variants,
+      Map<String, String> attributes)
+      implements Serializable {}
+
+  /** Nested value of a catalog entry */
+  public record Variant(long id, String color, String size, double price, int stock)
+      implements Serializable {}
+}
@@ -0,0 +1,215 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Roman Khlebnov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.suppie.spring.cache;
+
+import io.github.suppie.spring.cache.MultiLevelCacheConfigurationProperties.BloomFilterProperties;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Per-cache set of local keys known to exist in Redis, backed by {@link KeyBloomFilter}.
+ *
+ * <p>Filter is populated by scanning Redis and by every local or remote write. Until the first scan
+ * completes every key is reported as possibly present. Once saturation of the filter makes false
+ * positives twice as likely as configured, the filter is rebuilt from Redis again, while writes
+ * performed in the meantime are recorded in both filters.
+ */
+@Slf4j
+final class CacheKeyFilter {
+
+  private final String cacheName;
+  private final BloomFilterProperties properties;
+  private final Consumer<Consumer<String>> keyScanner;
+  private final Executor executor;
+
+  private final AtomicBoolean rebuilding = new AtomicBoolean();
+  private volatile @Nullable KeyBloomFilter current;
+  private volatile @Nullable KeyBloomFilter next;
+
+  private final LongAdder skipped = new LongAdder();
+  private final LongAdder passed = new LongAdder();
+  private final LongAdder falsePositives = new LongAdder();
+
+  /**
+   * @param cacheName for logging
+   * @param properties to size the filter
+   * @param keyScanner supplying every local key currently present in Redis to the given consumer
+   * @param executor to rebuild the filter on
+   */
+  CacheKeyFilter(
+      @NonNull String cacheName,
+      @NonNull BloomFilterProperties properties,
+      @NonNull Consumer<Consumer<String>> keyScanner,
+      @NonNull Executor executor) {
+    this.cacheName = cacheName;
+    this.properties = properties;
+    this.keyScanner = keyScanner;
+    this.executor = executor;
+
+    // Validates sizing eagerly to fail on cache creation
+    newFilter();
+  }
+
+  /**
+   * Records the key in the current filter and in the one being rebuilt, if any.
+   *
+   * <p>Must be called after the key was written to Redis: a rebuild starting after this call is
+   * guaranteed to find the key in Redis, while a rebuild swapping filters during this call is
+   * detected by reading the current filter again.
+   *
+   * @param key to record as present in Redis
+   */
+  void put(@NonNull String key) {
+    KeyBloomFilter filter = current;
+    while (true) {
+      if (filter != null) {
+        filter.put(key);
+      }
+
+      KeyBloomFilter rebuilt = next;
+      if (rebuilt != null) {
+        rebuilt.put(key);
+      }
+
+      KeyBloomFilter latest = current;
+      if (latest == filter) {
+        return;
+      }
+      filter = latest;
+    }
+  }
+
+  /**
+   * @param key to check
+   * @return {@code false} if key is known to be absent in Redis
+   */
+  boolean mightContain(@NonNull String key) {
+    KeyBloomFilter filter = current;
+    if (filter == null) {
+      return true;
+    }
+
+    if (filter.mightContain(key)) {
+      passed.increment();
+      return true;
+    }
+
+    skipped.increment();
+    return false;
+  }
+
+  /** Records Redis miss for a key reported as possibly present. */
+  void recordFalsePositive() {
+    KeyBloomFilter filter = current;
+    if (filter == null) {
+      return;
+    }
+
+    falsePositives.increment();
+    if (filter.expectedFalsePositiveProbability()
+        > 2 * properties.getFalsePositiveProbability()) {
+      rebuildAsync();
+    }
+  }
+
+  /** Rebuilds the filter from Redis unless rebuild is already running. */
+  void rebuildAsync() {
+    if (!rebuilding.compareAndSet(false, true)) {
+      return;
+    }
+
+    try {
+      executor.execute(this::rebuild);
+    } catch (RuntimeException e) {
+      rebuilding.set(false);
+      log.warn("Bloom filter rebuild for cache '{}' was rejected", cacheName, e);
+    }
+  }
+
+  /**
+   * @return {@code true} if the filter was built from Redis and is used to skip lookups
+   */
+  boolean isReady() {
+    return current != null;
+  }
+
+  /**
+   * @return amount of Redis lookups skipped thanks to the filter
+   */
+  long skippedCount() {
+    return skipped.sum();
+  }
+
+  /**
+   * @return amount of keys reported as possibly present which Redis did not have
+   */
+  long falsePositiveCount() {
+    return falsePositives.sum();
+  }
+
+  /**
+   * @return observed share of Redis lookups allowed by the filter which turned out to be misses
+   */
+  double falsePositiveRate() {
+    long total = passed.sum();
+    return total == 0 ? 0d : (double) falsePositives.sum() / total;
+  }
+
+  /**
+   * @return approximate memory occupied by filters in bytes
+   */
+  long memoryBytes() {
+    KeyBloomFilter filter = current;
+    KeyBloomFilter rebuilt = next;
+    return (filter == null ? 0L : filter.memoryBytes())
+        + (rebuilt == null ? 0L : rebuilt.memoryBytes());
+  }
+
+  private void rebuild() {
+    KeyBloomFilter filter = newFilter();
+    next = filter;
+
+    try {
+      keyScanner.accept(filter::put);
+      current = filter;
+      log.debug("Bloom filter for cache '{}' was rebuilt", cacheName);
+    } catch (RuntimeException e) {
+      log.warn("Bloom filter rebuild for cache '{}' failed", cacheName, e);
+    } finally {
+      next = null;
+      rebuilding.set(false);
+    }
+  }
+
+  private KeyBloomFilter newFilter() {
+    return new KeyBloomFilter(
+        properties.getExpectedInsertions(), properties.getFalsePositiveProbability());
+  }
+}
@@ -0,0 +1,233 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Roman Khlebnov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.suppie.spring.cache;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Serializer compressing values of the delegate serializer with {@link Deflater} once they reach
+ * the minimum size.
+ *
+ * <p>Values which have been changed start with a header byte defining the format of the rest:
+ *
+ * <ul>
+ *   <li>{@code 0xC1} - deflated value, followed by 4 bytes of its uncompressed length
+ *   <li>{@code 0xC0} - value stored as is, only used if the value itself starts with a header byte
+ * </ul>
+ *
+ * Header bytes never start UTF-8 text or JDK serialization stream, so values below the minimum
+ * size, values which do not compress well and entries written before compression was enabled are
+ * kept as is and remain readable by other clients.
+ *
+ * <p>Values above the maximum size are never compressed, and compressed values claiming to be
+ * larger than that, or larger than deflate can expand their compressed size to, are rejected before
+ * memory for them is allocated.
+ *
+ * @param <T> type of values
+ */
+public final class CompressingRedisSerializer<T> implements RedisSerializer<T> {
+
+  static final byte STORED = (byte) 0xC0;
+  static final byte DEFLATED = (byte) 0xC1;
+
+  static final int DEFAULT_MAX_SIZE = 64 * 1024 * 1024;
+
+  private static final int DEFLATED_HEADER_LENGTH = 1 + Integer.BYTES;
+
+  // Deflate never expands a single byte of compressed data to more than this many bytes
+  private static final long MAX_INFLATION_RATIO = 1032L;
+
+  private final RedisSerializer<T> delegate;
+  private final int minSize;
+  private final int level;
+  private final int maxSize;
+
+  /**
+   * @param delegate serializer producing uncompressed values
+   * @param minSize of serialized values in bytes to compress
+   * @param level of compression from {@link Deflater#BEST_SPEED} to {@link
+   *     Deflater#BEST_COMPRESSION}, or {@link Deflater#DEFAULT_COMPRESSION}
+   */
+  public CompressingRedisSerializer(@NonNull RedisSerializer<T> delegate, int minSize, int level) {
+    this(delegate, minSize, level, DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * @param delegate serializer producing uncompressed values
+   * @param minSize of serialized values in bytes to compress
+   * @param level of compression from {@link Deflater#BEST_SPEED} to {@link
+   *     Deflater#BEST_COMPRESSION}, or {@link Deflater#DEFAULT_COMPRESSION}
+   * @param maxSize of serialized values in bytes to compress and to decompress
+   */
+  public CompressingRedisSerializer(
+      @NonNull RedisSerializer<T> delegate, int minSize, int level, int maxSize) {
+    if (minSize < 0) {
+      throw new IllegalArgumentException("Minimum size of compressed values must be positive");
+    }
+
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("Maximum size of compressed values must be positive");
+    }
+
+    if (level != Deflater.DEFAULT_COMPRESSION
+        && (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION)) {
+      throw new IllegalArgumentException("Compression level must be between 1 and 9, or -1");
+    }
+
+    this.delegate = delegate;
+    this.minSize = minSize;
+    this.level = level;
+    this.maxSize = maxSize;
+  }
+
+  @Override
+  public byte @Nullable [] serialize(@Nullable T value) throws SerializationException {
+    byte[] bytes = delegate.serialize(value);
+    if (bytes == null || bytes.length == 0) {
+      return bytes;
+    }
+
+    if (bytes.length >= minSize
+        && bytes.length > DEFLATED_HEADER_LENGTH
+        && bytes.length <= maxSize) {
+      byte[] deflated = deflate(bytes);
+      if (deflated != null) {
+        return deflated;
+      }
+    }
+
+    if (bytes[0] == STORED || bytes[0] == DEFLATED) {
+      byte[] stored = new byte[bytes.length + 1];
+      stored[0] = STORED;
+      System.arraycopy(bytes, 0, stored, 1, bytes.length);
+      return stored;
+    }
+
+    return bytes;
+  }
+
+  @Override
+  public @Nullable T deserialize(byte @Nullable [] bytes) throws SerializationException {
+    if (bytes == null || bytes.length == 0) {
+      return delegate.deserialize(bytes);
+    }
+
+    return switch (bytes[0]) {
+      case STORED -> delegate.deserialize(Arrays.copyOfRange(bytes, 1, bytes.length));
+      case DEFLATED -> delegate.deserialize(inflate(bytes));
+      default -> delegate.deserialize(bytes);
+    };
+  }
+
+  @Override
+  public boolean canSerialize(@NonNull Class<?> type) {
+    return delegate.canSerialize(type);
+  }
+
+  @Override
+  public @NonNull Class<?> getTargetType() {
+    return delegate.getTargetType();
+  }
+
+  /**
+   * @param bytes to compress
+   * @return compressed value with header, {@code null} if compression does not save space
+   */
+  private byte @Nullable [] deflate(byte @NonNull [] bytes) {
+    // Output is bounded by the input size, so incompressible values give up early
+    byte[] output = new byte[bytes.length];
+    Deflater deflater = new Deflater(level);
+    try {
+      deflater.setInput(bytes);
+      deflater.finish();
+
+      int length = DEFLATED_HEADER_LENGTH;
+      while (!deflater.finished() && length < output.length) {
+        length += deflater.deflate(output, length, output.length - length);
+      }
+
+      if (!deflater.finished()) {
+        return null;
+      }
+
+      output[0] = DEFLATED;
+      ByteBuffer.wrap(output, 1, Integer.BYTES).putInt(bytes.length);
+      return Arrays.copyOf(output, length);
+    } finally {
+      deflater.end();
+    }
+  }
+
+  /**
+   * @param bytes compressed value with header
+   * @return uncompressed value
+   * @throws SerializationException if value is corrupted or too large
+   */
+  private byte @NonNull [] inflate(byte @NonNull [] bytes) {
+    if (bytes.length < DEFLATED_HEADER_LENGTH) {
+      throw new SerializationException("Compressed value is truncated");
+    }
+
+    int length = ByteBuffer.wrap(bytes, 1, Integer.BYTES).getInt();
+    if (length <= 0 || length > (bytes.length - DEFLATED_HEADER_LENGTH) * MAX_INFLATION_RATIO) {
+      throw new SerializationException("Compressed value has invalid length " + length);
+    }
+
+    // Checked before allocation, as the length comes from the stored value itself
+    if (length > maxSize) {
+      throw new SerializationException(
+          "Compressed value length " + length + " exceeds maximum size " + maxSize);
+    }
+
+    byte[] output = new byte[length];
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(bytes, DEFLATED_HEADER_LENGTH, bytes.length - DEFLATED_HEADER_LENGTH);
+
+      int offset = 0;
+      while (offset < length) {
+        int inflated = inflater.inflate(output, offset, length - offset);
+        if (inflated == 0
+            && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+          throw new SerializationException("Compressed value is truncated");
+        }
+        offset += inflated;
+      }
+
+      return output;
+    } catch (DataFormatException e) {
+      throw new SerializationException("Compressed value is corrupted", e);
+    } finally {
+      inflater.end();
+    }
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Roman Khlebnov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.suppie.spring.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Records hot keys in a file per cache in a local directory, each file is replaced atomically.
+ *
+ * <p>File holds the amount of keys followed by length-prefixed UTF-8 bytes of every key.
+ */
+final class FileHotKeyManifest implements HotKeyManifest {
+
+  private static final String EXTENSION = ".keys";
+
+  private final Path directory;
+
+  /**
+   * @param directory to keep files in
+   */
+  FileHotKeyManifest(@NonNull Path directory) {
+    this.directory = directory;
+  }
+
+  @Override
+  public void write(@NonNull String cacheName, @NonNull List<String> keys) {
+    try {
+      Files.createDirectories(directory);
+      Path temporary = Files.createTempFile(directory, null, null);
+      try {
+        try (DataOutputStream output =
+            new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+          output.writeInt(keys.size());
+          for (String key : keys) {
+            byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+          }
+        }
+        Files.move(
+            temporary,
+            file(cacheName),
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temporary);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Hot keys of cache '" + cacheName + "' were not written", e);
+    }
+  }
+
+  @Override
+  public @NonNull List<String> read(@NonNull String cacheName, int limit) {
+    try (DataInputStream input =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(file(cacheName))))) {
+      int count = Math.min(input.readInt(), limit);
+      List<String> keys = new ArrayList<>(Math.max(count, 0));
+      for (int i = 0; i < count; i++) {
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        keys.add(new String(bytes, StandardCharsets.UTF_8));
+      }
+      return keys;
+    } catch (NoSuchFileException e) {
+      return List.of();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Hot keys of cache '" + cacheName + "' were not read", e);
+    }
+  }
+
+  @Override
+  public @NonNull Set<String> cacheNames() {
+    if (!Files.isDirectory(directory)) {
+      return Set.of();
+    }
+
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+          .map(file -> file.getFileName().toString())
+          .filter(fileName -> fileName.endsWith(EXTENSION))
+          .map(fileName -> fileName.substring(0, fileName.length() - EXTENSION.length()))
+          .map(cacheName -> URLDecoder.decode(cacheName, StandardCharsets.UTF_8))
+          .collect(Collectors.toSet());
+    } catch (IOException e) {
+      throw new UncheckedIOException("Hot keys in " + directory + " were not listed", e);
+    }
+  }
+
+  /**
+   * @param cacheName of the cache
+   * @return file of the cache
+   */
+  private Path file(@NonNull String cacheName) {
+    return directory.resolve(URLEncoder.encode(cacheName, StandardCharsets.UTF_8) + EXTENSION);
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Roman Khlebnov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.suppie.spring.cache;
+
+import java.util.List;
+import java.util.Set;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Keeps the hottest keys of local caches between restarts, so that caches are warmed up with them
+ * on startup, see {@code spring.cache.multilevel.warmup.*}.
+ *
+ * <p>Define a bean of this type to replace the manifest chosen by {@code
+ * spring.cache.multilevel.warmup.manifest-type}.
+ */
+public interface HotKeyManifest {
+
+  /**
+   * Records the hottest keys of the cache, replacing or outranking keys recorded before.
+   *
+   * @param cacheName of the cache
+   * @param keys converted keys, hottest first
+   */
+  void write(@NonNull String cacheName, @NonNull List<String> keys);
+
+  /**
+   * @param cacheName of the cache
+   * @param limit maximum amount of keys to return
+   * @return recorded converted keys of the cache, hottest first
+   */
+  @NonNull List<String> read(@NonNull String cacheName, int limit);
+
+  /**
+   * @return names of caches having recorded keys
+   */
+  @NonNull Set<String> cacheNames();
+}
@@ -0,0 +1,9 @@
+package io.github.suppie.spring.cache;
+
+/** Defines where hot keys of local caches are recorded for warming them up on startup. */
+public enum HotKeyManifestType {
+  /** Sorted set per cache in Redis shared by all instances */
+  REDIS,
+  /** File per cache in a local directory of the instance */
+  FILE
+}
@@ -0,0 +1,127 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Roman Khlebnov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.suppie.spring.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * Journal of keys changed in Redis, kept in a Redis sorted set per cache scored by the time of the
+ * change, so that restarted instances catch up on evictions published while they were down.
+ *
+ * <p>Changes older than retention are trimmed on every write, and the whole set expires once the
+ * cache is not changed for as long.
+ *
+ * <p>Changes are journaled by instances using this library only, so the journal covers every change
+ * only if every writer of the cache keys uses it with the persistent tier enabled.
+ */
+final class InvalidationJournal {
+
+  // Member recording that the whole cache was cleared, a key made of NUL only drops more entries
+  private static final byte[] CLEAR_MEMBER = {0};
+
+  private final RedisTemplate<Object, Object> redisTemplate;
+  private final byte[] journalKey;
+  private final Duration retention;
+
+  /**
+   * @param redisTemplate to access the journal with
+   * @param journalKey name of Redis sorted set
+   * @param retention of changes in the journal
+   */
+  InvalidationJournal(
+      @NonNull RedisTemplate<Object, Object> redisTemplate,
+      @NonNull String journalKey,
+      @NonNull Duration retention) {
+    if (retention.isNegative() || retention.isZero()) {
+      throw new IllegalArgumentException("Journal retention must be positive");
+    }
+
+    this.redisTemplate = redisTemplate;
+    this.journalKey = journalKey.getBytes(StandardCharsets.UTF_8);
+    this.retention = retention;
+  }
+
+  /**
+   * Records changed keys as part of the pipeline of the connection, so that journaling does not
+   * cost a round trip of its own.
+   *
+   * @param connection with an open pipeline
+   * @param keys converted keys changed in Redis, {@code null} if the whole cache was cleared
+   */
+  void record(@NonNull RedisConnection connection, @Nullable Collection<String> keys) {
+    long now = System.currentTimeMillis();
+
+    if (keys == null) {
+      connection.zSetCommands().zAdd(journalKey, now, CLEAR_MEMBER);
+    } else {
+      for (String key : keys) {
+        connection.zSetCommands().zAdd(journalKey, now, key.getBytes(StandardCharsets.UTF_8));
+      }
+    }
+    connection
+        .zSetCommands()
+        .zRemRangeByScore(journalKey, Double.NEGATIVE_INFINITY, now - retention.toMillis());
+    connection.keyCommands().pExpire(journalKey, retention.toMillis());
+  }
+
+  /**
+   * @param since epoch milliseconds from which changes are needed
+   * @return keys changed since the given time, or {@code null} if the whole cache might have
+   *     changed, because it was cleared or the journal no longer covers that time
+   */
+  @Nullable Set<String> changedSince(long since) {
+    if (System.currentTimeMillis() - since > retention.toMillis()) {
+      return null;
+    }
+
+    Set<byte[]> members =
+        redisTemplate.execute(
+            (RedisCallback<Set<byte[]>>)
+                connection ->
+                    connection
+                        .zSetCommands()
+                        .zRangeByScore(journalKey, since, Double.POSITIVE_INFINITY));
+
+    Set<String> keys = new HashSet<>();
+    if (members != null) {
+      for (byte[] member : members) {
+        if (member.length == 1 && member[0] == CLEAR_MEMBER[0]) {
+          return null;
+        }
+        keys.add(new String(member, StandardCharsets.UTF_8));
+      }
+    }
+    return keys;
+  }
+}
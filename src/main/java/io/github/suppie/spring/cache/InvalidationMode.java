@@ -0,0 +1,9 @@
+package io.github.suppie.spring.cache;
+
+/** Defines how local caches of other instances learn about changed Redis entries. */
+public enum InvalidationMode {
+  /** Every write publishes {@link MultiLevelCacheEvictMessage} to the configured topic */
+  PUBSUB,
+  /** Redis pushes invalidations for cache key prefixes using {@code CLIENT TRACKING BCAST} */
+  TRACKING
+}
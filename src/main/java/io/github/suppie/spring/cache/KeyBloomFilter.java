@@ -0,0 +1,157 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Roman Khlebnov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.suppie.spring.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Lock-free Bloom filter of local cache keys known to exist in Redis.
+ *
+ * <p>The filter never reports a key added to it as absent, so a negative answer allows to skip the
+ * Redis round trip. Keys cannot be removed, hence entries evicted from Redis turn into false
+ * positives until the filter is rebuilt.
+ */
+final class KeyBloomFilter {
+
+  private static final double LN_2 = Math.log(2);
+
+  private final AtomicLongArray words;
+  private final long bitSize;
+  private final int hashFunctions;
+  private final LongAdder bitsSet = new LongAdder();
+
+  /**
+   * @param expectedInsertions amount of keys the filter is sized for
+   * @param falsePositiveProbability desired probability of false positives at expected insertions
+   */
+  KeyBloomFilter(long expectedInsertions, double falsePositiveProbability) {
+    if (expectedInsertions <= 0) {
+      throw new IllegalArgumentException("Bloom filter expected insertions must be positive");
+    }
+
+    if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+      throw new IllegalArgumentException(
+          "Bloom filter false positive probability must be between 0 and 1");
+    }
+
+    long bits =
+        (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (LN_2 * LN_2));
+    int wordCount = Math.toIntExact((bits + Long.SIZE - 1) / Long.SIZE);
+
+    this.words = new AtomicLongArray(wordCount);
+    this.bitSize = (long) wordCount * Long.SIZE;
+    this.hashFunctions =
+        Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * LN_2));
+  }
+
+  /**
+   * @param key to record as present in Redis
+   */
+  void put(@NonNull String key) {
+    long hash = hash(key);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+
+    for (int i = 1; i <= hashFunctions; i++) {
+      setBit(index(h1 + i * h2));
+    }
+  }
+
+  /**
+   * @param key to check
+   * @return {@code false} if key was never added to this filter
+   */
+  boolean mightContain(@NonNull String key) {
+    long hash = hash(key);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+
+    for (int i = 1; i <= hashFunctions; i++) {
+      long index = index(h1 + i * h2);
+      if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * @return probability of false positives for the current amount of set bits
+   */
+  double expectedFalsePositiveProbability() {
+    return Math.pow((double) bitsSet.sum() / bitSize, hashFunctions);
+  }
+
+  /**
+   * @return approximate memory occupied by the filter bits in bytes
+   */
+  long memoryBytes() {
+    return bitSize / Byte.SIZE;
+  }
+
+  private long index(int combinedHash) {
+    // Flip negative hashes to keep indexes uniformly distributed
+    return (combinedHash < 0 ? ~combinedHash : combinedHash) % bitSize;
+  }
+
+  private void setBit(long index) {
+    int wordIndex = (int) (index >>> 6);
+    long mask = 1L << index;
+
+    long word;
+    do {
+      word = words.get(wordIndex);
+      if ((word & mask) != 0) {
+        return;
+      }
+    } while (!words.compareAndSet(wordIndex, word, word | mask));
+
+    bitsSet.increment();
+  }
+
+  /**
+   * FNV-1a over key characters finalized with MurmurHash3 mixer to spread bits over both halves.
+   *
+   * @param key to hash
+   * @return 64-bit hash
+   */
+  private static long hash(String key) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < key.length(); i++) {
+      hash ^= key.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Roman Khlebnov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.suppie.spring.cache;
+
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Estimates the amount of memory taken by values of local caches, used once {@code
+ * spring.cache.multilevel.local.max-weight} is set.
+ *
+ * <p>Define a bean of this type to replace the default estimate, which is the size of a value
+ * serialized by the Redis value serializer. Weights are computed once per put into local cache,
+ * so estimators should be cheap.
+ */
+@FunctionalInterface
+public interface LocalCacheWeigher {
+
+  /**
+   * @param cacheName of the cache holding the value
+   * @param key of the value in local cache
+   * @param value to weigh, can be {@link org.springframework.cache.support.NullValue}
+   * @return non-negative weight of the value in bytes
+   */
+  int weigh(@NonNull String cacheName, @NonNull Object key, @NonNull Object value);
+}
@@ -0,0 +1,193 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Roman Khlebnov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.suppie.spring.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Entries of a single cache in local cache, keyed by converted keys. Backed either by a local cache
+ * of the cache itself, or by {@link SharedLocalCache} shared by all caches of a manager.
+ */
+interface LocalEntries {
+
+  /**
+   * @param cache local cache of a single cache
+   * @return entries of the given local cache
+   */
+  static LocalEntries of(@NonNull Cache<@NonNull Object, Object> cache) {
+    return new CacheEntries(cache);
+  }
+
+  /**
+   * @param key to look up
+   * @return value, or {@code null} if none or expired
+   */
+  @Nullable Object getIfPresent(@NonNull String key);
+
+  /**
+   * @param key to associate the value with
+   * @param value to store
+   */
+  void put(@NonNull String key, @NonNull Object value);
+
+  /**
+   * @param values to store by their keys
+   */
+  void putAll(@NonNull Map<String, Object> values);
+
+  /**
+   * @param key of the entry to replace
+   * @param value to store
+   * @param expiresAfter new lifetime of the entry in nanoseconds, applied if local cache expires
+   *     entries variably
+   * @return {@code true} if the entry was present and got replaced
+   */
+  boolean replace(@NonNull String key, @NonNull Object value, long expiresAfter);
+
+  /**
+   * @param key of the entry
+   * @return nanoseconds until the entry expires, {@link Long#MAX_VALUE} if it is absent or local
+   *     cache does not expire entries variably
+   */
+  long expiresAfter(@NonNull String key);
+
+  /**
+   * @param key to remove
+   */
+  void invalidate(@NonNull String key);
+
+  /**
+   * @param keys to remove
+   */
+  void invalidateAll(@NonNull Collection<String> keys);
+
+  /** Removes all entries */
+  void invalidateAll();
+
+  /**
+   * @return approximate amount of entries
+   */
+  long estimatedSize();
+
+  /**
+   * @return statistics of entries
+   */
+  CacheStats stats();
+
+  /**
+   * @param limit maximum amount of keys to return
+   * @return keys, most frequently used first, or none if local cache is not bounded
+   */
+  List<String> hottestKeys(int limit);
+
+  /** Entries of a local cache of a single cache */
+  final class CacheEntries implements LocalEntries {
+
+    private final Cache<@NonNull Object, Object> cache;
+    private final Policy.@Nullable VarExpiration<@NonNull Object, Object> expiration;
+
+    private CacheEntries(@NonNull Cache<@NonNull Object, Object> cache) {
+      this.cache = cache;
+      this.expiration = cache.policy().expireVariably().orElse(null);
+    }
+
+    @Override
+    public @Nullable Object getIfPresent(@NonNull String key) {
+      return cache.getIfPresent(key);
+    }
+
+    @Override
+    public void put(@NonNull String key, @NonNull Object value) {
+      cache.put(key, value);
+    }
+
+    @Override
+    public void putAll(@NonNull Map<String, Object> values) {
+      cache.putAll(values);
+    }
+
+    @Override
+    public boolean replace(@NonNull String key, @NonNull Object value, long expiresAfter) {
+      if (cache.asMap().replace(key, value) == null) {
+        return false;
+      }
+
+      if (expiration != null) {
+        expiration.setExpiresAfter(key, expiresAfter, TimeUnit.NANOSECONDS);
+      }
+      return true;
+    }
+
+    @Override
+    public long expiresAfter(@NonNull String key) {
+      return expiration == null
+          ? Long.MAX_VALUE
+          : expiration.getExpiresAfter(key, TimeUnit.NANOSECONDS).orElse(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void invalidate(@NonNull String key) {
+      cache.invalidate(key);
+    }
+
+    @Override
+    public void invalidateAll(@NonNull Collection<String> keys) {
+      cache.invalidateAll(keys);
+    }
+
+    @Override
+    public void invalidateAll() {
+      cache.invalidateAll();
+    }
+
+    @Override
+    public long estimatedSize() {
+      return cache.estimatedSize();
+    }
+
+    @Override
+    public CacheStats stats() {
+      return cache.stats();
+    }
+
+    @Override
+    public List<String> hottestKeys(int limit) {
+      return cache
+          .policy()
+          .eviction()
+          .map(
+              eviction ->
+                  eviction.hottest(limit).keySet().stream().map(String.class::cast).toList())
+          .orElseGet(List::of);
+    }
+  }
+}
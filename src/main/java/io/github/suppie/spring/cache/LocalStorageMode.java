@@ -0,0 +1,12 @@
+package io.github.suppie.spring.cache;
+
+/** Defines the form of values kept in local cache. */
+public enum LocalStorageMode {
+  /** Values are kept as objects, local cache is bounded by the amount of entries */
+  OBJECTS,
+  /**
+   * Values are kept serialized by the value serializer of Redis and deserialized on reads, local
+   * cache is bounded by their total size
+   */
+  SERIALIZED
+}
@@ -0,0 +1,62 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Roman Khlebnov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.suppie.spring.cache;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Tier of serialized values between local cache and Redis. Values found in a tier are
+ * deserialized back into local cache, values written to local cache are copied into every tier.
+ */
+interface LocalTier {
+
+  /**
+   * @param key to look up
+   * @return copy of stored bytes, or {@code null} if none or expired
+   */
+  byte @Nullable [] get(@NonNull String key);
+
+  /**
+   * @param key to associate the value with
+   * @param value serialized value to store
+   * @param timeToLive of the entry in nanoseconds
+   * @return {@code true} if the value was stored
+   */
+  boolean put(@NonNull String key, byte @NonNull [] value, long timeToLive);
+
+  /**
+   * @param key to remove
+   */
+  void remove(@NonNull String key);
+
+  /** Removes all entries */
+  void clear();
+
+  /**
+   * @return amount of stored entries, including expired ones not evicted yet
+   */
+  long size();
+}
@@ -28,23 +28,61 @@ import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.core.functions.CheckedSupplier;
+import io.github.suppie.spring.cache.MultiLevelCacheConfigurationProperties.CompressionProperties;
+import io.github.suppie.spring.cache.MultiLevelCacheConfigurationProperties.OffHeapProperties;
+import io.github.suppie.spring.cache.MultiLevelCacheConfigurationProperties.PerCacheProperties;
+import io.github.suppie.spring.cache.MultiLevelCacheConfigurationProperties.PersistentProperties;
+import io.github.suppie.spring.cache.MultiLevelCacheManager.RandomizedLocalExpiry;
+import io.github.suppie.spring.cache.RedisCallPolicy.Operation;
+import io.github.suppie.spring.cache.RedisShards.Shard;
 import io.github.suppierk.java.Try;
-import io.github.suppierk.java.util.function.ThrowableSupplier;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.Callable;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import lombok.extern.slf4j.Slf4j;
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
+import org.springframework.cache.support.NullValue;
 import org.springframework.cache.support.SimpleValueWrapper;
 import org.springframework.data.redis.cache.RedisCache;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.types.Expiration;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
 
 /**
  * Multi-level cache implementation
@@ -65,27 +103,77 @@ public class MultiLevelCache extends RedisCache {
   // Error messages
   private static final String NO_REDIS_CONNECTION =
       "Redis connection factory was not found for RedisCacheWriter";
-  private static final String LOCK_WAS_NOT_INITIALIZED = "Lock was not initialized";
 
-  // These are local non-overridable properties for ReentrantLocks cache to provide atomicity
-  private static final Object CACHE_WIDE_LOCK_OBJECT = new Object();
-  private static final long LOCKS_CACHE_MAXIMUM_SIZE = 1000;
-  private static final Duration LOCKS_CACHE_EXPIRE_AFTER_ACCESS = Duration.ofSeconds(15);
+  // Key used to make cache-wide operations exclusive
+  private static final Object CACHE_WIDE_FLIGHT_KEY = new Object();
+
+  // Time Redis has to push invalidation about own write before it is forgotten
+  private static final Duration OWN_WRITE_WINDOW = Duration.ofSeconds(5L);
 
   /** Configuration settings governing TTL, jitter, and other cache behavior */
   protected final MultiLevelCacheConfigurationProperties properties;
 
-  /** Local in-memory cache tier for fast lookups before querying Redis */
-  protected final Cache<@NonNull Object, Object> localCache;
-
-  /** Per-key lock cache used to synchronize concurrent cache population */
-  protected final Cache<@NonNull Object, ReentrantLock> locks;
+  /**
+   * Local in-memory cache tier for fast lookups before querying Redis, {@code null} if local cache
+   * is shared by all caches of the manager
+   */
+  protected final @Nullable Cache<@NonNull Object, Object> localCache;
 
   /** Circuit breaker protecting Redis operations for fault tolerance */
   protected final CircuitBreaker cacheCircuitBreaker;
 
+  // Entries of this cache in local cache, keyed by converted keys
+  private final LocalEntries localEntries;
+
+  // Per-key in-flight operations used to coalesce concurrent cache population
+  private final SingleFlight flights;
+
   private final RedisTemplate<Object, Object> redisTemplate;
   private final String instanceId;
+  private final Executor executor;
+
+  // Latency budgets, concurrency limit and hedging of Redis calls
+  private final RedisCallPolicy redisCalls;
+
+  // Reads from replicas, disabled if null
+  private final @Nullable ReadRouting readRouting;
+
+  // Redis servers sharing entries instead of Redis template, disabled if null
+  private final @Nullable RedisShards shards;
+
+  // Serialized form of local cache values, values are kept as objects if null
+  private final @Nullable SerializedLocalValues serializedLocalValues;
+
+  // Serialized values kept outside of Java heap behind local cache, disabled if null
+  private final @Nullable OffHeapStore offHeapStore;
+
+  // Serialized values kept on disk behind off-heap tier, disabled if null
+  private final @Nullable PersistentStore persistentStore;
+  private final @Nullable InvalidationJournal journal;
+
+  // Tiers of serialized values behind local cache, ordered from the fastest one
+  private final List<LocalTier> localTiers;
+
+  // Refresh ahead of local expiration, expiry also times local tiers
+  private final boolean refreshAhead;
+  private final @Nullable RandomizedLocalExpiry localExpiry;
+
+  // Keys known to exist in Redis, disabled if null
+  private final @Nullable CacheKeyFilter keyFilter;
+
+  // Memoized conversions of immutable non-String keys
+  private final Cache<@NonNull Object, String> convertedKeys;
+
+  // Evictions skipped while Redis calls were not permitted, replayed once circuit breaker closes
+  private final Set<String> pendingEvictions;
+  private final AtomicBoolean pendingClear;
+
+  // Own writes which Redis reports with invalidations, only with invalidation mode TRACKING
+  private final @Nullable OwnWrites ownWrites;
+
+  // Eviction notifications sent in order by one task at a time, with virtual threads only
+  private final Queue<MultiLevelCacheEvictMessage> pendingPublishes;
+  private final AtomicBoolean publishing;
 
   /**
    * Initializes a new instance of the MultiLevelCache class with the given parameters.
@@ -134,30 +222,243 @@ public class MultiLevelCache extends RedisCache {
       Cache<@NonNull Object, Object> localCache,
       CircuitBreaker cacheCircuitBreaker,
       String instanceId) {
-    super(name, redisCacheWriter, adjustRedisCacheConfiguration(properties, redisTemplate));
+    this(
+        name,
+        properties,
+        redisCacheWriter,
+        redisTemplate,
+        localCache,
+        cacheCircuitBreaker,
+        instanceId,
+        MultiLevelCacheOptions.builder().build());
+  }
+
+  /**
+   * Creates a new instance of MultiLevelCache.
+   *
+   * @param name The name of the cache.
+   * @param properties The configuration properties for the cache.
+   * @param redisCacheWriter The Redis cache writer to use, sharded if shards are given.
+   * @param redisTemplate The Redis template used for accessing the Redis cache.
+   * @param localCache The local cache used as an additional level of caching.
+   * @param cacheCircuitBreaker The circuit breaker used for handling cache failures.
+   * @param instanceId is current unique service instance identifier.
+   * @param options The optional collaborators of the cache.
+   */
+  public MultiLevelCache(
+      String name,
+      MultiLevelCacheConfigurationProperties properties,
+      RedisCacheWriter redisCacheWriter,
+      RedisTemplate<Object, Object> redisTemplate,
+      Cache<@NonNull Object, Object> localCache,
+      CircuitBreaker cacheCircuitBreaker,
+      String instanceId,
+      MultiLevelCacheOptions options) {
+    this(
+        name,
+        properties,
+        redisCacheWriter,
+        redisTemplate,
+        localCache,
+        LocalEntries.of(localCache),
+        null,
+        cacheCircuitBreaker,
+        instanceId,
+        options,
+        null);
+  }
+
+  /**
+   * Creates a new instance of MultiLevelCache.
+   *
+   * @param name The name of the cache.
+   * @param properties The configuration properties for the cache.
+   * @param redisCacheWriter The Redis cache writer to use, sharded if shards are given.
+   * @param redisTemplate The Redis template used for accessing the Redis cache.
+   * @param localCache The local cache of this cache, or {@code null} if local cache is shared.
+   * @param localEntries The entries of this cache in local cache.
+   * @param localExpiry The expiry of local entries, or {@code null} if it is not known.
+   * @param cacheCircuitBreaker The circuit breaker used for handling cache failures.
+   * @param instanceId is current unique service instance identifier.
+   * @param options The optional collaborators of the cache.
+   * @param callExecutor The pool shared by caches of the manager to run Redis calls with a latency
+   *     budget on, or {@code null} to start a pool of the cache's own if needed.
+   */
+  MultiLevelCache(
+      String name,
+      MultiLevelCacheConfigurationProperties properties,
+      RedisCacheWriter redisCacheWriter,
+      RedisTemplate<Object, Object> redisTemplate,
+      @Nullable Cache<@NonNull Object, Object> localCache,
+      LocalEntries localEntries,
+      @Nullable RandomizedLocalExpiry localExpiry,
+      CircuitBreaker cacheCircuitBreaker,
+      String instanceId,
+      MultiLevelCacheOptions options,
+      @Nullable Executor callExecutor) {
+    super(name, redisCacheWriter, adjustRedisCacheConfiguration(name, properties, redisTemplate));
 
     this.properties = properties;
     this.redisTemplate = redisTemplate;
     this.localCache = localCache;
-    this.locks =
-        Caffeine.newBuilder()
-            .maximumSize(LOCKS_CACHE_MAXIMUM_SIZE)
-            .expireAfterAccess(LOCKS_CACHE_EXPIRE_AFTER_ACCESS)
-            .build();
+    this.localEntries = localEntries;
+    this.flights = new SingleFlight();
     this.cacheCircuitBreaker = cacheCircuitBreaker;
     this.instanceId = instanceId;
+    this.executor = options.getExecutor();
+    this.shards = options.getShards();
+    this.redisCalls =
+        new RedisCallPolicy(
+            name,
+            properties.getRedisCalls(),
+            executor,
+            properties.getExecution().isVirtualThreads(),
+            callExecutor);
+    RedisConnectionFactory readConnectionFactory = options.getReadConnectionFactory();
+    this.readRouting =
+        readConnectionFactory != null
+                && shards == null
+                && (properties.getReadRouting().getMode() != ReadRoutingMode.MASTER
+                    || properties.getRedisCalls().getHedgeDelay().isPresent())
+            ? new ReadRouting(
+                readConnectionFactory,
+                properties.getReadRouting(),
+                properties.getLocal().getMaxSize())
+            : null;
+    this.serializedLocalValues =
+        properties.getLocal().getStorageMode() == LocalStorageMode.SERIALIZED
+            ? new SerializedLocalValues(
+                this::serializeCacheValue,
+                this::deserializeCacheValue,
+                properties.getLocal().getDecodedSize())
+            : null;
+    OffHeapProperties offHeap = properties.getLocal().getOffHeap();
+    this.offHeapStore =
+        offHeap.isEnabled()
+            ? new OffHeapStore(
+                offHeap.getCapacity(),
+                offHeap.getSlabSize(),
+                offHeap.getBlockSize(),
+                offHeap.getSegments())
+            : null;
+    PersistentProperties persistent = properties.getLocal().getPersistent();
+    if (persistent.isEnabled()) {
+      if (persistent.getDirectory() == null) {
+        throw new IllegalStateException(
+            "Property 'spring.cache.multilevel.local.persistent.directory' must be set when"
+                + " persistent tier is enabled");
+      }
+
+      if (properties.getInvalidation().getMode() == InvalidationMode.TRACKING) {
+        // Writers which do not journal their changes are only reported by Redis pushes
+        throw new IllegalStateException(
+            "Property 'spring.cache.multilevel.local.persistent.enabled' cannot be set when"
+                + " 'invalidation.mode' is 'tracking'");
+      }
+
+      this.persistentStore =
+          new PersistentStore(persistent.getDirectory(), name, persistent.getCapacity());
+      this.journal =
+          new InvalidationJournal(
+              redisTemplate,
+              properties.getTopic() + ":journal:" + name,
+              persistent.getJournalRetention());
+    } else {
+      this.persistentStore = null;
+      this.journal = null;
+    }
+    List<LocalTier> tiers = new ArrayList<>(2);
+    if (offHeapStore != null) {
+      tiers.add(offHeapStore);
+    }
+    if (persistentStore != null) {
+      tiers.add(persistentStore);
+    }
+    this.localTiers = List.copyOf(tiers);
+    this.convertedKeys =
+        Caffeine.newBuilder().maximumSize(properties.getLocal().getMaxSize()).build();
+    this.pendingEvictions = ConcurrentHashMap.newKeySet();
+    this.pendingClear = new AtomicBoolean();
+    this.ownWrites =
+        properties.getInvalidation().getMode() == InvalidationMode.TRACKING
+            ? new OwnWrites(properties.getLocal().getMaxSize(), OWN_WRITE_WINDOW)
+            : null;
+    this.pendingPublishes = new ConcurrentLinkedQueue<>();
+    this.publishing = new AtomicBoolean();
+
+    if (properties.getEarlyRecompute().isEnabled()
+        && properties.getEarlyRecompute().getBeta() <= 0) {
+      throw new IllegalArgumentException("Early recompute beta must be positive");
+    }
+
+    // Expiry of local cache tells lifetimes of local entries, which are derived from their keys
+    this.localExpiry =
+        localExpiry != null
+            ? localExpiry
+            : properties.getLocal().getRefreshAhead() > 0 || !localTiers.isEmpty()
+                ? new RandomizedLocalExpiry(properties)
+                : null;
+    this.refreshAhead = properties.getLocal().getRefreshAhead() > 0;
+
+    if (properties.getBloomFilter().isEnabled()) {
+      this.keyFilter =
+          new CacheKeyFilter(name, properties.getBloomFilter(), this::scanRedisKeys, executor);
+      this.keyFilter.rebuildAsync();
+    } else {
+      this.keyFilter = null;
+    }
+
+    if (persistentStore != null) {
+      executor.execute(this::reconcilePersistentStore);
+    }
+
+    cacheCircuitBreaker
+        .getEventPublisher()
+        .onStateTransition(
+            event -> {
+              if (event.getStateTransition().getToState() == CircuitBreaker.State.CLOSED) {
+                executor.execute(this::replayPendingEvictions);
+              }
+            });
   }
 
   // Workarounds for tests
 
   Cache<@NonNull Object, Object> getLocalCache() {
+    if (localCache == null) {
+      throw new IllegalStateException("Local cache of cache '" + getName() + "' is shared");
+    }
     return localCache;
   }
 
+  LocalEntries getLocalEntries() {
+    return localEntries;
+  }
+
+  @Nullable CacheKeyFilter getKeyFilter() {
+    return keyFilter;
+  }
+
+  @Nullable OffHeapStore getOffHeapStore() {
+    return offHeapStore;
+  }
+
+  @Nullable PersistentStore getPersistentStore() {
+    return persistentStore;
+  }
+
+  @Nullable OwnWrites getOwnWrites() {
+    return ownWrites;
+  }
+
   @Nullable <T> T nativeGet(@NonNull Object key) {
     return super.get(key, () -> null);
   }
 
+  @Nullable Object nativeLookup(@NonNull Object key) {
+    return super.lookup(key);
+  }
+
   void nativePut(@NonNull Object key, @Nullable Object value) {
     super.put(key, value);
   }
@@ -166,8 +467,176 @@ public class MultiLevelCache extends RedisCache {
     return convertKey(key);
   }
 
+  Set<String> getPendingEvictions() {
+    return pendingEvictions;
+  }
+
+  boolean isPendingClear() {
+    return pendingClear.get();
+  }
+
   // Workarounds for tests
 
+  /**
+   * Convert {@code key} to a {@link String} used by both cache levels.
+   *
+   * <p>Conversion through {@link org.springframework.core.convert.ConversionService} builds a new
+   * {@link String} every time, so conversions of keys known to be immutable, which are {@link
+   * Long}, {@link Integer}, {@link UUID} and enums, are memoized to keep local cache hits free of
+   * allocations. Other keys, including records which might hold mutable components, are converted
+   * every time.
+   *
+   * @param key the key to convert
+   * @return the converted key
+   */
+  @Override
+  protected @NonNull String convertKey(@NonNull Object key) {
+    if (key instanceof String stringKey) {
+      return stringKey;
+    }
+
+    if (!isImmutableKey(key)) {
+      return super.convertKey(key);
+    }
+
+    String convertedKey = convertedKeys.getIfPresent(key);
+    if (convertedKey == null) {
+      convertedKey = super.convertKey(key);
+      convertedKeys.put(key, convertedKey);
+    }
+    return convertedKey;
+  }
+
+  /**
+   * @param key to check
+   * @return {@code true} if key cannot change after its conversion was memoized
+   */
+  private static boolean isImmutableKey(@NonNull Object key) {
+    return key instanceof Long
+        || key instanceof Integer
+        || key instanceof UUID
+        || key instanceof Enum<?>;
+  }
+
+  /**
+   * @param localKey to look up
+   * @return store value from local cache, or {@code null} if none
+   */
+  private @Nullable Object getLocalValue(@NonNull String localKey) {
+    Object localValue = localEntries.getIfPresent(localKey);
+    if (localValue == null) {
+      return getTierValue(localKey);
+    }
+
+    return serializedLocalValues == null ? localValue : serializedLocalValues.decode(localValue);
+  }
+
+  /**
+   * Promotes value found in a local tier back to local cache.
+   *
+   * @param localKey to look up
+   * @return store value from the fastest local tier having it, or {@code null} if none
+   */
+  private @Nullable Object getTierValue(@NonNull String localKey) {
+    for (LocalTier tier : localTiers) {
+      byte[] bytes = tier.get(localKey);
+      if (bytes != null) {
+        Object storeValue = deserializeCacheValue(bytes);
+        localEntries.put(localKey, toLocalValue(storeValue));
+        return storeValue;
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * @param localKey to associate the value with
+   * @param storeValue to put into local cache
+   */
+  private void putLocalValue(@NonNull String localKey, @NonNull Object storeValue) {
+    localEntries.put(localKey, toLocalValue(storeValue));
+    putTierValue(localKey, storeValue);
+  }
+
+  /**
+   * Copies value to local tiers, {@link NullValue} is kept in local cache only for its shorter
+   * lifetime.
+   *
+   * @param localKey to associate the value with
+   * @param storeValue to copy
+   */
+  private void putTierValue(@NonNull String localKey, @NonNull Object storeValue) {
+    if (localTiers.isEmpty() || localExpiry == null) {
+      return;
+    }
+
+    if (storeValue instanceof NullValue) {
+      localTiers.forEach(tier -> tier.remove(localKey));
+      return;
+    }
+
+    try {
+      byte[] bytes = serializeCacheValue(storeValue);
+      long timeToLive = localExpiry.computeExpiration(localKey);
+      localTiers.forEach(tier -> tier.put(localKey, bytes, timeToLive));
+    } catch (SerializationException e) {
+      log.debug("Value of key '{}' was not copied to tiers of cache '{}'", localKey, getName(), e);
+      localTiers.forEach(tier -> tier.remove(localKey));
+    }
+  }
+
+  /**
+   * @param localKey to remove from local cache and local tiers
+   */
+  private void invalidateLocalValue(@NonNull String localKey) {
+    localEntries.invalidate(localKey);
+    localTiers.forEach(tier -> tier.remove(localKey));
+  }
+
+  /**
+   * Drops entries of persistent tier changed while this instance was down, using the journal of
+   * changes in Redis. All entries are dropped if Redis cannot tell which keys changed.
+   */
+  private void reconcilePersistentStore() {
+    if (persistentStore == null || journal == null) {
+      return;
+    }
+
+    long clockSkew = properties.getLocal().getPersistent().getClockSkew().toMillis();
+    Set<String> changedKeys =
+        persistentStore.size() == 0
+            ? Set.of()
+            : callRedis(
+                Operation.LOOKUP,
+                () -> journal.changedSince(persistentStore.getSyncedAt() - clockSkew));
+    persistentStore.reconcile(changedKeys);
+    log.debug(
+        "Persistent tier of cache '{}' serves {} entries after dropping {} changed keys",
+        getName(),
+        persistentStore.size(),
+        changedKeys == null ? "all" : changedKeys.size());
+  }
+
+  /**
+   * Closes persistent tier, so that restarted instance can trust its entries, and stops threads
+   * of the Redis call pool of the cache's own, if there is one
+   */
+  void close() {
+    redisCalls.close();
+    if (persistentStore != null) {
+      persistentStore.close();
+    }
+  }
+
+  /**
+   * @param storeValue to put into local cache
+   * @return value in the form of local cache storage mode
+   */
+  private Object toLocalValue(@NonNull Object storeValue) {
+    return serializedLocalValues == null ? storeValue : serializedLocalValues.encode(storeValue);
+  }
+
   /**
    * Perform an actual lookup in the underlying store.
    *
@@ -182,29 +651,30 @@ public class MultiLevelCache extends RedisCache {
   @Override
   protected Object lookup(@NonNull Object key) {
     final String localKey = convertKey(key);
-    Object localValue = localCache.getIfPresent(localKey);
+    Object localValue = getLocalValue(localKey);
 
     if (localValue != null) {
-      log.trace("Local cache hit for cache '{}' and key '{}'", getName(), localKey);
+      if (log.isTraceEnabled()) {
+        log.trace("Local cache hit for cache '{}' and key '{}'", getName(), localKey);
+      }
+      refreshAheadIfDue(key, localKey);
       return localValue;
     }
 
-    return callRedis(() -> super.lookup(key))
-        .map(
-            value -> {
-              if (value != null) {
-                log.trace("Redis cache hit for cache '{}' and key '{}'", getName(), localKey);
-                localCache.put(localKey, value);
-              } else {
-                log.trace("Redis cache miss for cache '{}' and key '{}'", getName(), localKey);
-              }
-              return value;
-            })
-        .orElse(
-            () -> {
-              log.trace("Redis cache unavailable for cache '{}' and key '{}'", getName(), localKey);
-              return null;
-            });
+    RedisLookup redisResult = lookupInRedis(localKey);
+    if (!redisResult.available()) {
+      log.trace("Redis cache unavailable for cache '{}' and key '{}'", getName(), localKey);
+      return null;
+    }
+
+    Object value = unwrap(redisResult.value());
+    if (value != null) {
+      log.trace("Redis cache hit for cache '{}' and key '{}'", getName(), localKey);
+      putLocalValue(localKey, value);
+    } else {
+      log.trace("Redis cache miss for cache '{}' and key '{}'", getName(), localKey);
+    }
+    return value;
   }
 
   /**
@@ -218,10 +688,13 @@ public class MultiLevelCache extends RedisCache {
    * <p>If Redis cannot be queried, {@code valueLoader} will still be executed and value will be
    * stored in local cache instead.
    *
+   * <p>Concurrent calls for the same key are coalesced: only one caller executes the load, others
+   * wait for its result for at most {@code load-wait-timeout} if it is configured.
+   *
    * @param key the key whose associated value is to be returned
    * @return the value to which this cache maps the specified key
-   * @throws ValueRetrievalException if the {@code valueLoader} throws an exception or retrieved
-   *     value was {@code null}
+   * @throws ValueRetrievalException if the {@code valueLoader} throws an exception, retrieved value
+   *     was {@code null} or waiting for a concurrent load timed out
    * @see #get(Object)
    */
   @Override
@@ -229,300 +702,1367 @@ public class MultiLevelCache extends RedisCache {
   @SuppressWarnings("unchecked")
   public <T> T get(@NonNull Object key, @NonNull Callable<T> valueLoader) {
     final String localKey = convertKey(key);
-    Object localValue = localCache.getIfPresent(localKey);
+    Object localValue = getLocalValue(localKey);
 
     if (localValue != null) {
-      log.trace("Local cache hit for cache '{}' and key '{}'", getName(), localKey);
-      return (T) localValue;
+      if (log.isTraceEnabled()) {
+        log.trace("Local cache hit for cache '{}' and key '{}'", getName(), localKey);
+      }
+      refreshAheadIfDue(key, localKey);
+      return (T) fromStoreValue(localValue);
     }
 
-    final ReentrantLock lock = makeLock(key);
-    lock.lock();
     try {
-      localValue = localCache.getIfPresent(localKey);
-      if (localValue != null) {
-        log.trace("Local cache hit for cache '{}' and key '{}' after wait", getName(), localKey);
-        return (T) localValue;
+      return flights.execute(
+          localKey,
+          () -> load(key, localKey, valueLoader),
+          properties.getLoadWaitTimeout().orElse(null));
+    } catch (ValueRetrievalException e) {
+      throw e;
+    } catch (Exception e) {
+      if (e instanceof InterruptedException) {
+        Thread.currentThread().interrupt();
       }
-
-      Try<T> redisResult = callRedis(() -> super.get(key, valueLoader));
-
-      redisResult.ifFailure(
-          failure -> {
-            if (failure instanceof ValueRetrievalException valueRetrievalException) {
-              throw valueRetrievalException;
-            }
-          });
-
-      return redisResult
-          .map(
-              value -> {
-                if (value != null) {
-                  log.trace("Redis cache hit for cache '{}' and key '{}'", getName(), localKey);
-                  localCache.put(localKey, value);
-                } else {
-                  log.trace("Redis cache miss for cache '{}' and key '{}'", getName(), localKey);
-                }
-                return value;
-              })
-          .orElse(
-              (ThrowableSupplier<T>)
-                  () -> {
-                    try {
-                      log.trace(
-                          "Executing value loader for cache '{}' and key '{}'",
-                          getName(),
-                          localKey);
-                      T value = valueLoader.call();
-                      if (value == null) {
-                        throw new ValueRetrievalException(key, valueLoader, null);
-                      }
-                      log.trace(
-                          "Value loader supplied entry for cache '{}' and key '{}'",
-                          getName(),
-                          localKey);
-                      localCache.put(localKey, value);
-                      sendViaRedis(localKey);
-                      return value;
-                    } catch (Exception recoverException) {
-                      throw new ValueRetrievalException(key, valueLoader, recoverException);
-                    }
-                  });
-    } finally {
-      lock.unlock();
+      throw new ValueRetrievalException(key, valueLoader, e);
     }
   }
 
   /**
-   * Associate the specified value with the specified key in this cache.
-   *
-   * <p>If the cache previously contained a mapping for this key, the old value replaced by the
-   * specified value.
-   *
-   * <p>If value is {@code null} specified key will be evicted.
+   * Loads the value for the key while being the only caller doing so for this key.
    *
-   * <p>Actual registration performed in an asynchronous fashion, with later lookups possibly not
-   * seeing the entry yet.
+   * <p>If early recomputation is enabled, values computed by {@code valueLoader} are stored in
+   * Redis as {@link MultiLevelCacheEntry} together with the time it took to compute them, and are
+   * recomputed ahead of Redis expiration with rising probability. If early recomputation fails, the
+   * value still present in Redis is returned instead.
    *
-   * <p>Use {@link #putIfAbsent} for guaranteed immediate registration for current cache.
+   * <p>If negative caching is enabled, {@code null} computed by {@code valueLoader} is stored in
+   * both tiers as {@link NullValue} with its own time to live.
    *
-   * @param key the key with which the specified value is to be associated
-   * @param value the value to be associated with the specified key
-   * @see #putIfAbsent(Object, Object)
+   * @param key the key whose associated value is to be returned
+   * @param localKey converted key used by local cache
+   * @param valueLoader to compute the value if both cache levels do not have it
+   * @return the value to which this cache maps the specified key
    */
-  @Override
-  public void put(@NonNull Object key, @Nullable Object value) {
-    if (value == null) {
-      evict(key);
-      return;
+  @SuppressWarnings("unchecked")
+  private <T> T load(
+      @NonNull Object key, @NonNull String localKey, @NonNull Callable<T> valueLoader) {
+    Object localValue = getLocalValue(localKey);
+    if (localValue != null) {
+      log.trace("Local cache hit for cache '{}' and key '{}' after wait", getName(), localKey);
+      return (T) fromStoreValue(localValue);
+    }
+
+    RedisLookup redisResult = lookupInRedis(localKey);
+    Object redisValue = redisResult.value();
+
+    if (redisValue != null) {
+      if (!(redisValue instanceof MultiLevelCacheEntry entry)
+          || !properties.getEarlyRecompute().isEnabled()
+          || !entry.isRecomputeDue(properties.getEarlyRecompute().getBeta())) {
+        log.trace("Redis cache hit for cache '{}' and key '{}'", getName(), localKey);
+        Object storeValue = unwrap(redisValue);
+        putLocalValue(localKey, storeValue);
+        return (T) fromStoreValue(storeValue);
+      }
+
+      log.trace("Early recomputation for cache '{}' and key '{}'", getName(), localKey);
+    } else if (redisResult.available()) {
+      log.trace("Redis cache miss for cache '{}' and key '{}'", getName(), localKey);
+    } else {
+      log.trace("Redis cache unavailable for cache '{}' and key '{}'", getName(), localKey);
+    }
+
+    T value;
+    long startedAt = System.nanoTime();
+    try {
+      log.trace("Executing value loader for cache '{}' and key '{}'", getName(), localKey);
+      value = valueLoader.call();
+    } catch (Exception e) {
+      if (redisValue == null) {
+        throw new ValueRetrievalException(key, valueLoader, e);
+      }
+
+      log.debug("Early recomputation failed for cache '{}'", getName(), e);
+      Object storeValue = unwrap(redisValue);
+      putLocalValue(localKey, storeValue);
+      return (T) fromStoreValue(storeValue);
+    }
+
+    if (value == null && !properties.getNullValues().isEnabled()) {
+      throw new ValueRetrievalException(key, valueLoader, null);
+    }
+
+    log.trace("Value loader supplied entry for cache '{}' and key '{}'", getName(), localKey);
+    Object storeValue = toStoreValue(value);
+    putLocalValue(localKey, storeValue);
+
+    if (redisResult.available()) {
+      long computeTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+      expectOwnWrite(localKey);
+      if (!callRedis(
+          Operation.WRITE, () -> super.put(key, toRedisValue(key, storeValue, computeTime)))) {
+        forgetOwnWrite(localKey);
+      }
+      recordRedisKey(localKey);
     }
 
-    final String localKey = convertKey(key);
-    localCache.put(localKey, value);
-    callRedis(() -> super.put(key, value));
     sendViaRedis(localKey);
+    return value;
   }
 
   /**
-   * Atomically associate the specified value with the specified key in this cache if it is not set
-   * already.
-   *
-   * <p>This is equivalent to:
-   *
-   * <pre><code>
-   * ValueWrapper existingValue = cache.get(key);
-   * if (existingValue == null) {
-   *     cache.put(key, value);
-   * }
-   * return existingValue;
-   * </code></pre>
-   *
-   * except that the action performed atomically for current cache.
-   *
-   * <p>If value is {@code null} specified key will be evicted.
+   * Queries Redis using circuit breaker and error handling logic, unless Bloom filter knows that
+   * the key is absent.
    *
-   * @param key the key with which the specified value is to be associated
-   * @param value the value to be associated with the specified key
-   * @return the value to which this cache maps the specified key (which may be {@code null}
-   *     itself), or also {@code null} if the cache did not contain any mapping for that key prior
-   *     to this call. Returning {@code null} is therefore an indicator that the given {@code value}
-   *     has been associated with the key, or it was evicted.
-   * @see #put(Object, Object)
+   * @param localKey converted key used by local cache
+   * @return raw Redis value, without value if Redis does not have it or is not available
    */
-  @Override
-  public ValueWrapper putIfAbsent(@NonNull Object key, @Nullable Object value) {
-    if (value == null) {
-      evict(key);
-      return null;
+  private RedisLookup lookupInRedis(@NonNull String localKey) {
+    if (keyFilter != null && !keyFilter.mightContain(localKey)) {
+      log.trace("Bloom filter miss for cache '{}' and key '{}'", getName(), localKey);
+      return RedisLookup.MISS;
     }
 
-    final ReentrantLock lock = makeLock(key);
+    // Converted key converts to itself, which avoids converting the original key once again
+    RedisLookup redisResult =
+        callRedis(
+            Operation.LOOKUP,
+            () -> RedisLookup.of(routedLookup(localKey, localKey, false)),
+            () -> RedisLookup.of(routedLookup(localKey, localKey, true)));
+    if (redisResult == null) {
+      return RedisLookup.UNAVAILABLE;
+    }
 
+    if (keyFilter != null && redisResult.value() == null) {
+      keyFilter.recordFalsePositive();
+    }
+    return redisResult;
+  }
+
+  /**
+   * @param key the key with which the specified value is to be associated
+   * @param storeValue computed by value loader
+   * @param computeTime in milliseconds it took to compute the value
+   * @return value to store in Redis, with early recomputation metadata if it is enabled
+   */
+  private Object toRedisValue(@NonNull Object key, @NonNull Object storeValue, long computeTime) {
+    if (!properties.getEarlyRecompute().isEnabled() || storeValue instanceof NullValue) {
+      return storeValue;
+    }
+
+    Duration ttl = getCacheConfiguration().getTtlFunction().getTimeToLive(key, storeValue);
+    long expiresAt =
+        ttl.isZero() || ttl.isNegative()
+            ? Long.MAX_VALUE
+            : System.currentTimeMillis() + ttl.toMillis();
+    return new MultiLevelCacheEntry(storeValue, computeTime, expiresAt);
+  }
+
+  /**
+   * Return the value to which this cache maps the specified key, wrapped in a {@link
+   * CompletableFuture}.
+   *
+   * <p>Local cache hits complete synchronously, otherwise Redis is queried asynchronously using
+   * circuit breaker and error handling logic. If Redis is not available, the future completes with
+   * {@code null}. Concurrent retrievals of the same key share a single Redis query.
+   *
+   * @param key the key whose associated value is to be returned
+   * @return the value to which this cache maps the specified key wrapped in {@link ValueWrapper} or
+   *     {@code null} if the cache does not contain a mapping for this key
+   * @see #retrieve(Object, Supplier)
+   */
+  @Override
+  public CompletableFuture<ValueWrapper> retrieve(@NonNull Object key) {
+    final String localKey = convertKey(key);
+    Object localValue = getLocalValue(localKey);
+
+    if (localValue != null) {
+      if (log.isTraceEnabled()) {
+        log.trace("Local cache hit for cache '{}' and key '{}'", getName(), localKey);
+      }
+      refreshAheadIfDue(key, localKey);
+      return CompletableFuture.completedFuture(toValueWrapper(localValue));
+    }
+
+    return flights
+        .executeAsync(new RetrieveFlightKey(localKey), () -> retrieveFromRedis(key, localKey))
+        .thenApply(this::toValueWrapper);
+  }
+
+  /**
+   * Return the value to which this cache maps the specified key, obtaining that value from {@code
+   * valueLoader} if necessary, without blocking the calling thread.
+   *
+   * <p>Local cache hits complete synchronously, otherwise Redis is queried asynchronously and
+   * {@code valueLoader} is invoked on a miss. If Redis cannot be queried, {@code valueLoader} will
+   * still be invoked and value will be stored in local cache instead.
+   *
+   * <p>Concurrent calls for the same key are coalesced: only one caller queries Redis and invokes
+   * the loader, others receive the same result.
+   *
+   * @param key the key whose associated value is to be returned
+   * @param valueLoader to asynchronously compute the value if both cache levels do not have it
+   * @return the value to which this cache maps the specified key wrapped in {@link
+   *     CompletableFuture}
+   * @see #retrieve(Object)
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> CompletableFuture<T> retrieve(
+      @NonNull Object key, @NonNull Supplier<CompletableFuture<T>> valueLoader) {
+    final String localKey = convertKey(key);
+    Object localValue = getLocalValue(localKey);
+
+    if (localValue != null) {
+      if (log.isTraceEnabled()) {
+        log.trace("Local cache hit for cache '{}' and key '{}'", getName(), localKey);
+      }
+      refreshAheadIfDue(key, localKey);
+      return CompletableFuture.completedFuture((T) fromStoreValue(localValue));
+    }
+
+    return flights.executeAsync(localKey, () -> loadAsync(key, localKey, valueLoader));
+  }
+
+  /**
+   * Asynchronously loads the value for the key while being the only caller doing so for this key.
+   *
+   * @param key the key whose associated value is to be returned
+   * @param localKey converted key used by local cache
+   * @param valueLoader to compute the value if both cache levels do not have it
+   * @return the value to which this cache maps the specified key
+   */
+  @SuppressWarnings("unchecked")
+  private <T> CompletableFuture<T> loadAsync(
+      @NonNull Object key,
+      @NonNull String localKey,
+      @NonNull Supplier<CompletableFuture<T>> valueLoader) {
+    Object localValue = getLocalValue(localKey);
+    if (localValue != null) {
+      log.trace("Local cache hit for cache '{}' and key '{}' after wait", getName(), localKey);
+      return CompletableFuture.completedFuture((T) fromStoreValue(localValue));
+    }
+
+    return retrieveFromRedis(key, localKey)
+        .thenComposeAsync(
+            storeValue -> {
+              if (storeValue != null) {
+                return CompletableFuture.completedFuture((T) fromStoreValue(storeValue));
+              }
+
+              log.trace("Executing value loader for cache '{}' and key '{}'", getName(), localKey);
+              long startedAt = System.nanoTime();
+              return valueLoader
+                  .get()
+                  .thenApply(
+                      value -> {
+                        if (value != null || properties.getNullValues().isEnabled()) {
+                          log.trace(
+                              "Value loader supplied entry for cache '{}' and key '{}'",
+                              getName(),
+                              localKey);
+                          long computeTime =
+                              TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+                          Object storeValue = toStoreValue(value);
+                          putLocalValue(localKey, storeValue);
+                          storeInRedis(key, localKey, toRedisValue(key, storeValue, computeTime));
+                          sendViaRedis(localKey);
+                        }
+                        return value;
+                      });
+            },
+            executor);
+  }
+
+  /**
+   * Queries Redis asynchronously and stores found value in the local cache.
+   *
+   * @param key the key whose associated value is to be returned
+   * @param localKey converted key used by local cache
+   * @return future completed with the raw store value or {@code null} if Redis does not have it or
+   *     is not available
+   */
+  private CompletableFuture<@Nullable Object> retrieveFromRedis(
+      @NonNull Object key, @NonNull String localKey) {
+    if (!getNativeCache().supportsAsyncRetrieve()) {
+      return CompletableFuture.supplyAsync(() -> lookup(key), executor);
+    }
+
+    if (keyFilter != null && !keyFilter.mightContain(localKey)) {
+      log.trace("Bloom filter miss for cache '{}' and key '{}'", getName(), localKey);
+      return CompletableFuture.completedFuture(null);
+    }
+
+    if (!tryAcquireRedisCall()) {
+      log.trace("Redis cache unavailable for cache '{}' and key '{}'", getName(), localKey);
+      return CompletableFuture.completedFuture(null);
+    }
+
+    return retrieveWithinBudget(key, localKey)
+        .handle(
+            (valueWrapper, throwable) -> {
+              if (throwable != null) {
+                log.debug("Redis call failed for cache '{}'", getName(), throwable);
+                log.trace(
+                    "Redis cache unavailable for cache '{}' and key '{}'", getName(), localKey);
+                return null;
+              }
+
+              if (valueWrapper == null) {
+                log.trace("Redis cache miss for cache '{}' and key '{}'", getName(), localKey);
+                if (keyFilter != null) {
+                  keyFilter.recordFalsePositive();
+                }
+                return null;
+              }
+
+              log.trace("Redis cache hit for cache '{}' and key '{}'", getName(), localKey);
+              Object storeValue = unwrap(toStoreValue(valueWrapper.get()));
+              putLocalValue(localKey, storeValue);
+              return storeValue;
+            });
+  }
+
+  /**
+   * Triggers background refresh of the local entry from Redis if it is about to expire, so that hot
+   * keys are renewed before readers have to go to Redis synchronously.
+   *
+   * <p>Only one refresh per key is running at a time. Found value replaces the local entry only if
+   * it is still present and gets a new randomized local lifetime, otherwise the entry is left to
+   * expire naturally.
+   *
+   * @param key the key whose associated value was returned from local cache
+   * @param localKey converted key used by local cache
+   */
+  private void refreshAheadIfDue(@NonNull Object key, @NonNull String localKey) {
+    if (!refreshAhead || localExpiry == null) {
+      return;
+    }
+
+    long remaining = localEntries.expiresAfter(localKey);
+    if (remaining > localExpiry.refreshWindow(localKey)) {
+      return;
+    }
+
+    log.trace("Refreshing local cache for cache '{}' and key '{}' ahead", getName(), localKey);
+    flights
+        .executeAsync(new RefreshFlightKey(localKey), () -> fetchFromRedis(key, localKey))
+        .whenComplete(
+            (value, throwable) -> {
+              if (throwable != null) {
+                log.debug("Local cache refresh failed for cache '{}'", getName(), throwable);
+              } else if (value != null
+                  && !(value instanceof NullValue)
+                  && localEntries.replace(
+                      localKey, toLocalValue(value), localExpiry.computeExpiration(localKey))) {
+                putTierValue(localKey, value);
+              }
+            });
+  }
+
+  /**
+   * Queries Redis asynchronously without touching the local cache.
+   *
+   * @param key the key whose associated value is to be returned
+   * @param localKey converted key used by local cache
+   * @return future completed with the raw store value or {@code null} if Redis does not have it or
+   *     is not available
+   */
+  private CompletableFuture<@Nullable Object> fetchFromRedis(
+      @NonNull Object key, @NonNull String localKey) {
+    if (!getNativeCache().supportsAsyncRetrieve()) {
+      return CompletableFuture.supplyAsync(
+          () ->
+              callRedis(
+                  Operation.LOOKUP,
+                  () -> unwrap(routedLookup(key, localKey, false)),
+                  () -> unwrap(routedLookup(key, localKey, true))),
+          executor);
+    }
+
+    if (!tryAcquireRedisCall()) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    return retrieveWithinBudget(key, localKey)
+        .thenApply(
+            valueWrapper -> valueWrapper == null ? null : unwrap(toStoreValue(valueWrapper.get())));
+  }
+
+  /**
+   * Stores the value in Redis asynchronously using circuit breaker and error handling logic, within
+   * write latency budget and concurrency limit.
+   *
+   * @param key the key with which the specified value is to be associated
+   * @param localKey converted key used by local cache
+   * @param redisValue the store value to be associated with the specified key, with early
+   *     recomputation metadata if it is enabled
+   */
+  private void storeInRedis(
+      @NonNull Object key, @NonNull String localKey, @NonNull Object redisValue) {
+    if (!tryAcquireRedisCall()) {
+      log.trace("Redis cache unavailable for cache '{}' and key '{}'", getName(), localKey);
+      return;
+    }
+
+    expectOwnWrite(localKey);
+    callRedisAsync(
+            Operation.WRITE,
+            () ->
+                getNativeCache()
+                    .store(
+                        getName(),
+                        serializeCacheKey(createCacheKey(key)),
+                        serializeCacheValue(redisValue),
+                        getCacheConfiguration().getTtlFunction().getTimeToLive(key, redisValue)))
+        .whenComplete(
+            (ignored, throwable) -> {
+              if (throwable != null) {
+                log.debug("Redis call failed for cache '{}'", getName(), throwable);
+                forgetOwnWrite(localKey);
+              } else {
+                recordRedisKey(localKey);
+              }
+            });
+  }
+
+  /**
+   * Return the values to which this cache maps the specified keys, obtaining missing values from
+   * {@code bulkLoader} in a single call.
+   *
+   * <p>Local cache is checked for every key first, remaining keys are fetched from Redis with a
+   * single {@code MGET} (one per hash slot for Redis Cluster) and keys still missing are passed to
+   * {@code bulkLoader}. Loaded values are stored in both cache levels. If Redis cannot be queried,
+   * {@code bulkLoader} will still be executed and values will be stored in local cache instead.
+   *
+   * @param keys the keys whose associated values are to be returned
+   * @param bulkLoader to compute values for the keys both cache levels do not have, keys it does
+   *     not return a value for are treated as {@code null}
+   * @param <K> type of the keys
+   * @param <V> type of the values
+   * @return the values mapped by keys in iteration order of {@code keys}, keys without value are
+   *     omitted unless negative caching is enabled
+   * @throws ValueRetrievalException if the {@code bulkLoader} throws an exception
+   */
+  @SuppressWarnings("unchecked")
+  public <K, V> Map<K, V> getAll(
+      @NonNull Collection<K> keys, @NonNull Function<Set<K>, Map<K, V>> bulkLoader) {
+    Map<K, V> result = new LinkedHashMap<>();
+    Map<K, String> misses = new LinkedHashMap<>();
+
+    for (K key : keys) {
+      final String localKey = convertKey(key);
+      Object localValue = getLocalValue(localKey);
+
+      if (localValue != null) {
+        if (log.isTraceEnabled()) {
+          log.trace("Local cache hit for cache '{}' and key '{}'", getName(), localKey);
+        }
+        refreshAheadIfDue(key, localKey);
+        result.put(key, (V) fromStoreValue(localValue));
+      } else {
+        misses.put(key, localKey);
+      }
+    }
+
+    if (misses.isEmpty()) {
+      return result;
+    }
+
+    Map<K, Object> redisValues = getAllFromRedis(misses);
+    if (redisValues != null) {
+      redisValues.forEach(
+          (key, storeValue) -> {
+            putLocalValue(misses.remove(key), storeValue);
+            result.put(key, (V) fromStoreValue(storeValue));
+          });
+    }
+
+    if (misses.isEmpty()) {
+      return result;
+    }
+
+    Set<K> missingKeys = new LinkedHashSet<>(misses.keySet());
+    Callable<Map<K, V>> loader = () -> bulkLoader.apply(missingKeys);
+    Map<K, V> loaded;
+    try {
+      log.trace("Executing bulk loader for cache '{}' and {} keys", getName(), missingKeys.size());
+      loaded = loader.call();
+    } catch (Exception e) {
+      throw new ValueRetrievalException(missingKeys, loader, e);
+    }
+
+    Map<K, Object> loadedStoreValues = new LinkedHashMap<>();
+    misses.forEach(
+        (key, localKey) -> {
+          V value = loaded == null ? null : loaded.get(key);
+          if (value == null && !properties.getNullValues().isEnabled()) {
+            return;
+          }
+
+          Object storeValue = toStoreValue(value);
+          putLocalValue(localKey, storeValue);
+          loadedStoreValues.put(key, storeValue);
+          result.put(key, value);
+        });
+
+    if (redisValues != null && !loadedStoreValues.isEmpty()) {
+      storeAllInRedis(loadedStoreValues);
+    }
+
+    if (!loadedStoreValues.isEmpty()) {
+      sendAllViaRedis(loadedStoreValues.keySet().stream().map(misses::get).toList());
+    }
+    return result;
+  }
+
+  /**
+   * Loads values Redis has for the keys into local cache with a single {@code MGET} (one per hash
+   * slot for Redis Cluster), skipping keys local cache already has.
+   *
+   * @param localKeys converted keys to load
+   * @return amount of loaded values
+   */
+  int warm(@NonNull Collection<String> localKeys) {
+    Map<String, String> misses = new LinkedHashMap<>();
+    for (String localKey : localKeys) {
+      if (getLocalValue(localKey) == null) {
+        misses.put(localKey, localKey);
+      }
+    }
+
+    if (misses.isEmpty()) {
+      return 0;
+    }
+
+    // Converted key converts to itself
+    Map<String, Object> redisValues = getAllFromRedis(misses);
+    if (redisValues == null) {
+      return 0;
+    }
+
+    redisValues.forEach(this::putLocalValue);
+    return redisValues.size();
+  }
+
+  /**
+   * @param limit maximum amount of keys to return
+   * @return converted keys of local cache, most frequently used first
+   */
+  List<String> hottestKeys(int limit) {
+    return localEntries.hottestKeys(limit);
+  }
+
+  /**
+   * Associate the specified value with the specified key in this cache.
+   *
+   * <p>If the cache previously contained a mapping for this key, the old value replaced by the
+   * specified value.
+   *
+   * <p>If value is {@code null} specified key will be evicted.
+   *
+   * <p>Actual registration performed in an asynchronous fashion, with later lookups possibly not
+   * seeing the entry yet.
+   *
+   * <p>Use {@link #putIfAbsent} for guaranteed immediate registration for current cache.
+   *
+   * @param key the key with which the specified value is to be associated
+   * @param value the value to be associated with the specified key
+   * @see #putIfAbsent(Object, Object)
+   */
+  @Override
+  public void put(@NonNull Object key, @Nullable Object value) {
+    if (value == null) {
+      evict(key);
+      return;
+    }
+
+    final String localKey = convertKey(key);
+    putLocalValue(localKey, value);
+    expectOwnWrite(localKey);
+    if (!callRedis(Operation.WRITE, () -> super.put(key, value))) {
+      forgetOwnWrite(localKey);
+    }
+    recordRedisKey(localKey);
+    sendViaRedis(localKey);
+  }
+
+  /**
+   * Associate the specified values with the specified keys in this cache.
+   *
+   * <p>Local cache is updated in bulk, Redis writes are pipelined and a single eviction
+   * notification is sent for all keys instead of one per key.
+   *
+   * <p>Keys with {@code null} values will be evicted.
+   *
+   * @param entries the keys with values to be associated with them
+   * @see #put(Object, Object)
+   * @see #evictAll(Collection)
+   */
+  public void putAll(@NonNull Map<?, ?> entries) {
+    Map<Object, Object> storeValues = new LinkedHashMap<>();
+    Map<String, Object> localValues = new LinkedHashMap<>();
+    List<Object> evictedKeys = new ArrayList<>();
+
+    entries.forEach(
+        (key, value) -> {
+          if (value == null) {
+            evictedKeys.add(key);
+          } else {
+            storeValues.put(key, value);
+            localValues.put(convertKey(key), toLocalValue(value));
+          }
+        });
+
+    if (!evictedKeys.isEmpty()) {
+      evictAll(evictedKeys);
+    }
+
+    if (storeValues.isEmpty()) {
+      return;
+    }
+
+    localEntries.putAll(localValues);
+    storeValues.forEach((key, value) -> putTierValue(convertKey(key), value));
+    storeAllInRedis(storeValues);
+    sendAllViaRedis(List.copyOf(localValues.keySet()));
+  }
+
+  /**
+   * Atomically associate the specified value with the specified key in this cache if it is not set
+   * already.
+   *
+   * <p>This is equivalent to:
+   *
+   * <pre><code>
+   * ValueWrapper existingValue = cache.get(key);
+   * if (existingValue == null) {
+   *     cache.put(key, value);
+   * }
+   * return existingValue;
+   * </code></pre>
+   *
+   * except that the action performed atomically for current cache.
+   *
+   * <p>If value is {@code null} specified key will be evicted.
+   *
+   * @param key the key with which the specified value is to be associated
+   * @param value the value to be associated with the specified key
+   * @return the value to which this cache maps the specified key (which may be {@code null}
+   *     itself), or also {@code null} if the cache did not contain any mapping for that key prior
+   *     to this call. Returning {@code null} is therefore an indicator that the given {@code value}
+   *     has been associated with the key, or it was evicted.
+   * @see #put(Object, Object)
+   */
+  @Override
+  public ValueWrapper putIfAbsent(@NonNull Object key, @Nullable Object value) {
+    if (value == null) {
+      evict(key);
+      return null;
+    }
+
+    final String localKey = convertKey(key);
+
+    return exclusively(
+        localKey,
+        () -> {
+          Object existingValue = lookup(key);
+          if (existingValue == null) {
+            putLocalValue(localKey, value);
+            callRedis(Operation.WRITE, () -> super.putIfAbsent(key, value));
+            recordRedisKey(localKey);
+            sendViaRedis(localKey);
+            return null;
+          } else {
+            return new SimpleValueWrapper(existingValue);
+          }
+        });
+  }
+
+  /**
+   * Evict the mapping for this key from this cache if it is present.
+   *
+   * <p>Actual eviction performed in an asynchronous fashion, with later lookups possibly still
+   * seeing the entry. Use {@link #evictIfPresent} for guaranteed immediate removal for current
+   * cache.
+   *
+   * @param key the key whose mapping is to be removed from the cache
+   * @see #evictIfPresent(Object)
+   */
+  @Override
+  public void evict(@NonNull Object key) {
+    sendViaRedis(localEvict(key));
+  }
+
+  /**
+   * Evict the mappings for these keys from this cache.
+   *
+   * <p>Local cache is invalidated in bulk, Redis keys are removed with a single command and a
+   * single eviction notification is sent for all keys instead of one per key.
+   *
+   * @param keys the keys whose mappings are to be removed from the cache
+   * @see #evict(Object)
+   */
+  public void evictAll(@NonNull Collection<?> keys) {
+    if (keys.isEmpty()) {
+      return;
+    }
+
+    List<String> localKeys = new ArrayList<>(keys.size());
+    byte[][] redisKeys = new byte[keys.size()][];
+    for (Object key : keys) {
+      redisKeys[localKeys.size()] = serializeCacheKey(createCacheKey(key));
+      localKeys.add(convertKey(key));
+    }
+
+    localEntries.invalidateAll(localKeys);
+    localKeys.forEach(localKey -> localTiers.forEach(tier -> tier.remove(localKey)));
+    deleteFromRedis(redisKeys);
+    sendAllViaRedis(localKeys);
+  }
+
+  /**
+   * Local copy of {@link #evict(Object)} method for Redis Pub/Sub listener to avoid infinite
+   * message loop
+   *
+   * @param key the key whose mapping is to be removed from the cache
+   * @return computed key for entry to evict
+   * @see #evict(Object)
+   */
+  String localEvict(@NonNull Object key) {
+    final String localKey = convertKey(key);
+    invalidateLocalValue(localKey);
+    callRedis(Operation.WRITE, () -> super.evict(key));
+    return localKey;
+  }
+
+  /**
+   * Drops local entry after another instance changed it in Redis.
+   *
+   * @param localKey converted key used by local cache
+   */
+  void invalidateLocalEntry(@NonNull String localKey) {
+    invalidateLocalValue(localKey);
+    // Another instance might have written the key to Redis
+    recordRedisKey(localKey);
+  }
+
+  /**
+   * Drops local entry of a key Redis reported as changed, unless the change is a write of this
+   * instance which put the same value into local cache.
+   *
+   * @param localKey converted key used by local cache
+   */
+  void invalidateTrackedEntry(@NonNull String localKey) {
+    if (ownWrites != null && ownWrites.take(localKey)) {
+      log.trace("Redis reported own write to cache '{}' and key '{}'", getName(), localKey);
+      return;
+    }
+
+    invalidateLocalEntry(localKey);
+  }
+
+  /**
+   * @param localKey converted key about to be written to Redis, along with the local entry
+   */
+  private void expectOwnWrite(@NonNull String localKey) {
+    if (ownWrites != null) {
+      ownWrites.record(localKey);
+    }
+  }
+
+  /**
+   * @param localKey converted key which might not have been written to Redis
+   */
+  private void forgetOwnWrite(@NonNull String localKey) {
+    if (ownWrites != null) {
+      ownWrites.take(localKey);
+    }
+  }
+
+  /**
+   * @param localKey converted key written to Redis
+   */
+  private void recordRedisKey(@NonNull String localKey) {
+    if (keyFilter != null) {
+      keyFilter.put(localKey);
+    }
+
+    recordChange(localKey);
+  }
+
+  /**
+   * @param localKey converted key changed in Redis, {@code null} if the whole cache was cleared
+   */
+  private void recordChange(@Nullable String localKey) {
+    if (readRouting != null) {
+      readRouting.recordChange(localKey);
+    }
+  }
+
+  /**
+   * Evict the mapping for this key from this cache if it is present, expecting the key to be
+   * immediately invisible for later lookups.
+   *
+   * @param key the key whose mapping is to be removed from the cache
+   * @return {@code true} if local cache was known to have a mapping for this key before, {@code
+   *     false} if it did not (or if prior presence could not be determined)
+   * @see #evict(Object)
+   * @since 5.2
+   */
+  @Override
+  public boolean evictIfPresent(@NonNull Object key) {
+    final String localKey = convertKey(key);
+
+    return exclusively(
+        localKey,
+        () -> {
+          boolean haveLocalMapping = localEntries.getIfPresent(localKey) != null;
+
+          invalidateLocalValue(localKey);
+          callRedis(Operation.WRITE, () -> super.evict(key));
+          sendViaRedis(localKey);
+
+          return haveLocalMapping;
+        });
+  }
+
+  /**
+   * Clear the cache through removing all mappings.
+   *
+   * <p>Actual clearing performed in an asynchronous fashion, with later lookups possibly still
+   * seeing the entries. Use {@link #invalidate()} for guaranteed immediate removal of entries for
+   * current cache.
+   *
+   * @see #invalidate()
+   */
+  @Override
+  public void clear() {
+    invalidateLocalCache();
+    clearRedisEntries();
+    sendViaRedis(null);
+  }
+
+  void invalidateLocalCache() {
+    localEntries.invalidateAll();
+    localTiers.forEach(LocalTier::clear);
+    if (ownWrites != null) {
+      ownWrites.clear();
+    }
+    // Another instance might have cleared the cache in Redis
+    recordChange(null);
+  }
+
+  /**
+   * Invalidate the cache through removing all mappings, expecting all entries to be immediately
+   * invisible for later lookups.
+   *
+   * @return {@code true} if local cache was known to have mappings before, {@code false} if it did
+   *     not (or if prior presence of entries could not be determined)
+   * @see #clear()
+   * @since 5.2
+   */
+  @Override
+  @SuppressWarnings("squid:S1612")
+  public boolean invalidate() {
+    return exclusively(
+        CACHE_WIDE_FLIGHT_KEY,
+        () -> {
+          boolean hadLocalMappings =
+              localEntries.estimatedSize() > 0
+                  || localTiers.stream().anyMatch(tier -> tier.size() > 0);
+
+          invalidateLocalCache();
+          clearRedisEntries();
+          sendViaRedis(null);
+
+          return hadLocalMappings;
+        });
+  }
+
+  /**
+   * Checks whether circuit breaker permits Redis calls without recording a call, so that Redis is
+   * skipped altogether while circuit breaker is OPEN instead of creating and handling {@link
+   * io.github.resilience4j.circuitbreaker.CallNotPermittedException} for every call.
+   *
+   * <p>Circuit breaker still moves from OPEN to HALF_OPEN once its wait duration passes.
+   *
+   * @return {@code true} if Redis can be called
+   */
+  private boolean isRedisCallPermitted() {
+    if (cacheCircuitBreaker.tryAcquirePermission()) {
+      cacheCircuitBreaker.releasePermission();
+      return true;
+    }
+
+    return false;
+  }
+
+  /**
+   * @param operation kind of the call
+   * @param call to Redis
+   * @return {@code true} if call succeeded
+   */
+  private boolean callRedis(@NonNull Operation operation, @NonNull Runnable call) {
+    return callRedis(
+            operation,
+            () -> {
+              call.run();
+              return Boolean.TRUE;
+            })
+        != null;
+  }
+
+  /**
+   * Calls Redis within latency budget of the operation.
+   *
+   * @param operation kind of the call
+   * @param call to Redis
+   * @return execution result, or {@code null} if Redis call failed or was not permitted
+   */
+  private <T> @Nullable T callRedis(
+      @NonNull Operation operation, @NonNull CheckedSupplier<T> call) {
+    return callRedis(operation, call, call);
+  }
+
+  /**
+   * Calls Redis within latency budget of the operation.
+   *
+   * @param operation kind of the call
+   * @param call to Redis
+   * @param hedgeCall to send if the call is a slow lookup
+   * @return execution result, or {@code null} if Redis call failed or was not permitted
+   */
+  private <T> @Nullable T callRedis(
+      @NonNull Operation operation,
+      @NonNull CheckedSupplier<T> call,
+      @NonNull CheckedSupplier<T> hedgeCall) {
+    if (!tryAcquireRedisCall()) {
+      return null;
+    }
+
+    AtomicBoolean invoked = new AtomicBoolean();
+    CheckedSupplier<T> decorated = redisCalls.decorate(operation, call, hedgeCall);
     try {
-      lock.lock();
-
-      Object existingValue = lookup(key);
-      if (existingValue == null) {
-        final String localKey = convertKey(key);
-        localCache.put(localKey, value);
-        callRedis(() -> super.putIfAbsent(key, value));
-        sendViaRedis(localKey);
-        return null;
-      } else {
-        return new SimpleValueWrapper(existingValue);
-      }
+      Try<T> result =
+          Try.of(
+              () ->
+                  cacheCircuitBreaker
+                      .decorateCheckedSupplier(
+                          () -> {
+                            invoked.set(true);
+                            return decorated.get();
+                          })
+                      .get());
+      result.ifFailure(
+          throwable -> log.debug("Redis call failed for cache '{}'", getName(), throwable));
+      return result.orElse(() -> null);
     } finally {
-      lock.unlock();
+      // Decorated call returns permission on its own once invoked
+      if (!invoked.get()) {
+        redisCalls.onComplete();
+      }
     }
   }
 
   /**
-   * Evict the mapping for this key from this cache if it is present.
+   * Calls Redis asynchronously within latency budget of the operation, permission must be acquired
+   * by {@link #tryAcquireRedisCall()} beforehand.
    *
-   * <p>Actual eviction performed in an asynchronous fashion, with later lookups possibly still
-   * seeing the entry. Use {@link #evictIfPresent} for guaranteed immediate removal for current
-   * cache.
+   * @param operation kind of the call
+   * @param call to Redis
+   * @return future completed with execution result, or exceptionally if Redis call failed or was
+   *     not permitted
+   */
+  private <T> CompletableFuture<T> callRedisAsync(
+      @NonNull Operation operation, @NonNull Supplier<CompletableFuture<T>> call) {
+    AtomicBoolean invoked = new AtomicBoolean();
+    Supplier<CompletableFuture<T>> decorated = redisCalls.decorateAsync(operation, call);
+    return cacheCircuitBreaker
+        .executeCompletionStage(
+            () -> {
+              invoked.set(true);
+              return decorated.get();
+            })
+        .toCompletableFuture()
+        .whenComplete(
+            (ignored, throwable) -> {
+              // Decorated call returns permission on its own once invoked
+              if (!invoked.get()) {
+                redisCalls.onComplete();
+              }
+            });
+  }
+
+  /**
+   * Callers do not wait for Redis if too many of them already do, falling back as if Redis was not
+   * available.
    *
-   * @param key the key whose mapping is to be removed from the cache
-   * @see #evictIfPresent(Object)
+   * @return {@code true} if Redis can be called, must be followed by {@link
+   *     RedisCallPolicy#onComplete()}
    */
-  @Override
-  public void evict(@NonNull Object key) {
-    sendViaRedis(localEvict(key));
+  private boolean tryAcquireRedisCall() {
+    if (!isRedisCallPermitted()) {
+      return false;
+    }
+
+    if (!redisCalls.tryAcquirePermission()) {
+      log.trace("Too many concurrent Redis calls for cache '{}'", getName());
+      return false;
+    }
+
+    return true;
   }
 
   /**
-   * Local copy of {@link #evict(Object)} method for Redis Pub/Sub listener to avoid infinite
-   * message loop
+   * Reads from Redis asynchronously within lookup latency budget, permission must be acquired by
+   * {@link #tryAcquireRedisCall()} beforehand.
    *
-   * @param key the key whose mapping is to be removed from the cache
-   * @return computed key for entry to evict
-   * @see #evict(Object)
+   * @param key the key whose associated value is to be returned
+   * @param localKey converted key used by local cache
+   * @return future completed with Redis value
    */
-  String localEvict(@NonNull Object key) {
-    final String localKey = convertKey(key);
-    localCache.invalidate(localKey);
-    callRedis(() -> super.evict(key));
-    return localKey;
+  private CompletableFuture<@Nullable ValueWrapper> retrieveWithinBudget(
+      @NonNull Object key, @NonNull String localKey) {
+    return callRedisAsync(Operation.LOOKUP, () -> routedRetrieve(key, localKey));
   }
 
-  void invalidateLocalEntry(@NonNull String localKey) {
-    localCache.invalidate(localKey);
+  /**
+   * Reads from replicas unless read routing is disabled or the key was changed recently. Hedged
+   * reads go to replicas even if only hedging is routed to them.
+   *
+   * @param key the key whose associated value is to be returned
+   * @param localKey converted key used by local cache
+   * @param hedge whether this is a hedged read
+   * @return the value or {@code null} if Redis does not have it
+   */
+  private @Nullable Object routedLookup(
+      @NonNull Object key, @NonNull String localKey, boolean hedge) {
+    if (!readsFromReplicas(localKey, hedge)) {
+      return super.lookup(key);
+    }
+
+    byte[] value =
+        readRouting.getCacheWriter().get(getName(), serializeCacheKey(createCacheKey(key)));
+    return value == null ? null : deserializeCacheValue(value);
   }
 
   /**
-   * Evict the mapping for this key from this cache if it is present, expecting the key to be
-   * immediately invisible for later lookups.
+   * Asynchronous counterpart of {@link #routedLookup(Object, String, boolean)}, never hedged.
    *
-   * @param key the key whose mapping is to be removed from the cache
-   * @return {@code true} if local cache was known to have a mapping for this key before, {@code
-   *     false} if it did not (or if prior presence could not be determined)
-   * @see #evict(Object)
-   * @since 5.2
+   * @param key the key whose associated value is to be returned
+   * @param localKey converted key used by local cache
+   * @return future completed with Redis value
    */
-  @Override
-  public boolean evictIfPresent(@NonNull Object key) {
-    final ReentrantLock lock = makeLock(key);
+  private CompletableFuture<@Nullable ValueWrapper> routedRetrieve(
+      @NonNull Object key, @NonNull String localKey) {
+    if (!readsFromReplicas(localKey, false)) {
+      return super.retrieve(key);
+    }
 
-    try {
-      lock.lock();
+    return readRouting
+        .getCacheWriter()
+        .retrieve(getName(), serializeCacheKey(createCacheKey(key)))
+        .thenApply(value -> value == null ? null : toValueWrapper(deserializeCacheValue(value)));
+  }
 
-      final String localKey = convertKey(key);
-      boolean haveLocalMapping = localCache.getIfPresent(localKey) != null;
+  /**
+   * @param localKey converted key to read
+   * @param hedge whether this is a hedged read
+   * @return {@code true} if key can be read from replicas
+   */
+  private boolean readsFromReplicas(@NonNull String localKey, boolean hedge) {
+    return readRouting != null
+        && (hedge || readRouting.isRoutingReads())
+        && readRouting.readsFromReplicas(localKey);
+  }
 
-      localCache.invalidate(localKey);
-      callRedis(() -> super.evict(key));
-      sendViaRedis(localKey);
+  /**
+   * @param storeValue read from Redis, can be {@code null}
+   * @return value without early recomputation metadata
+   */
+  private static @Nullable Object unwrap(@Nullable Object storeValue) {
+    return storeValue instanceof MultiLevelCacheEntry entry ? entry.getValue() : storeValue;
+  }
 
-      return haveLocalMapping;
-    } finally {
-      lock.unlock();
+  /**
+   * Fetches values for the keys from Redis using circuit breaker and error handling logic, skipping
+   * keys which Bloom filter knows to be absent.
+   *
+   * @param misses keys to fetch mapped to their converted local keys
+   * @param <K> type of the keys
+   * @return raw store values of the keys Redis has, or {@code null} if Redis is not available
+   */
+  private <K> @Nullable Map<K, Object> getAllFromRedis(@NonNull Map<K, String> misses) {
+    List<K> keys = new ArrayList<>(misses.size());
+    List<byte[]> redisKeys = new ArrayList<>(misses.size());
+
+    misses.forEach(
+        (key, localKey) -> {
+          if (keyFilter != null && !keyFilter.mightContain(localKey)) {
+            log.trace("Bloom filter miss for cache '{}' and key '{}'", getName(), localKey);
+            return;
+          }
+
+          keys.add(key);
+          redisKeys.add(serializeCacheKey(createCacheKey(key)));
+        });
+
+    Map<K, Object> values = new LinkedHashMap<>();
+    if (keys.isEmpty()) {
+      return values;
+    }
+
+    boolean hedgeFromReplicas =
+        readRouting != null && readRouting.readsFromReplicas(misses.values());
+    boolean fromReplicas = hedgeFromReplicas && readRouting.isRoutingReads();
+    List<byte[]> redisValues =
+        callRedis(
+            Operation.LOOKUP,
+            () -> multiGet(redisKeys, fromReplicas),
+            () -> multiGet(redisKeys, hedgeFromReplicas));
+    if (redisValues == null) {
+      log.trace("Redis cache unavailable for cache '{}' and {} keys", getName(), keys.size());
+      return null;
+    }
+
+    for (int i = 0; i < keys.size(); i++) {
+      byte[] redisValue = redisValues.get(i);
+      if (redisValue == null) {
+        if (keyFilter != null) {
+          keyFilter.recordFalsePositive();
+        }
+        continue;
+      }
+
+      values.put(keys.get(i), unwrap(deserializeCacheValue(redisValue)));
+    }
+
+    if (log.isTraceEnabled()) {
+      log.trace(
+          "Redis cache hit for cache '{}' and {} of {} keys",
+          getName(),
+          values.size(),
+          keys.size());
     }
+    return values;
   }
 
   /**
-   * Clear the cache through removing all mappings.
+   * Reads values of many Redis keys at once: with a single {@code MGET} for standalone Redis, or
+   * with one {@code MGET} per hash slot for Redis Cluster as multi-key commands cannot span slots.
    *
-   * <p>Actual clearing performed in an asynchronous fashion, with later lookups possibly still
-   * seeing the entries. Use {@link #invalidate()} for guaranteed immediate removal of entries for
-   * current cache.
+   * @param redisKeys serialized Redis keys
+   * @param fromReplicas whether keys can be read from replicas
+   * @return serialized values in order of keys, {@code null} for absent keys
+   */
+  private List<byte[]> multiGet(@NonNull List<byte[]> redisKeys, boolean fromReplicas) {
+    if (shards != null) {
+      return multiGetFromShards(redisKeys);
+    }
+
+    RedisCallback<List<byte[]>> mGet = mGet(redisKeys);
+    List<byte[]> values = fromReplicas ? readRouting.execute(mGet) : redisTemplate.execute(mGet);
+
+    return values == null ? Collections.nCopies(redisKeys.size(), null) : values;
+  }
+
+  /**
+   * Reads keys of each shard with a single {@code MGET}, keys of failed shards are treated as
+   * absent.
    *
-   * @see #invalidate()
+   * @param redisKeys serialized Redis keys
+   * @return serialized values in order of keys, {@code null} for absent keys
    */
-  @Override
-  public void clear() {
-    invalidateLocalCache();
-    clearRedisEntries();
-    sendViaRedis(null);
+  private List<byte[]> multiGetFromShards(@NonNull List<byte[]> redisKeys) {
+    byte[][] values = new byte[redisKeys.size()][];
+
+    shards
+        .groupByShard(redisKeys)
+        .forEach(
+            (shard, indexes) -> {
+              try {
+                List<byte[]> shardValues =
+                    shards.execute(shard, mGet(indexes.stream().map(redisKeys::get).toList()));
+                for (int i = 0; shardValues != null && i < indexes.size(); i++) {
+                  values[indexes.get(i)] = shardValues.get(i);
+                }
+              } catch (RedisShardException e) {
+                log.debug("Redis call failed for cache '{}'", getName(), e);
+              }
+            });
+
+    return Arrays.asList(values);
   }
 
-  void invalidateLocalCache() {
-    localCache.invalidateAll();
+  /**
+   * @param redisKeys serialized Redis keys
+   * @return callback reading the keys with a single {@code MGET}, or with one per hash slot for
+   *     Redis Cluster
+   */
+  private static RedisCallback<List<byte[]>> mGet(@NonNull List<byte[]> redisKeys) {
+    return connection -> {
+      if (!(connection instanceof RedisClusterConnection)) {
+        return connection.stringCommands().mGet(redisKeys.toArray(byte[][]::new));
+      }
+
+      Map<Integer, List<Integer>> indexesBySlot = new HashMap<>();
+      for (int i = 0; i < redisKeys.size(); i++) {
+        indexesBySlot
+            .computeIfAbsent(
+                ClusterSlotHashUtil.calculateSlot(redisKeys.get(i)), slot -> new ArrayList<>())
+            .add(i);
+      }
+
+      byte[][] slotValues = new byte[redisKeys.size()][];
+      for (List<Integer> indexes : indexesBySlot.values()) {
+        List<byte[]> slotResult =
+            connection
+                .stringCommands()
+                .mGet(indexes.stream().map(redisKeys::get).toArray(byte[][]::new));
+        for (int i = 0; slotResult != null && i < indexes.size(); i++) {
+          slotValues[indexes.get(i)] = slotResult.get(i);
+        }
+      }
+      return Arrays.asList(slotValues);
+    };
   }
 
   /**
-   * Invalidate the cache through removing all mappings, expecting all entries to be immediately
-   * invisible for later lookups.
+   * Writes many entries to Redis at once: pipelined for standalone Redis, one by one for Redis
+   * Cluster where pipelining is not supported.
    *
-   * @return {@code true} if local cache was known to have mappings before, {@code false} if it did
-   *     not (or if prior presence of entries could not be determined)
-   * @see #clear()
-   * @since 5.2
+   * @param storeValues raw store values mapped by their keys
    */
-  @Override
-  @SuppressWarnings("squid:S1612")
-  public boolean invalidate() {
-    final ReentrantLock lock = makeLock(CACHE_WIDE_LOCK_OBJECT);
+  private void storeAllInRedis(@NonNull Map<?, Object> storeValues) {
+    storeValues.keySet().forEach(key -> expectOwnWrite(convertKey(key)));
+    boolean stored =
+        callRedis(
+            Operation.WRITE,
+            () -> {
+              if (shards == null) {
+                redisTemplate.execute(setAll(storeValues));
+                return;
+              }
 
-    try {
-      lock.lock();
+              Map<Shard, Map<Object, Object>> storeValuesByShard = new LinkedHashMap<>();
+              storeValues.forEach(
+                  (key, storeValue) ->
+                      storeValuesByShard
+                          .computeIfAbsent(
+                              shards.shardOf(serializeCacheKey(createCacheKey(key))),
+                              shard -> new LinkedHashMap<>())
+                          .put(key, storeValue));
+              RedisShards.forEach(
+                  storeValuesByShard,
+                  (shard, shardStoreValues) -> shards.execute(shard, setAll(shardStoreValues)));
+            });
+    if (!stored) {
+      storeValues.keySet().forEach(key -> forgetOwnWrite(convertKey(key)));
+    }
 
-      boolean hadLocalMappings = localCache.estimatedSize() > 0;
+    storeValues.keySet().forEach(key -> recordRedisKey(convertKey(key)));
+  }
+
+  /**
+   * @param storeValues raw store values mapped by their keys
+   * @return callback writing the entries
+   */
+  private RedisCallback<Object> setAll(@NonNull Map<?, Object> storeValues) {
+    return connection -> {
+      boolean pipelined = !(connection instanceof RedisClusterConnection);
+      if (pipelined) {
+        connection.openPipeline();
+      }
 
-      invalidateLocalCache();
-      clearRedisEntries();
-      sendViaRedis(null);
+      try {
+        storeValues.forEach(
+            (key, storeValue) ->
+                connection
+                    .stringCommands()
+                    .set(
+                        serializeCacheKey(createCacheKey(key)),
+                        serializeCacheValue(storeValue),
+                        toExpiration(key, storeValue),
+                        SetOption.upsert()));
+      } finally {
+        if (pipelined) {
+          connection.closePipeline();
+        }
+      }
+      return null;
+    };
+  }
 
-      return hadLocalMappings;
-    } finally {
-      lock.unlock();
-    }
+  /**
+   * @param key the key with which the specified value is to be associated
+   * @param storeValue the raw store value to be associated with the specified key
+   * @return Redis expiration according to the cache TTL function
+   */
+  private Expiration toExpiration(@NonNull Object key, @NonNull Object storeValue) {
+    Duration ttl = getCacheConfiguration().getTtlFunction().getTimeToLive(key, storeValue);
+    return ttl.isZero() || ttl.isNegative() ? Expiration.persistent() : Expiration.from(ttl);
   }
 
   /**
-   * @param call to Redis
+   * @return prefix of Redis keys belonging to this cache
    */
-  private void callRedis(@NonNull Runnable call) {
-    Try.of(
-            () -> {
-              cacheCircuitBreaker.decorateRunnable(call).run();
-              return null;
-            })
-        .ifFailure(
-            throwable -> log.debug("Redis call failed for cache '{}'", getName(), throwable));
+  String redisKeyPrefix() {
+    return getCacheConfiguration().usePrefix()
+        ? getCacheConfiguration().getKeyPrefixFor(getName())
+        : getName() + "::";
   }
 
   /**
-   * @param call to Redis
-   * @return execution result as {@link Try}
+   * Supplies local keys of all Redis entries belonging to this cache to the consumer.
+   *
+   * @param consumer of local keys
    */
-  private <T> Try<T> callRedis(@NonNull CheckedSupplier<T> call) {
-    Try<T> result = Try.of(() -> cacheCircuitBreaker.decorateCheckedSupplier(call).get());
-    result.ifFailure(
-        throwable -> log.debug("Redis call failed for cache '{}'", getName(), throwable));
-    return result;
+  private void scanRedisKeys(@NonNull Consumer<String> consumer) {
+    String prefix = redisKeyPrefix();
+    ScanOptions options = ScanOptions.scanOptions().match(prefix + "*").count(1000).build();
+
+    if (shards == null) {
+      try (Cursor<Object> cursor = redisTemplate.scan(options)) {
+        cursor.forEachRemaining(
+            redisKey -> consumer.accept(redisKey.toString().substring(prefix.length())));
+      }
+      return;
+    }
+
+    // Keys of a failed shard would be missing, so the whole scan fails
+    for (Shard shard : shards.getShards()) {
+      shards.execute(
+          shard,
+          connection -> {
+            try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+              cursor.forEachRemaining(
+                  redisKey ->
+                      consumer.accept(
+                          new String(redisKey, StandardCharsets.UTF_8)
+                              .substring(prefix.length())));
+            }
+            return null;
+          });
+    }
   }
 
-  /** Removes all Redis entries belonging to this cache using a pattern match. */
-  private void clearRedisEntries() {
-    String prefix =
-        getCacheConfiguration().usePrefix()
-            ? getCacheConfiguration().getKeyPrefixFor(getName())
-            : getName() + "::";
-    String pattern = prefix + "*";
+  /**
+   * Removes all Redis entries belonging to this cache using a pattern match.
+   *
+   * @return {@code true} if entries were removed
+   */
+  private boolean clearRedisEntries() {
+    String pattern = redisKeyPrefix() + "*";
 
-    callRedis(
+    return callRedis(
+        Operation.WRITE,
         () -> {
+          if (shards != null) {
+            getNativeCache().clean(getName(), pattern.getBytes(StandardCharsets.UTF_8));
+            return;
+          }
+
           Set<Object> keys = redisTemplate.keys(pattern);
           if (keys != null && !keys.isEmpty()) {
             redisTemplate.delete(keys);
@@ -534,36 +2074,227 @@ public class MultiLevelCache extends RedisCache {
    * @param key to send notification about eviction. Can be {@code null}.
    */
   private void sendViaRedis(@Nullable String key) {
-    Try.of(
-            () -> {
-              cacheCircuitBreaker
-                  .decorateRunnable(
-                      () ->
-                          redisTemplate.convertAndSend(
-                              properties.getTopic(),
-                              new MultiLevelCacheEvictMessage(getName(), key, instanceId)))
-                  .run();
+    recordChange(key);
+    publishEviction(new MultiLevelCacheEvictMessage(getName(), key, instanceId));
+  }
+
+  /**
+   * @param keys to send single notification about eviction of all of them
+   */
+  private void sendAllViaRedis(@NonNull List<String> keys) {
+    keys.forEach(this::recordChange);
+    publishEviction(new MultiLevelCacheEvictMessage(getName(), null, instanceId, keys));
+  }
+
+  private void publishEviction(@NonNull MultiLevelCacheEvictMessage message) {
+    if (!isRedisCallPermitted()) {
+      deferEviction(message);
+      return;
+    }
+
+    if (properties.getInvalidation().getMode() == InvalidationMode.TRACKING) {
+      // Redis pushes invalidations to other instances on its own
+      return;
+    }
+
+    if (properties.getExecution().isVirtualThreads()) {
+      pendingPublishes.add(message);
+      schedulePublishes();
+    } else {
+      convertAndSend(message);
+    }
+  }
+
+  /**
+   * Starts a task sending queued eviction notifications unless one is running already, so that
+   * other instances receive notifications in the order of changes.
+   */
+  private void schedulePublishes() {
+    if (pendingPublishes.isEmpty() || !publishing.compareAndSet(false, true)) {
+      return;
+    }
+
+    try {
+      executor.execute(this::drainPublishes);
+    } catch (RejectedExecutionException e) {
+      publishing.set(false);
+      throw e;
+    }
+  }
+
+  private void drainPublishes() {
+    try {
+      MultiLevelCacheEvictMessage message;
+      while ((message = pendingPublishes.poll()) != null) {
+        convertAndSend(message);
+      }
+    } finally {
+      publishing.set(false);
+    }
+
+    // Notification might have been queued after the last poll, but before the task finished
+    schedulePublishes();
+  }
+
+  private void convertAndSend(@NonNull MultiLevelCacheEvictMessage message) {
+    if (callRedis(Operation.PUBLISH, () -> sendEviction(message)) == null) {
+      // Restarted instances would miss the change in the journal as well
+      deferEviction(message);
+    }
+  }
+
+  /**
+   * Journals changed keys within the same pipeline as the notification, if persistent tier is
+   * enabled.
+   *
+   * @param message about eviction
+   * @return reply of Redis
+   */
+  @SuppressWarnings("unchecked")
+  private Object sendEviction(@NonNull MultiLevelCacheEvictMessage message) {
+    if (journal == null) {
+      return redisTemplate.convertAndSend(properties.getTopic(), message);
+    }
+
+    byte[] channel = redisTemplate.getStringSerializer().serialize(properties.getTopic());
+    byte[] body = ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(message);
+    return redisTemplate.executePipelined(
+        (RedisCallback<Object>)
+            connection -> {
+              journal.record(connection, messageKeys(message));
+              connection.publish(channel, body);
               return null;
-            })
-        .ifFailure(
-            throwable ->
-                log.debug(
-                    "Redis eviction notification failed for cache '{}'", getName(), throwable));
+            });
   }
 
   /**
-   * @param key to make lock for
-   * @return new {@link ReentrantLock} for synchronizing operations
+   * Remembers eviction which could not reach Redis. Redis entry might have missed the change as
+   * well, so both Redis entry and local entries of other instances are dropped once circuit breaker
+   * closes.
+   *
+   * <p>If more keys are changed than local cache can hold, the whole cache is cleared instead.
+   *
+   * @param message which was not sent
    */
-  @NonNull
-  private ReentrantLock makeLock(@NonNull Object key) {
-    return Objects.requireNonNull(
-        locks.get(key, o -> new ReentrantLock()), LOCK_WAS_NOT_INITIALIZED);
+  private void deferEviction(@NonNull MultiLevelCacheEvictMessage message) {
+    List<String> keys = messageKeys(message);
+
+    int limit = properties.getLocal().getMaxSize();
+    if (keys == null || pendingEvictions.size() + keys.size() > limit) {
+      pendingClear.set(true);
+      pendingEvictions.clear();
+    } else {
+      pendingEvictions.addAll(keys);
+    }
+
+    log.trace("Deferred eviction for cache '{}' until Redis is available", getName());
+  }
+
+  /**
+   * @param message about eviction
+   * @return evicted keys, or {@code null} if the whole cache was cleared
+   */
+  private static @Nullable List<String> messageKeys(@NonNull MultiLevelCacheEvictMessage message) {
+    if (message.getEntryKeys() != null) {
+      return message.getEntryKeys();
+    }
+
+    return message.getEntryKey() != null ? List.of(message.getEntryKey()) : null;
+  }
+
+  /** Replays evictions which could not reach Redis while circuit breaker was not closed */
+  private void replayPendingEvictions() {
+    if (pendingClear.getAndSet(false)) {
+      log.debug("Replaying deferred clear for cache '{}'", getName());
+      if (clearRedisEntries()) {
+        sendViaRedis(null);
+      } else {
+        pendingClear.set(true);
+      }
+      return;
+    }
+
+    if (pendingEvictions.isEmpty()) {
+      return;
+    }
+
+    List<String> localKeys = List.copyOf(pendingEvictions);
+    pendingEvictions.removeAll(localKeys);
+
+    log.debug("Replaying {} deferred evictions for cache '{}'", localKeys.size(), getName());
+    byte[][] redisKeys = new byte[localKeys.size()][];
+    for (int i = 0; i < redisKeys.length; i++) {
+      // Converted key converts to itself
+      redisKeys[i] = serializeCacheKey(createCacheKey(localKeys.get(i)));
+    }
+
+    if (deleteFromRedis(redisKeys)) {
+      sendAllViaRedis(localKeys);
+    } else {
+      pendingEvictions.addAll(localKeys);
+    }
+  }
+
+  /**
+   * @param redisKeys serialized Redis keys to delete with a single command
+   * @return {@code true} if keys were deleted
+   */
+  private boolean deleteFromRedis(byte[][] redisKeys) {
+    Long deleted =
+        callRedis(
+            Operation.WRITE,
+            () ->
+                shards != null
+                    ? deleteFromShards(redisKeys)
+                    : redisTemplate.execute(
+                        (RedisCallback<Long>)
+                            connection -> connection.keyCommands().del(redisKeys)));
+    return deleted != null;
+  }
+
+  /**
+   * @param redisKeys serialized Redis keys to delete with a single command per shard
+   * @return amount of deleted keys
+   */
+  private Long deleteFromShards(byte[][] redisKeys) {
+    List<byte[]> keys = Arrays.asList(redisKeys);
+    AtomicLong deleted = new AtomicLong();
+
+    RedisShards.forEach(
+        shards.groupByShard(keys),
+        (shard, indexes) -> {
+          byte[][] shardKeys = indexes.stream().map(keys::get).toArray(byte[][]::new);
+          Long count =
+              shards.execute(shard, connection -> connection.keyCommands().del(shardKeys));
+          deleted.addAndGet(count == null ? 0L : count);
+        });
+
+    return deleted.get();
+  }
+
+  /**
+   * @param flightKey to make operation exclusive for
+   * @param call to execute once no other operation for the same key is running
+   * @return result of the call
+   */
+  private <T> T exclusively(@NonNull Object flightKey, @NonNull Callable<T> call) {
+    try {
+      return flights.exclusive(flightKey, call);
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      if (e instanceof InterruptedException) {
+        Thread.currentThread().interrupt();
+      }
+      throw new IllegalStateException(
+          "Interrupted while waiting for concurrent operation in cache '" + getName() + "'", e);
+    }
   }
 
   /**
    * Adjusts the RedisCacheConfiguration based on the provided properties and RedisTemplate.
    *
+   * @param name The name of the cache, to apply settings of the cache.
    * @param properties The MultiLevelCacheConfigurationProperties used to create the
    *     RedisCacheConfiguration.
    * @param redisTemplate The RedisTemplate used to get the value serializer for
@@ -571,13 +2302,49 @@ public class MultiLevelCache extends RedisCache {
    * @return The adjusted RedisCacheConfiguration with updated serialization for values.
    */
   private static RedisCacheConfiguration adjustRedisCacheConfiguration(
+      String name,
       MultiLevelCacheConfigurationProperties properties,
       RedisTemplate<Object, Object> redisTemplate) {
     RedisCacheConfiguration configuration = properties.toRedisCacheConfiguration();
-    RedisSerializer<?> valueSerializer = redisTemplate.getValueSerializer();
+    PerCacheProperties cacheProperties = properties.getCaches().get(name);
+    RedisSerializer<?> valueSerializer =
+        cacheProperties != null && cacheProperties.getValueType() != null
+            ? TypedJacksonRedisSerializer.of(
+                properties.getValueSerializer(), cacheProperties.getValueType())
+            : redisTemplate.getValueSerializer();
+    CompressionProperties compression = properties.getCompression();
+    if (compression.isEnabled()) {
+      valueSerializer =
+          new CompressingRedisSerializer<>(
+              valueSerializer,
+              Math.toIntExact(compression.getMinSize().toBytes()),
+              compression.getLevel(),
+              Math.toIntExact(compression.getMaxSize().toBytes()));
+    }
     configuration =
         configuration.serializeValuesWith(
             RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer));
     return configuration;
   }
+
+  /** Flight key for retrievals that do not load values to keep them apart from loading calls */
+  private record RetrieveFlightKey(String localKey) {}
+
+  private record RefreshFlightKey(String localKey) {}
+
+  /**
+   * Outcome of a Redis lookup telling a miss apart from Redis not being available.
+   *
+   * @param available whether Redis replied
+   * @param value raw Redis value, {@code null} if there is none
+   */
+  private record RedisLookup(boolean available, @Nullable Object value) {
+
+    private static final RedisLookup MISS = new RedisLookup(true, null);
+    private static final RedisLookup UNAVAILABLE = new RedisLookup(false, null);
+
+    private static RedisLookup of(@Nullable Object value) {
+      return value == null ? MISS : new RedisLookup(true, value);
+    }
+  }
 }
@@ -28,9 +28,13 @@ import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.suppie.spring.cache.MultiLevelCacheConfigurationProperties.CircuitBreakerProperties;
+import io.github.suppie.spring.cache.MultiLevelCacheConfigurationProperties.WarmupProperties;
+import io.github.suppie.spring.cache.RedisShards.Shard;
+import io.lettuce.core.ReadFrom;
 import io.micrometer.core.instrument.binder.MeterBinder;
-import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.jspecify.annotations.NonNull;
 import org.springframework.beans.factory.ObjectProvider;
@@ -40,18 +44,26 @@ import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.cache.autoconfigure.CacheAutoConfiguration;
 import org.springframework.boot.cache.autoconfigure.CacheProperties;
 import org.springframework.boot.cache.metrics.CacheMeterBinderProvider;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.boot.data.redis.autoconfigure.DataRedisAutoConfiguration;
 import org.springframework.boot.data.redis.autoconfigure.RedisMessageListenerContainerConfigurer;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.type.AnnotatedTypeMetadata;
 import org.springframework.data.redis.connection.MessageListener;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.listener.ChannelTopic;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
@@ -93,10 +105,30 @@ public class MultiLevelCacheAutoConfiguration {
   public static final String CACHE_INVALIDATION_MESSAGE_LISTENER_REGISTRAR_NAME =
       "multiLevelCacheInvalidationMessageListenerRegistrar";
 
+  /** Bean name for the tracker that receives invalidations pushed by Redis */
+  public static final String CACHE_INVALIDATION_TRACKER_NAME = "multiLevelCacheInvalidationTracker";
+
+  /** Bean name for the connection factory reading cache entries from replicas */
+  public static final String CACHE_READ_CONNECTION_FACTORY_NAME =
+      "multiLevelCacheReadConnectionFactory";
+
+  /** Bean name for the Redis shards storing cache entries */
+  public static final String CACHE_REDIS_SHARDS_NAME = "multiLevelCacheRedisShards";
+
+  /** Bean name for the executor holder used by multi-level caches */
+  public static final String CACHE_EXECUTION_NAME = "multiLevelCacheExecution";
+
+  /** Bean name for the manifest of hot keys used by cache warmup */
+  public static final String CACHE_HOT_KEY_MANIFEST_NAME = "multiLevelCacheHotKeyManifest";
+
+  /** Bean name for the warmer of local caches */
+  public static final String CACHE_WARMER_NAME = "multiLevelCacheWarmer";
+
   /**
    * Instantiates {@link RedisTemplate} to use for sending {@link MultiLevelCacheEvictMessage}
    *
    * @param connectionFactory to use in template
+   * @param cacheProperties for multi-level cache
    * @param valueSerializerProvider to use in template
    * @return template to send messages about evicted entries
    */
@@ -104,24 +136,64 @@ public class MultiLevelCacheAutoConfiguration {
   @ConditionalOnMissingBean(name = CACHE_REDIS_TEMPLATE_NAME)
   public RedisTemplate<Object, Object> multiLevelCacheRedisTemplate(
       RedisConnectionFactory connectionFactory,
+      MultiLevelCacheConfigurationProperties cacheProperties,
       ObjectProvider<@NonNull RedisSerializer<@NonNull Object>> valueSerializerProvider) {
     RedisTemplate<Object, Object> template = new RedisTemplate<>();
     template.setConnectionFactory(connectionFactory);
     template.setKeySerializer(new StringRedisSerializer());
     template.setHashKeySerializer(new StringRedisSerializer());
     RedisSerializer<@NonNull Object> valueSerializer =
-        valueSerializerProvider.getIfAvailable(RedisSerializer::json);
+        valueSerializerProvider.getIfAvailable(() -> valueSerializer(cacheProperties));
     template.setValueSerializer(valueSerializer);
     template.setHashValueSerializer(valueSerializer);
     template.afterPropertiesSet();
     return template;
   }
 
+  /**
+   * @param cacheProperties for multi-level cache
+   * @return serializer of the configured type
+   */
+  private static RedisSerializer<@NonNull Object> valueSerializer(
+      MultiLevelCacheConfigurationProperties cacheProperties) {
+    ValueSerializerType type = cacheProperties.getValueSerializer();
+    type.requireAvailable();
+    return switch (type) {
+      case JSON -> RedisSerializer.json();
+      case SMILE -> {
+        // Class names of values are read back from Redis, so application classes must be listed
+        if (cacheProperties.getTrustedTypes().isEmpty()) {
+          throw new IllegalStateException(
+              "Property 'spring.cache.multilevel.trusted-types' must list packages or classes of"
+                  + " cached values when 'value-serializer' is 'smile'");
+        }
+        yield new SmileRedisSerializer(cacheProperties.getTrustedTypes());
+      }
+      case JDK -> RedisSerializer.java();
+    };
+  }
+
+  /**
+   * @param cacheProperties for multi-level cache
+   * @return executor holder for the work multi-level caches perform outside of the calling thread
+   */
+  @Bean(name = CACHE_EXECUTION_NAME)
+  @ConditionalOnMissingBean(name = CACHE_EXECUTION_NAME)
+  public MultiLevelCacheExecution multiLevelCacheExecution(
+      MultiLevelCacheConfigurationProperties cacheProperties) {
+    return new MultiLevelCacheExecution(cacheProperties.getExecution());
+  }
+
   /**
    * @param highLevelCacheProperties as a baseline
    * @param cacheProperties for multi-level cache
    * @param circuitBreaker if application defined its own circuit breaker
    * @param multiLevelCacheRedisTemplate to send messages about evicted entries
+   * @param execution to run Redis calls outside of the calling thread
+   * @param readConnectionFactory to read cache entries from replicas, if read routing or hedging is
+   *     enabled
+   * @param shards to spread cache entries between, if sharding is enabled
+   * @param localCacheWeigher if application defined its own estimator of local value weights
    * @return cache manager for multi-level caching
    */
   @Bean
@@ -130,33 +202,48 @@ public class MultiLevelCacheAutoConfiguration {
       MultiLevelCacheConfigurationProperties cacheProperties,
       @Qualifier(CIRCUIT_BREAKER_NAME) CircuitBreaker circuitBreaker,
       @Qualifier(CACHE_REDIS_TEMPLATE_NAME)
-          RedisTemplate<Object, Object> multiLevelCacheRedisTemplate) {
+          RedisTemplate<Object, Object> multiLevelCacheRedisTemplate,
+      @Qualifier(CACHE_EXECUTION_NAME) MultiLevelCacheExecution execution,
+      @Qualifier(CACHE_READ_CONNECTION_FACTORY_NAME)
+          ObjectProvider<@NonNull RedisConnectionFactory> readConnectionFactory,
+      @Qualifier(CACHE_REDIS_SHARDS_NAME) ObjectProvider<@NonNull RedisShards> shards,
+      ObjectProvider<@NonNull LocalCacheWeigher> localCacheWeigher) {
     return new MultiLevelCacheManager(
-        highLevelCacheProperties, cacheProperties, multiLevelCacheRedisTemplate, circuitBreaker);
+        highLevelCacheProperties,
+        cacheProperties,
+        multiLevelCacheRedisTemplate,
+        circuitBreaker,
+        MultiLevelCacheOptions.builder()
+            .executor(execution.getExecutor())
+            .readConnectionFactory(readConnectionFactory.getIfAvailable())
+            .shards(shards.getIfAvailable())
+            .localCacheWeigher(localCacheWeigher.getIfAvailable())
+            .build());
   }
 
   /**
-   * @return cache meter binder for local level of multi level cache
+   * @return cache meter binder for local level and Bloom filter of multi level cache
    */
   @Bean
   @ConditionalOnBean(MultiLevelCacheManager.class)
   @ConditionalOnClass({MeterBinder.class, CacheMeterBinderProvider.class})
   public CacheMeterBinderProvider<@NonNull MultiLevelCache>
       multiLevelCacheCacheMeterBinderProvider() {
-    return (cache, tags) ->
-        new CaffeineCacheMetrics<>(cache.getLocalCache(), cache.getName(), tags);
+    return MultiLevelCacheMetrics::new;
   }
 
   /**
    * @param redisConnectionFactory to use when a shared listener container is not provided
    * @param configurerProvider to align the fallback listener container with Spring Boot settings
+   * @param execution to dispatch invalidation messages on virtual threads when enabled
    * @return Redis topic listener container to coordinate entry eviction
    */
   @Bean(name = REDIS_MESSAGE_LISTENER_CONTAINER_NAME)
   @ConditionalOnMissingBean(name = REDIS_MESSAGE_LISTENER_CONTAINER_NAME)
   public RedisMessageListenerContainer redisMessageListenerContainer(
       RedisConnectionFactory redisConnectionFactory,
-      ObjectProvider<@NonNull RedisMessageListenerContainerConfigurer> configurerProvider) {
+      ObjectProvider<@NonNull RedisMessageListenerContainerConfigurer> configurerProvider,
+      @Qualifier(CACHE_EXECUTION_NAME) MultiLevelCacheExecution execution) {
     RedisMessageListenerContainer container = new RedisMessageListenerContainer();
     RedisMessageListenerContainerConfigurer configurer = configurerProvider.getIfAvailable();
 
@@ -166,6 +253,11 @@ public class MultiLevelCacheAutoConfiguration {
       container.setConnectionFactory(redisConnectionFactory);
     }
 
+    if (execution.isVirtualThreads()) {
+      container.setTaskExecutor(execution.getExecutor());
+      container.setSubscriptionExecutor(execution.getExecutor());
+    }
+
     return container;
   }
 
@@ -221,6 +313,8 @@ public class MultiLevelCacheAutoConfiguration {
       cbc.slidingWindowSize(props.getSlidingWindowSize());
       cbc.minimumNumberOfCalls(props.getMinimumNumberOfCalls());
       cbc.waitDurationInOpenState(props.getWaitDurationInOpenState());
+      // Shards have circuit breakers of their own
+      cbc.ignoreExceptions(RedisShardException.class);
 
       Duration recommendedMaxDurationInOpenState =
           cacheProperties
@@ -267,6 +361,178 @@ public class MultiLevelCacheAutoConfiguration {
     return cb;
   }
 
+  /** Redis server-assisted invalidation of local caches, see {@link InvalidationMode#TRACKING} */
+  @Configuration
+  @ConditionalOnClass(name = "io.lettuce.core.RedisClient")
+  @ConditionalOnProperty(
+      name = "spring.cache.multilevel.invalidation.mode", havingValue = "tracking")
+  static class TrackingInvalidationConfiguration {
+
+    /**
+     * Topic listener stays registered in this mode to accept messages from instances still using
+     * {@link InvalidationMode#PUBSUB}.
+     *
+     * @param connectionFactory to open tracking connection with
+     * @param cacheManager for multi-level caching
+     * @param execution to apply invalidations with
+     * @return tracker that invalidates local caches on Redis key changes
+     */
+    @Bean(name = CACHE_INVALIDATION_TRACKER_NAME)
+    @ConditionalOnMissingBean(name = CACHE_INVALIDATION_TRACKER_NAME)
+    public MultiLevelCacheInvalidationTracker multiLevelCacheInvalidationTracker(
+        RedisConnectionFactory connectionFactory,
+        MultiLevelCacheManager cacheManager,
+        @Qualifier(CACHE_EXECUTION_NAME) MultiLevelCacheExecution execution) {
+      return new MultiLevelCacheInvalidationTracker(
+          connectionFactory, cacheManager, execution.getExecutor());
+    }
+  }
+
+  /** Routing of Redis reads and hedged reads to replicas, see {@link ReadRoutingMode} */
+  @Configuration
+  @ConditionalOnClass(name = "io.lettuce.core.ReadFrom")
+  @ConditionalOnExpression(
+      "!'${spring.cache.multilevel.read-routing.mode:master}'.equalsIgnoreCase('master')"
+          + " or !'${spring.cache.multilevel.redis-calls.hedge-delay:}'.isEmpty()")
+  static class ReadRoutingConfiguration {
+
+    /**
+     * Not a default candidate, so that applications and other autoconfigurations keep injecting
+     * their own connection factory.
+     *
+     * @param connectionFactory to copy Redis topology and client settings from
+     * @param cacheProperties for multi-level cache
+     * @return connection factory reading from replicas according to read routing mode
+     */
+    @Bean(name = CACHE_READ_CONNECTION_FACTORY_NAME, defaultCandidate = false)
+    @ConditionalOnMissingBean(name = CACHE_READ_CONNECTION_FACTORY_NAME)
+    public LettuceConnectionFactory multiLevelCacheReadConnectionFactory(
+        RedisConnectionFactory connectionFactory,
+        MultiLevelCacheConfigurationProperties cacheProperties) {
+      return LettuceConnectionFactories.withReadFrom(
+          connectionFactory,
+          cacheProperties.getReadRouting().getMode() == ReadRoutingMode.NEAREST
+              ? ReadFrom.LOWEST_LATENCY
+              : ReadFrom.REPLICA_PREFERRED);
+    }
+  }
+
+  /** Client-side sharding of cache entries, see {@link RedisShards} */
+  @Configuration
+  @ConditionalOnClass(name = "io.lettuce.core.RedisURI")
+  @Conditional(ShardingConfiguration.OnShardNodes.class)
+  static class ShardingConfiguration {
+
+    /**
+     * Each shard gets a circuit breaker with the configuration of the cache circuit breaker.
+     *
+     * @param connectionFactory to copy client settings from, keeps carrying eviction notifications
+     * @param cacheProperties for multi-level cache
+     * @param circuitBreaker to copy circuit breaker configuration from
+     * @return shards to spread cache entries between
+     */
+    @Bean(name = CACHE_REDIS_SHARDS_NAME, defaultCandidate = false)
+    @ConditionalOnMissingBean(name = CACHE_REDIS_SHARDS_NAME)
+    public RedisShards multiLevelCacheRedisShards(
+        RedisConnectionFactory connectionFactory,
+        MultiLevelCacheConfigurationProperties cacheProperties,
+        @Qualifier(CIRCUIT_BREAKER_NAME) CircuitBreaker circuitBreaker) {
+      if (cacheProperties.getReadRouting().getMode() != ReadRoutingMode.MASTER) {
+        throw new IllegalStateException("Read routing is not supported together with sharding");
+      }
+
+      if (cacheProperties.getInvalidation().getMode() == InvalidationMode.TRACKING) {
+        throw new IllegalStateException(
+            "Tracking invalidation is not supported together with sharding");
+      }
+
+      List<Shard> shards = new ArrayList<>();
+      for (String url : cacheProperties.getSharding().getNodes()) {
+        String name = LettuceConnectionFactories.nodeName(url);
+        LettuceConnectionFactory shardConnectionFactory =
+            LettuceConnectionFactories.forNode(connectionFactory, url);
+        shardConnectionFactory.afterPropertiesSet();
+
+        shards.add(
+            new Shard(
+                name,
+                shardConnectionFactory,
+                CircuitBreaker.of(
+                    CIRCUIT_BREAKER_NAME + "-" + name,
+                    circuitBreaker.getCircuitBreakerConfig())));
+      }
+
+      return new RedisShards(shards, cacheProperties.getSharding().getVirtualNodes());
+    }
+
+    /** Matches if at least one shard node is configured */
+    static class OnShardNodes implements Condition {
+
+      @Override
+      public boolean matches(
+          @NonNull ConditionContext context, @NonNull AnnotatedTypeMetadata metadata) {
+        return Binder.get(context.getEnvironment())
+            .bind("spring.cache.multilevel.sharding.nodes", Bindable.listOf(String.class))
+            .map(nodes -> !nodes.isEmpty())
+            .orElse(false);
+      }
+    }
+  }
+
+  /** Warmup of local caches with their hot keys, see {@link MultiLevelCacheWarmer} */
+  @Configuration
+  @ConditionalOnProperty(name = "spring.cache.multilevel.warmup.enabled", havingValue = "true")
+  static class WarmupConfiguration {
+
+    /**
+     * @param cacheProperties for multi-level cache
+     * @param multiLevelCacheRedisTemplate to access Redis manifest with
+     * @return manifest of hot keys chosen by {@code warmup.manifest-type}
+     */
+    @Bean(name = CACHE_HOT_KEY_MANIFEST_NAME)
+    @ConditionalOnMissingBean(HotKeyManifest.class)
+    public HotKeyManifest multiLevelCacheHotKeyManifest(
+        MultiLevelCacheConfigurationProperties cacheProperties,
+        @Qualifier(CACHE_REDIS_TEMPLATE_NAME)
+            RedisTemplate<Object, Object> multiLevelCacheRedisTemplate) {
+      WarmupProperties warmup = cacheProperties.getWarmup();
+
+      return switch (warmup.getManifestType()) {
+        case REDIS ->
+            new RedisHotKeyManifest(
+                multiLevelCacheRedisTemplate,
+                cacheProperties.getTopic() + ":warmup",
+                warmup.getMaxKeys());
+        case FILE -> {
+          if (warmup.getDirectory() == null) {
+            throw new IllegalStateException(
+                "Property 'spring.cache.multilevel.warmup.directory' must be set when"
+                    + " 'warmup.manifest-type' is 'file'");
+          }
+          yield new FileHotKeyManifest(warmup.getDirectory());
+        }
+      };
+    }
+
+    /**
+     * @param cacheProperties for multi-level cache
+     * @param cacheManager to warm caches of
+     * @param manifest to record hot keys in
+     * @param execution to fetch batches of keys with
+     * @return warmer of local caches
+     */
+    @Bean(name = CACHE_WARMER_NAME)
+    @ConditionalOnMissingBean(name = CACHE_WARMER_NAME)
+    public MultiLevelCacheWarmer multiLevelCacheWarmer(
+        MultiLevelCacheConfigurationProperties cacheProperties,
+        MultiLevelCacheManager cacheManager,
+        HotKeyManifest manifest,
+        @Qualifier(CACHE_EXECUTION_NAME) MultiLevelCacheExecution execution) {
+      return new MultiLevelCacheWarmer(
+          cacheProperties.getWarmup(), cacheManager, manifest, execution.getExecutor());
+    }
+  }
+
   /**
    * @param multiLevelCacheRedisTemplate to receive messages about evicted entries
    * @param cacheManager for multi-level caching
@@ -287,6 +553,7 @@ public class MultiLevelCacheAutoConfiguration {
 
         String cacheName = request.getCacheName();
         String entryKey = request.getEntryKey();
+        List<String> entryKeys = request.getEntryKeys();
 
         if (!StringUtils.hasText(cacheName)) return;
 
@@ -294,6 +561,12 @@ public class MultiLevelCacheAutoConfiguration {
 
         if (cache == null) return;
 
+        if (entryKeys != null) {
+          log.trace("Received Redis message to evict keys {} from cache {}", entryKeys, cacheName);
+          entryKeys.forEach(cache::invalidateLocalEntry);
+          return;
+        }
+
         log.trace("Received Redis message to evict key {} from cache {}", entryKey, cacheName);
 
         if (entryKey == null) cache.invalidateLocalCache();
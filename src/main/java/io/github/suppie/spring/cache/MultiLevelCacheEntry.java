@@ -0,0 +1,75 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Roman Khlebnov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.suppie.spring.cache;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Redis entry carrying metadata for probabilistic early recomputation (XFetch): how long the value
+ * took to compute and when the Redis entry expires.
+ *
+ * <p>Early recomputation becomes due with rising probability as expiration approaches:
+ *
+ * <pre>
+ * now - compute-time * beta * ln(RNG(0, 1)) >= expires-at
+ * </pre>
+ *
+ * <p>Expensive values are recomputed earlier, which spreads recomputation of a hot key across nodes
+ * instead of all of them missing at once.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultiLevelCacheEntry implements Serializable {
+  @Serial private static final long serialVersionUID = 4735194216478102391L;
+
+  /** Cached value */
+  private Object value;
+
+  /** Time in milliseconds the value loader took to compute the value */
+  private long computeTime;
+
+  /** Epoch milliseconds of Redis entry expiration, {@link Long#MAX_VALUE} if it does not expire */
+  private long expiresAt;
+
+  /**
+   * @param beta to scale early recomputation, values above {@code 1.0} favor earlier recomputation
+   * @return {@code true} if this caller should recompute the value before it expires
+   */
+  public boolean isRecomputeDue(double beta) {
+    if (expiresAt == Long.MAX_VALUE) {
+      return false;
+    }
+
+    double random = 1d - ThreadLocalRandom.current().nextDouble();
+    double gap = -computeTime * beta * Math.log(random);
+    return System.currentTimeMillis() + gap >= expiresAt;
+  }
+}
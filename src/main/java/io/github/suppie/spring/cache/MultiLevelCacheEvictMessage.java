@@ -26,6 +26,7 @@ package io.github.suppie.spring.cache;
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -40,9 +41,24 @@ public class MultiLevelCacheEvictMessage implements Serializable {
   /** Name of the cache affected by this eviction message */
   private String cacheName;
 
-  /** Specific cache entry key to evict; null means evict all local entries */
+  /**
+   * Specific cache entry key to evict; null means evict all local entries unless {@link #entryKeys}
+   * are set
+   */
   private String entryKey;
 
   /** Unique identifier of the instance that initiated the eviction */
   private String senderId;
+
+  /** Cache entry keys to evict at once, takes precedence over {@link #entryKey} */
+  private List<String> entryKeys;
+
+  /**
+   * @param cacheName affected by this eviction message
+   * @param entryKey to evict, null means evict all local entries
+   * @param senderId of the instance that initiated the eviction
+   */
+  public MultiLevelCacheEvictMessage(String cacheName, String entryKey, String senderId) {
+    this(cacheName, entryKey, senderId, null);
+  }
 }
@@ -0,0 +1,112 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Roman Khlebnov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.suppie.spring.cache;
+
+import io.github.suppie.spring.cache.MultiLevelCacheConfigurationProperties.ExecutionProperties;
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.DisposableBean;
+
+/**
+ * Holds executor used by multi-level caches for the work moved off the calling thread: asynchronous
+ * Redis continuations, eviction notifications and invalidation listener dispatch.
+ *
+ * <p>By default asynchronous continuations run on {@link ForkJoinPool#commonPool()} while
+ * everything else stays on the calling thread. With virtual threads enabled every task gets its own
+ * virtual thread, which requires Java 21 or newer.
+ */
+@Slf4j
+public class MultiLevelCacheExecution implements DisposableBean {
+
+  private static final String VIRTUAL_THREADS_FACTORY_METHOD = "newVirtualThreadPerTaskExecutor";
+
+  private final boolean virtualThreads;
+  private final Executor executor;
+  private final @Nullable ExecutorService ownedExecutor;
+
+  /**
+   * Creates execution settings for multi-level caches.
+   *
+   * @param properties execution properties
+   */
+  public MultiLevelCacheExecution(@NonNull ExecutionProperties properties) {
+    this.virtualThreads = properties.isVirtualThreads();
+
+    if (virtualThreads) {
+      this.ownedExecutor = newVirtualThreadPerTaskExecutor();
+      this.executor = ownedExecutor;
+    } else {
+      this.ownedExecutor = null;
+      this.executor = ForkJoinPool.commonPool();
+    }
+  }
+
+  /**
+   * @return {@code true} if work is moved to virtual threads
+   */
+  public boolean isVirtualThreads() {
+    return virtualThreads;
+  }
+
+  /**
+   * @return executor for the work moved off the calling thread
+   */
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  @Override
+  public void destroy() {
+    if (ownedExecutor != null) {
+      ownedExecutor.shutdown();
+    }
+  }
+
+  /**
+   * Virtual threads are available since Java 21 while this library targets Java 17, hence the
+   * factory method is resolved reflectively.
+   *
+   * @return executor starting a new virtual thread for each task
+   */
+  private static ExecutorService newVirtualThreadPerTaskExecutor() {
+    try {
+      Method factory = Executors.class.getMethod(VIRTUAL_THREADS_FACTORY_METHOD);
+      log.debug("Multi-level cache will use virtual threads");
+      return (ExecutorService) factory.invoke(null);
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException(
+          "Property 'spring.cache.multilevel.execution.virtual-threads' requires Java 21 or newer",
+          e);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Cannot create virtual thread executor", e);
+    }
+  }
+}
@@ -0,0 +1,284 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Roman Khlebnov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.suppie.spring.cache;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.protocol.ProtocolVersion;
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+/**
+ * Invalidates local caches using Redis server-assisted client side caching.
+ *
+ * <p>Dedicated RESP3 connection enables {@code CLIENT TRACKING} in broadcasting mode for the key
+ * prefix of each cache, so Redis pushes invalidations for keys changed by any client, including
+ * services which do not use this library. RESP2 connections cannot receive these pushes, so the
+ * tracker refuses to start if Lettuce is configured to use RESP2.
+ *
+ * <p>Writes made by this instance are reported as well. {@code NOLOOP} would not skip them, because
+ * it only skips changes made by the tracking connection itself, while caches write through their
+ * own connections. Instead, caches skip one push per their own write, so that the local entry just
+ * written is kept.
+ *
+ * <p>Invalidations are applied on the execution executor to keep the Lettuce event loop free.
+ *
+ * <p>Local caches are cleared whenever the connection is re-established, because invalidations
+ * could have been missed in the meantime.
+ */
+@Slf4j
+public class MultiLevelCacheInvalidationTracker implements SmartLifecycle {
+
+  private static final String INVALIDATE_MESSAGE_TYPE = "invalidate";
+  private static final Duration RECOVERY_INTERVAL = Duration.ofSeconds(5L);
+
+  private final LettuceConnectionFactory connectionFactory;
+  private final MultiLevelCacheManager cacheManager;
+  private final Executor executor;
+  private final Map<String, MultiLevelCache> trackedCaches;
+  private final RedisConnectionStateListener connectionStateListener;
+
+  private volatile RedisClient client;
+  private volatile StatefulRedisConnection<String, String> connection;
+  private volatile boolean running;
+
+  /**
+   * Creates a tracker for caches of the given manager.
+   *
+   * @param connectionFactory Lettuce connection factory to open tracking connection with
+   * @param cacheManager to invalidate local caches of
+   * @param executor to apply invalidations on
+   * @throws IllegalStateException if connection factory is not a Lettuce one
+   */
+  public MultiLevelCacheInvalidationTracker(
+      @NonNull RedisConnectionFactory connectionFactory,
+      @NonNull MultiLevelCacheManager cacheManager,
+      @NonNull Executor executor) {
+    if (!(connectionFactory instanceof LettuceConnectionFactory lettuceConnectionFactory)) {
+      throw new IllegalStateException(
+          "Invalidation mode TRACKING requires Lettuce connection factory, found "
+              + connectionFactory.getClass().getName());
+    }
+
+    this.connectionFactory = lettuceConnectionFactory;
+    this.cacheManager = cacheManager;
+    this.executor = executor;
+    this.trackedCaches = new ConcurrentHashMap<>();
+    this.connectionStateListener = new ConnectionStateListener();
+  }
+
+  @Override
+  public void start() {
+    AbstractRedisClient nativeClient = connectionFactory.getRequiredNativeClient();
+    if (!(nativeClient instanceof RedisClient redisClient)) {
+      throw new IllegalStateException(
+          "Invalidation mode TRACKING requires standalone or Sentinel managed Redis, found "
+              + nativeClient.getClass().getName());
+    }
+
+    if (redisClient.getOptions().getProtocolVersion() != ProtocolVersion.RESP3) {
+      throw new IllegalStateException(
+          "Invalidation mode TRACKING requires RESP3 protocol, found "
+              + redisClient.getOptions().getProtocolVersion());
+    }
+
+    this.client = redisClient;
+    this.running = true;
+
+    client.addListener(connectionStateListener);
+    cacheManager.addCacheListener(this::track);
+    connect();
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+
+    if (client != null) {
+      client.removeListener(connectionStateListener);
+    }
+
+    StatefulRedisConnection<String, String> current = connection;
+    connection = null;
+
+    if (current != null) {
+      current.close();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  /** Opens tracking connection, retrying in background while Redis is not available */
+  private void connect() {
+    if (!running) {
+      return;
+    }
+
+    try {
+      StatefulRedisConnection<String, String> opened = client.connect(StringCodec.UTF8);
+      opened.addListener(this::onPushMessage);
+      connection = opened;
+
+      enableTracking(trackedCaches.keySet());
+      invalidateLocalCaches();
+    } catch (Exception e) {
+      log.warn("Cannot connect to Redis to track cache keys, retrying in {}", RECOVERY_INTERVAL);
+      log.debug("Redis connection failure", e);
+      CompletableFuture.delayedExecutor(RECOVERY_INTERVAL.toMillis(), TimeUnit.MILLISECONDS)
+          .execute(this::connect);
+    }
+  }
+
+  /**
+   * @param cache to start tracking Redis keys of
+   */
+  private void track(@NonNull MultiLevelCache cache) {
+    String prefix = cache.redisKeyPrefix();
+
+    if (trackedCaches.putIfAbsent(prefix, cache) == null) {
+      enableTracking(List.of(prefix));
+    }
+  }
+
+  /**
+   * Redis adds prefixes to the existing ones when tracking is already enabled for connection.
+   *
+   * @param prefixes of Redis keys to track
+   */
+  private void enableTracking(@NonNull Collection<String> prefixes) {
+    StatefulRedisConnection<String, String> current = connection;
+
+    if (current == null || prefixes.isEmpty()) {
+      return;
+    }
+
+    TrackingArgs args =
+        TrackingArgs.Builder.enabled().bcast().prefixes(prefixes.toArray(String[]::new));
+    current
+        .async()
+        .clientTracking(args)
+        .whenComplete(
+            (reply, e) -> {
+              if (e != null) {
+                log.warn("Cannot track Redis keys with prefixes {}", prefixes, e);
+              } else {
+                log.trace("Tracking Redis keys with prefixes {}", prefixes);
+              }
+            });
+  }
+
+  /**
+   * @param message pushed by Redis
+   */
+  private void onPushMessage(@NonNull PushMessage message) {
+    if (!INVALIDATE_MESSAGE_TYPE.equals(message.getType())) {
+      return;
+    }
+
+    List<Object> content = message.getContent(StringCodec.UTF8::decodeKey);
+    Object redisKeys = content.size() > 1 ? content.get(1) : null;
+
+    // Redis sends no keys when the whole database was flushed
+    Runnable invalidation =
+        redisKeys instanceof Collection<?> keys
+            ? () -> keys.forEach(key -> invalidateLocalEntry(String.valueOf(key)))
+            : this::invalidateLocalCaches;
+
+    try {
+      executor.execute(invalidation);
+    } catch (RejectedExecutionException e) {
+      // Stale local entries are worse than blocking the event loop for a while
+      log.debug("Invalidation was rejected by executor, applying it on the event loop", e);
+      invalidation.run();
+    }
+  }
+
+  /**
+   * @param redisKey changed in Redis
+   */
+  private void invalidateLocalEntry(@NonNull String redisKey) {
+    trackedCaches.forEach(
+        (prefix, cache) -> {
+          if (redisKey.startsWith(prefix)) {
+            log.trace("Redis invalidated key {} of cache {}", redisKey, cache.getName());
+            cache.invalidateTrackedEntry(redisKey.substring(prefix.length()));
+          }
+        });
+  }
+
+  private void invalidateLocalCaches() {
+    trackedCaches.values().forEach(MultiLevelCache::invalidateLocalCache);
+  }
+
+  /** Restores tracking after Lettuce re-establishes the tracking connection */
+  private class ConnectionStateListener implements RedisConnectionStateListener {
+
+    @Override
+    public void onRedisConnected(RedisChannelHandler<?, ?> handler, SocketAddress address) {
+      if (handler != connection) {
+        return;
+      }
+
+      log.debug("Tracking connection to Redis re-established, clearing local caches");
+      enableTracking(trackedCaches.keySet());
+      invalidateLocalCaches();
+    }
+
+    @Override
+    public void onRedisDisconnected(RedisChannelHandler<?, ?> handler) {
+      if (handler == connection) {
+        log.debug("Tracking connection to Redis lost, invalidations might be missed");
+      }
+    }
+
+    @Override
+    public void onRedisExceptionCaught(RedisChannelHandler<?, ?> handler, Throwable cause) {
+      if (handler == connection) {
+        log.debug("Tracking connection to Redis failed", cause);
+      }
+    }
+  }
+}
@@ -28,35 +28,50 @@ import static io.github.suppie.spring.cache.MultiLevelCacheConfigurationProperti
 
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Weigher;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 import lombok.extern.slf4j.Slf4j;
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.cache.autoconfigure.CacheProperties;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.util.unit.DataSize;
 
 /** Cache manager to cover basic operations */
 @Slf4j
-public class MultiLevelCacheManager implements CacheManager {
+public class MultiLevelCacheManager implements CacheManager, DisposableBean {
 
   private final Set<String> requestedCacheNames;
   private final MultiLevelCacheConfigurationProperties properties;
   private final RedisTemplate<Object, Object> redisTemplate;
   private final CircuitBreaker circuitBreaker;
+  private final MultiLevelCacheOptions options;
   private final String instanceId;
+  private final LocalCacheWeigher localCacheWeigher;
+  private final @Nullable SharedLocalCache sharedLocalCache;
+  private final @Nullable ExecutorService callExecutor;
 
   private final Map<String, Cache> availableCaches;
+  private final List<Consumer<MultiLevelCache>> cacheListeners;
 
   /**
    * Creates a cache manager that produces multi-level caches backed by Redis with a local Caffeine
@@ -72,6 +87,31 @@ public class MultiLevelCacheManager implements CacheManager {
       MultiLevelCacheConfigurationProperties properties,
       RedisTemplate<Object, Object> redisTemplate,
       CircuitBreaker circuitBreaker) {
+    this(
+        highLevelProperties,
+        properties,
+        redisTemplate,
+        circuitBreaker,
+        MultiLevelCacheOptions.builder().build());
+  }
+
+  /**
+   * Creates a cache manager that produces multi-level caches backed by Redis with a local Caffeine
+   * tier.
+   *
+   * @param highLevelProperties optional Spring cache properties for requested caches
+   * @param properties multi-level cache configuration properties
+   * @param redisTemplate Redis template used for messaging, and for remote cache access unless
+   *     shards or cache writer are given
+   * @param circuitBreaker circuit breaker protecting Redis access
+   * @param options optional collaborators of caches
+   */
+  public MultiLevelCacheManager(
+      ObjectProvider<@NonNull CacheProperties> highLevelProperties,
+      MultiLevelCacheConfigurationProperties properties,
+      RedisTemplate<Object, Object> redisTemplate,
+      CircuitBreaker circuitBreaker,
+      MultiLevelCacheOptions options) {
     CacheProperties hlp = highLevelProperties.getIfAvailable();
     this.requestedCacheNames =
         hlp == null ? Collections.emptySet() : Set.copyOf(hlp.getCacheNames());
@@ -79,9 +119,45 @@ public class MultiLevelCacheManager implements CacheManager {
     this.properties = properties;
     this.redisTemplate = redisTemplate;
     this.circuitBreaker = circuitBreaker;
+    this.options = options;
     this.instanceId = UUID.randomUUID().toString();
+    this.localCacheWeigher =
+        options.getLocalCacheWeigher() != null
+            ? options.getLocalCacheWeigher()
+            : new SerializedSizeWeigher(redisTemplate.getValueSerializer());
+
+    LocalCacheProperties local = properties.getLocal();
+    if (local.isShared()) {
+      properties
+          .getCaches()
+          .forEach(
+              (name, cacheProperties) -> {
+                PerCacheLocalProperties localOverrides = cacheProperties.getLocal();
+                if (localOverrides.getMaxSize().isPresent()
+                    || localOverrides.getMaxWeight().isPresent()) {
+                  throw new IllegalStateException(
+                      "Properties 'spring.cache.multilevel.caches."
+                          + name
+                          + ".local.max-size' and '.local.max-weight' cannot be set when"
+                          + " 'local.shared' is enabled");
+                }
+              });
+    }
+    this.sharedLocalCache =
+        local.isShared()
+            ? new SharedLocalCache(
+                local.getMaxWeight().map(DataSize::toBytes).orElse((long) local.getMaxSize()))
+            : null;
+
+    // Threads are started on demand, so the pool costs nothing unless calls have latency budgets
+    this.callExecutor =
+        properties.getExecution().isVirtualThreads()
+            ? null
+            : RedisCallPolicy.newCallExecutor(
+                "multilevel-cache-redis-", properties.getRedisCalls().getCallThreads());
 
     this.availableCaches = new ConcurrentHashMap<>();
+    this.cacheListeners = new CopyOnWriteArrayList<>();
 
     this.requestedCacheNames.forEach(this::getCache);
   }
@@ -100,8 +176,24 @@ public class MultiLevelCacheManager implements CacheManager {
     return instanceId;
   }
 
+  @Nullable SharedLocalCache getSharedLocalCache() {
+    return sharedLocalCache;
+  }
+
   // Workarounds for tests
 
+  /**
+   * Registers a callback invoked for every cache of this manager, including already created ones.
+   *
+   * <p>Callback might be invoked more than once for the same cache.
+   *
+   * @param listener to invoke with each cache
+   */
+  void addCacheListener(@NonNull Consumer<MultiLevelCache> listener) {
+    cacheListeners.add(listener);
+    availableCaches.values().forEach(cache -> listener.accept((MultiLevelCache) cache));
+  }
+
   /**
    * Get or create the cache associated with the given name.
    *
@@ -115,19 +207,113 @@ public class MultiLevelCacheManager implements CacheManager {
       return null;
     }
 
-    return availableCaches.computeIfAbsent(
+    Cache cache = availableCaches.get(name);
+    if (cache != null) {
+      return cache;
+    }
+
+    // Listeners are notified once the cache is visible to avoid missing concurrent registrations
+    MultiLevelCache created =
+        (MultiLevelCache) availableCaches.computeIfAbsent(name, this::createCache);
+    cacheListeners.forEach(listener -> listener.accept(created));
+    return created;
+  }
+
+  /**
+   * @param name of the cache to create
+   * @return new cache
+   */
+  private MultiLevelCache createCache(@NonNull String name) {
+    MultiLevelCacheConfigurationProperties cacheProperties = properties.forCache(name);
+    RedisCacheWriter cacheWriter =
+        options.getCacheWriter() != null
+            ? options.getCacheWriter()
+            : options.getShards() != null
+                ? new ShardedRedisCacheWriter(options.getShards())
+                : RedisCacheWriter.nonLockingRedisCacheWriter(
+                    Objects.requireNonNull(
+                        redisTemplate.getConnectionFactory(),
+                        "Redis connection factory was not found for RedisCacheWriter"));
+    RandomizedLocalExpiry expiry = new RandomizedLocalExpiry(cacheProperties);
+
+    if (sharedLocalCache != null) {
+      // Bounds of single caches are rejected, so weights of all caches share one unit
+      Weigher<@NonNull Object, @NonNull Object> weigher =
+          localWeigher(name, cacheProperties.getLocal());
+      return new MultiLevelCache(
+          name,
+          cacheProperties,
+          cacheWriter,
+          redisTemplate,
+          null,
+          sharedLocalCache.entries(expiry, weigher != null ? weigher : (key, value) -> 1),
+          expiry,
+          circuitBreaker,
+          instanceId,
+          options,
+          callExecutor);
+    }
+
+    com.github.benmanes.caffeine.cache.Cache<@NonNull Object, Object> localCache =
+        localCache(name, cacheProperties, expiry);
+    return new MultiLevelCache(
         name,
-        key ->
-            new MultiLevelCache(
-                key,
-                properties,
-                redisTemplate,
-                Caffeine.newBuilder()
-                    .maximumSize(properties.getLocal().getMaxSize())
-                    .expireAfter(new RandomizedLocalExpiry(properties))
-                    .build(),
-                circuitBreaker,
-                instanceId));
+        cacheProperties,
+        cacheWriter,
+        redisTemplate,
+        localCache,
+        LocalEntries.of(localCache),
+        expiry,
+        circuitBreaker,
+        instanceId,
+        options,
+        callExecutor);
+  }
+
+  /**
+   * @param name of the cache
+   * @param cacheProperties properties with settings of the cache applied
+   * @param expiry of local entries
+   * @return local cache of its own bounded by weight, or by size if weight is not set
+   */
+  private com.github.benmanes.caffeine.cache.Cache<@NonNull Object, Object> localCache(
+      @NonNull String name,
+      @NonNull MultiLevelCacheConfigurationProperties cacheProperties,
+      @NonNull RandomizedLocalExpiry expiry) {
+    LocalCacheProperties local = cacheProperties.getLocal();
+    Weigher<@NonNull Object, @NonNull Object> weigher = localWeigher(name, local);
+    if (weigher == null) {
+      return Caffeine.newBuilder().maximumSize(local.getMaxSize()).expireAfter(expiry).build();
+    }
+
+    return Caffeine.newBuilder()
+        .maximumWeight(local.getMaxWeight().orElseThrow().toBytes())
+        .weigher(weigher)
+        .expireAfter(expiry)
+        .build();
+  }
+
+  /**
+   * @param name of the cache
+   * @param local settings of local cache
+   * @return weigher of local values in bytes, or {@code null} if local cache is bounded by size
+   */
+  private @Nullable Weigher<@NonNull Object, @NonNull Object> localWeigher(
+      @NonNull String name, @NonNull LocalCacheProperties local) {
+    if (local.getStorageMode() == LocalStorageMode.SERIALIZED) {
+      if (local.getMaxWeight().isEmpty()) {
+        throw new IllegalStateException(
+            "Property 'spring.cache.multilevel.local.max-weight' must be set when"
+                + " 'local.storage-mode' is 'serialized'");
+      }
+      return SerializedLocalValues::weigh;
+    }
+
+    if (local.getMaxWeight().isPresent()) {
+      return (key, value) -> localCacheWeigher.weigh(name, key, value);
+    }
+
+    return null;
   }
 
   /**
@@ -140,19 +326,39 @@ public class MultiLevelCacheManager implements CacheManager {
     return Collections.unmodifiableSet(availableCaches.keySet());
   }
 
+  /**
+   * Closes persistent tiers of caches, so that their entries are trusted after restart, and stops
+   * threads running Redis calls
+   */
+  @Override
+  public void destroy() {
+    availableCaches.values().forEach(cache -> ((MultiLevelCache) cache).close());
+    if (callExecutor != null) {
+      callExecutor.shutdown();
+    }
+  }
+
   /** Expiry policy enabling randomized expiry for local entities */
   static class RandomizedLocalExpiry implements Expiry<@NonNull Object, @NonNull Object> {
 
     private final Duration timeToLive;
     private final double expiryJitter;
+    private final int refreshAhead;
     private final LocalExpirationMode expirationMode;
+    private final long nullTimeToLive;
+    private final long seed;
 
     public RandomizedLocalExpiry(@NonNull MultiLevelCacheConfigurationProperties properties) {
       LocalCacheProperties localProperties = properties.getLocal();
       this.timeToLive = localProperties.getTimeToLive().orElse(properties.getTimeToLive());
       this.expiryJitter = localProperties.getExpiryJitter();
+      this.refreshAhead = localProperties.getRefreshAhead();
       this.expirationMode = localProperties.getExpirationMode();
 
+      NullValueProperties nullValues = properties.getNullValues();
+      this.nullTimeToLive = nullValues.isEnabled() ? nullValues.getTimeToLive().toNanos() : 0L;
+      this.seed = ThreadLocalRandom.current().nextLong();
+
       if (timeToLive.isNegative()) {
         throw new IllegalArgumentException("Time to live duration must be positive");
       }
@@ -168,10 +374,31 @@ public class MultiLevelCacheManager implements CacheManager {
       if (expiryJitter >= 100) {
         throw new IllegalArgumentException("Expiry jitter must not exceed 100 percents");
       }
+
+      if (refreshAhead < 0) {
+        throw new IllegalArgumentException("Refresh ahead must be positive");
+      }
+
+      if (refreshAhead >= 100) {
+        throw new IllegalArgumentException("Refresh ahead must not exceed 100 percents");
+      }
+
+      if (refreshAhead > 0 && expirationMode == LocalExpirationMode.AFTER_READ) {
+        throw new IllegalArgumentException(
+            "Refresh ahead cannot be enabled when reads extend local lifetime");
+      }
+
+      if (nullValues.isEnabled() && nullTimeToLive <= 0) {
+        throw new IllegalArgumentException("Null values time to live duration must be positive");
+      }
     }
 
     @Override
     public long expireAfterCreate(@NonNull Object key, @NonNull Object value, long currentTime) {
+      if (value instanceof NullValue) {
+        return nullTimeToLive;
+      }
+
       if (expirationMode == LocalExpirationMode.AFTER_CREATE) {
         return computeExpiration(key);
       } else {
@@ -186,6 +413,10 @@ public class MultiLevelCacheManager implements CacheManager {
         throw new IllegalArgumentException("Duration must be non-negative");
       }
 
+      if (value instanceof NullValue) {
+        return nullTimeToLive;
+      }
+
       if (expirationMode == LocalExpirationMode.AFTER_UPDATE) {
         return computeExpiration(key);
       } else {
@@ -200,6 +431,10 @@ public class MultiLevelCacheManager implements CacheManager {
         throw new IllegalArgumentException("Duration must be non-negative");
       }
 
+      if (value instanceof NullValue) {
+        return currentDuration;
+      }
+
       if (expirationMode == LocalExpirationMode.AFTER_READ) {
         return computeExpiration(key);
       } else {
@@ -207,6 +442,21 @@ public class MultiLevelCacheManager implements CacheManager {
       }
     }
 
+    /**
+     * Calculates remaining local lifetime of the entry below which it is refreshed from Redis in
+     * background:
+     *
+     * <pre>
+     * lifetime * (refresh-ahead / 100)
+     * </pre>
+     *
+     * @param key cache key
+     * @return refresh window in nanoseconds, {@code 0} if refresh ahead is disabled
+     */
+    long refreshWindow(@NonNull Object key) {
+      return (long) (lifetime(key) * (refreshAhead / 100d));
+    }
+
     /**
      * Calculates expiration for a given key using the documented jitter formula:
      *
@@ -214,22 +464,39 @@ public class MultiLevelCacheManager implements CacheManager {
      * (time-to-live / 2) * (1 ± ((expiry-jitter / 100) * RNG(0, 1)))
      * </pre>
      *
+     * @param key cache key
+     * @return expiration duration in nanoseconds
+     */
+    long computeExpiration(@NonNull Object key) {
+      long nanos = lifetime(key);
+      if (log.isTraceEnabled()) {
+        log.trace("Key {} will expire from local cache in {}", key, Duration.ofNanos(nanos));
+      }
+      return nanos;
+    }
+
+    /**
+     * Random number of the jitter formula is derived from the key and a random seed of this
+     * instance, so that lifetime of an entry is known later without storing it, while lifetimes
+     * still differ between keys and between instances.
+     *
      * <p>Floating-point math is used until the final conversion to nanoseconds so the jitter range
      * is respected and truncation does not collapse values to {@code time-to-live / 2}.
      *
-     * @param key cache key (only used for logging)
-     * @return expiration duration in nanoseconds
+     * @param key cache key
+     * @return local lifetime of the key in nanoseconds
      */
-    private long computeExpiration(@NonNull Object key) {
-      Random random = ThreadLocalRandom.current();
-      double jitterFraction = expiryJitter / 100d;
-      double jitter = jitterFraction * random.nextDouble();
-      double jitterSigned = random.nextBoolean() ? jitter : -jitter;
+    private long lifetime(@NonNull Object key) {
+      // Mixing function of SplittableRandom spreads similar hash codes over the whole range
+      long z = seed + key.hashCode() * 0x9e3779b97f4a7c15L;
+      z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+      z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+      z = z ^ (z >>> 31);
+      double random = (z >>> 11) * 0x1.0p-53;
+
+      double jitterSigned = (expiryJitter / 100d) * (2 * random - 1);
       double multiplier = 0.5d * Math.max(0d, 1 + jitterSigned);
-      long nanos = Math.max(1L, (long) (timeToLive.toNanos() * multiplier));
-      Duration expiry = Duration.ofNanos(nanos);
-      log.trace("Key {} will expire from local cache in {}", key, expiry);
-      return nanos;
+      return Math.max(1L, (long) (timeToLive.toNanos() * multiplier));
     }
   }
 }
@@ -0,0 +1,192 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Roman Khlebnov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.suppie.spring.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Metrics of multi-level cache: local tier statistics under the names of Caffeine cache metrics,
+ * off-heap tier, persistent tier and Bloom filter statistics if they are enabled.
+ *
+ * <p>Local tier statistics are those of the entries of the cache, even if local cache is shared by
+ * all caches.
+ */
+class MultiLevelCacheMetrics extends CacheMeterBinder<MultiLevelCache> {
+
+  private final MultiLevelCache cache;
+
+  /**
+   * @param cache to collect metrics for
+   * @param tags to add to metrics
+   */
+  MultiLevelCacheMetrics(@NonNull MultiLevelCache cache, Iterable<Tag> tags) {
+    super(cache, cache.getName(), tags);
+    this.cache = cache;
+  }
+
+  @Override
+  protected Long size() {
+    return cache.getLocalEntries().estimatedSize();
+  }
+
+  @Override
+  protected long hitCount() {
+    return cache.getLocalEntries().stats().hitCount();
+  }
+
+  @Override
+  protected Long missCount() {
+    return cache.getLocalEntries().stats().missCount();
+  }
+
+  @Override
+  protected Long evictionCount() {
+    return cache.getLocalEntries().stats().evictionCount();
+  }
+
+  @Override
+  protected long putCount() {
+    return cache.getLocalEntries().stats().loadCount();
+  }
+
+  @Override
+  protected void bindImplementationSpecificMetrics(@NonNull MeterRegistry registry) {
+    FunctionCounter.builder(
+            "cache.eviction.weight",
+            cache,
+            multiLevelCache -> multiLevelCache.getLocalEntries().stats().evictionWeight())
+        .tags(getTagsWithCacheName())
+        .description("The sum of weights of evicted entries, not including manual invalidations")
+        .register(registry);
+
+    bindOffHeapMetrics(registry);
+    bindPersistentMetrics(registry);
+
+    CacheKeyFilter keyFilter = cache.getKeyFilter();
+    if (keyFilter == null) {
+      return;
+    }
+
+    FunctionCounter.builder("cache.bloom.skipped", keyFilter, CacheKeyFilter::skippedCount)
+        .tags(getTagsWithCacheName())
+        .description("Redis lookups skipped because the key is known to be absent")
+        .register(registry);
+
+    FunctionCounter.builder(
+            "cache.bloom.false.positives", keyFilter, CacheKeyFilter::falsePositiveCount)
+        .tags(getTagsWithCacheName())
+        .description("Redis lookups allowed by the Bloom filter which turned out to be misses")
+        .register(registry);
+
+    Gauge.builder("cache.bloom.false.positive.rate", keyFilter, CacheKeyFilter::falsePositiveRate)
+        .tags(getTagsWithCacheName())
+        .description("Observed share of Redis lookups allowed by the Bloom filter which missed")
+        .register(registry);
+
+    Gauge.builder("cache.bloom.memory", keyFilter, CacheKeyFilter::memoryBytes)
+        .tags(getTagsWithCacheName())
+        .description("Memory occupied by the Bloom filter")
+        .baseUnit(BaseUnits.BYTES)
+        .register(registry);
+  }
+
+  /**
+   * @param registry to bind off-heap tier metrics to, if the tier is enabled
+   */
+  private void bindOffHeapMetrics(@NonNull MeterRegistry registry) {
+    OffHeapStore offHeapStore = cache.getOffHeapStore();
+    if (offHeapStore == null) {
+      return;
+    }
+
+    FunctionCounter.builder("cache.offheap.gets", offHeapStore, OffHeapStore::hitCount)
+        .tags(getTagsWithCacheName())
+        .tag("result", "hit")
+        .description("Local cache misses served by the off-heap tier")
+        .register(registry);
+
+    FunctionCounter.builder("cache.offheap.gets", offHeapStore, OffHeapStore::missCount)
+        .tags(getTagsWithCacheName())
+        .tag("result", "miss")
+        .description("Local cache misses not found in the off-heap tier")
+        .register(registry);
+
+    Gauge.builder("cache.offheap.size", offHeapStore, OffHeapStore::size)
+        .tags(getTagsWithCacheName())
+        .description("Number of entries in the off-heap tier")
+        .register(registry);
+
+    Gauge.builder("cache.offheap.memory.used", offHeapStore, OffHeapStore::usedBytes)
+        .tags(getTagsWithCacheName())
+        .description("Direct memory occupied by entries of the off-heap tier")
+        .baseUnit(BaseUnits.BYTES)
+        .register(registry);
+
+    Gauge.builder("cache.offheap.memory.allocated", offHeapStore, OffHeapStore::allocatedBytes)
+        .tags(getTagsWithCacheName())
+        .description("Direct memory allocated by the off-heap tier")
+        .baseUnit(BaseUnits.BYTES)
+        .register(registry);
+  }
+
+  /**
+   * @param registry to bind persistent tier metrics to, if the tier is enabled
+   */
+  private void bindPersistentMetrics(@NonNull MeterRegistry registry) {
+    PersistentStore persistentStore = cache.getPersistentStore();
+    if (persistentStore == null) {
+      return;
+    }
+
+    FunctionCounter.builder("cache.persistent.gets", persistentStore, PersistentStore::hitCount)
+        .tags(getTagsWithCacheName())
+        .tag("result", "hit")
+        .description("Local cache misses served by the persistent tier")
+        .register(registry);
+
+    FunctionCounter.builder("cache.persistent.gets", persistentStore, PersistentStore::missCount)
+        .tags(getTagsWithCacheName())
+        .tag("result", "miss")
+        .description("Local cache misses not found in the persistent tier")
+        .register(registry);
+
+    Gauge.builder("cache.persistent.size", persistentStore, PersistentStore::size)
+        .tags(getTagsWithCacheName())
+        .description("Number of entries in the persistent tier")
+        .register(registry);
+
+    Gauge.builder("cache.persistent.file.used", persistentStore, PersistentStore::usedBytes)
+        .tags(getTagsWithCacheName())
+        .description("File space occupied by records of the persistent tier")
+        .baseUnit(BaseUnits.BYTES)
+        .register(registry);
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Roman Khlebnov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.suppie.spring.cache;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import lombok.Builder;
+import lombok.Getter;
+import org.jspecify.annotations.Nullable;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+/**
+ * Optional collaborators of multi-level caches and their manager, defaults apply to those which are
+ * not set.
+ *
+ * <pre>{@code
+ * MultiLevelCacheOptions.builder()
+ *     .executor(executor)
+ *     .readConnectionFactory(readConnectionFactory)
+ *     .build();
+ * }</pre>
+ */
+@Getter
+@Builder
+public class MultiLevelCacheOptions {
+
+  /** Executor running Redis calls outside of the calling thread, common pool if not set */
+  @Builder.Default private final Executor executor = ForkJoinPool.commonPool();
+
+  /** Connection factory reading cache entries from replicas, reads go to master if not set */
+  private final @Nullable RedisConnectionFactory readConnectionFactory;
+
+  /** Redis shards storing cache entries instead of Redis template, not sharded if not set */
+  private final @Nullable RedisShards shards;
+
+  /**
+   * Estimator of local cache value weights, used by cache manager only, values are weighed by
+   * their serialized size if not set
+   */
+  private final @Nullable LocalCacheWeigher localCacheWeigher;
+
+  /**
+   * Writer storing cache entries, used by cache manager only instead of shards and Redis template,
+   * not locking writer over connection factory of Redis template if not set
+   */
+  private final @Nullable RedisCacheWriter cacheWriter;
+}
@@ -0,0 +1,197 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Roman Khlebnov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.suppie.spring.cache;
+
+import io.github.suppie.spring.cache.MultiLevelCacheConfigurationProperties.WarmupProperties;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import org.springframework.cache.Cache;
+import org.springframework.context.SmartLifecycle;
+
+/**
+ * Warms local caches up with their hot keys on startup and records the hottest keys of local
+ * caches periodically and on shutdown.
+ *
+ * <p>Warmup happens while the application context starts, so the application reports readiness
+ * after it. Keys are fetched from Redis in parallel batches until all of them are fetched or the
+ * time budget runs out, whatever comes first.
+ */
+@Slf4j
+public class MultiLevelCacheWarmer implements SmartLifecycle {
+
+  private final WarmupProperties properties;
+  private final MultiLevelCacheManager cacheManager;
+  private final HotKeyManifest manifest;
+  private final Executor executor;
+
+  private volatile ScheduledExecutorService scheduler;
+  private volatile boolean running;
+
+  /**
+   * Creates a warmer for caches of the given manager.
+   *
+   * @param properties of warmup
+   * @param cacheManager to warm caches of
+   * @param manifest to record hot keys in
+   * @param executor to fetch batches of keys on
+   */
+  public MultiLevelCacheWarmer(
+      @NonNull WarmupProperties properties,
+      @NonNull MultiLevelCacheManager cacheManager,
+      @NonNull HotKeyManifest manifest,
+      @NonNull Executor executor) {
+    if (properties.getMaxKeys() <= 0) {
+      throw new IllegalArgumentException("Warmup max keys must be positive");
+    }
+
+    if (properties.getBatchSize() <= 0) {
+      throw new IllegalArgumentException("Warmup batch size must be positive");
+    }
+
+    if (properties.getInterval().isNegative() || properties.getInterval().isZero()) {
+      throw new IllegalArgumentException("Warmup interval must be positive");
+    }
+
+    this.properties = properties;
+    this.cacheManager = cacheManager;
+    this.manifest = manifest;
+    this.executor = executor;
+  }
+
+  @Override
+  public void start() {
+    warmUp();
+
+    long interval = properties.getInterval().toMillis();
+    scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "multilevel-cache-warmup");
+              thread.setDaemon(true);
+              return thread;
+            });
+    scheduler.scheduleWithFixedDelay(this::record, interval, interval, TimeUnit.MILLISECONDS);
+    running = true;
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+
+    ScheduledExecutorService current = scheduler;
+    scheduler = null;
+
+    if (current != null) {
+      current.shutdownNow();
+    }
+
+    // Keys of this run are the best guess for the next one
+    record();
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  /** Fetches recorded keys of all known caches from Redis within time budget */
+  void warmUp() {
+    long startedAt = System.nanoTime();
+    long deadline = startedAt + properties.getTimeBudget().toNanos();
+    AtomicInteger loaded = new AtomicInteger();
+    List<CompletableFuture<Void>> batches = new ArrayList<>();
+
+    try {
+      Set<String> cacheNames = new LinkedHashSet<>(cacheManager.getCacheNames());
+      cacheNames.addAll(manifest.cacheNames());
+
+      for (String cacheName : cacheNames) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (!(cache instanceof MultiLevelCache multiLevelCache)) {
+          continue;
+        }
+
+        List<String> keys = manifest.read(cacheName, properties.getMaxKeys());
+        for (int from = 0; from < keys.size(); from += properties.getBatchSize()) {
+          List<String> batch =
+              keys.subList(from, Math.min(from + properties.getBatchSize(), keys.size()));
+          batches.add(
+              CompletableFuture.runAsync(
+                  () -> {
+                    // Batches which did not start in time are skipped
+                    if (System.nanoTime() - deadline < 0) {
+                      loaded.addAndGet(multiLevelCache.warm(batch));
+                    }
+                  },
+                  executor));
+        }
+      }
+
+      CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new))
+          .get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      log.info("Cache warmup ran out of time budget of {}", properties.getTimeBudget());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException | RuntimeException e) {
+      log.warn("Cache warmup failed", e);
+    }
+
+    log.info(
+        "Warmed caches up with {} entries in {} ms",
+        loaded.get(),
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+  }
+
+  /** Records the hottest keys of every cache */
+  void record() {
+    for (String cacheName : cacheManager.getCacheNames()) {
+      if (!(cacheManager.getCache(cacheName) instanceof MultiLevelCache cache)) {
+        continue;
+      }
+
+      try {
+        List<String> keys = cache.hottestKeys(properties.getMaxKeys());
+        if (!keys.isEmpty()) {
+          manifest.write(cacheName, keys);
+        }
+      } catch (RuntimeException e) {
+        log.debug("Hot keys of cache '{}' were not recorded", cacheName, e);
+      }
+    }
+  }
+}
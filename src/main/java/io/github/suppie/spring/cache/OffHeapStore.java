@@ -0,0 +1,358 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Roman Khlebnov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.suppie.spring.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Stores serialized values outside of Java heap, in direct {@link ByteBuffer} slabs.
+ *
+ * <p>Keys are spread between segments guarded by their own locks. Every segment allocates slabs
+ * lazily up to its share of capacity and splits them into fixed-size blocks, so a value occupies
+ * as many blocks as needed to hold its bytes, possibly from different slabs. Once segment runs out
+ * of blocks, entries are evicted with CLOCK algorithm: the hand skips entries read since it passed
+ * them last time and evicts the first entry which was not read or has expired.
+ *
+ * <p>Direct memory is returned to the operating system once slabs are garbage collected, which
+ * happens after {@link #clear()} or when the store itself is no longer referenced.
+ */
+final class OffHeapStore implements LocalTier {
+
+  private final Segment[] segments;
+  private final LongAdder hits;
+  private final LongAdder misses;
+
+  /**
+   * @param capacity maximum amount of direct memory to allocate
+   * @param slabSize amount of direct memory allocated at once
+   * @param blockSize allocation unit of values
+   * @param segmentCount amount of independently locked segments
+   */
+  OffHeapStore(
+      @NonNull DataSize capacity,
+      @NonNull DataSize slabSize,
+      @NonNull DataSize blockSize,
+      int segmentCount) {
+    if (segmentCount <= 0) {
+      throw new IllegalArgumentException("Off-heap segments must be positive");
+    }
+
+    if (blockSize.toBytes() <= 0) {
+      throw new IllegalArgumentException("Off-heap block size must be positive");
+    }
+
+    if (slabSize.toBytes() < blockSize.toBytes() || slabSize.toBytes() > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Off-heap slab size must be between block size and 2GB");
+    }
+
+    long slabs = capacity.toBytes() / segmentCount / slabSize.toBytes();
+    if (slabs <= 0) {
+      throw new IllegalArgumentException("Off-heap capacity must fit a slab for every segment");
+    }
+
+    int block = (int) blockSize.toBytes();
+    int blocksPerSlab = (int) (slabSize.toBytes() / block);
+    int maxSlabs = (int) Math.min(slabs, Integer.MAX_VALUE / blocksPerSlab);
+
+    this.segments = new Segment[segmentCount];
+    for (int i = 0; i < segmentCount; i++) {
+      segments[i] = new Segment(block, blocksPerSlab, maxSlabs);
+    }
+    this.hits = new LongAdder();
+    this.misses = new LongAdder();
+  }
+
+  @Override
+  public byte @Nullable [] get(@NonNull String key) {
+    byte[] value = segmentFor(key).get(key, System.nanoTime());
+    (value == null ? misses : hits).increment();
+    return value;
+  }
+
+  /**
+   * Stores the value, evicting other entries if needed. Values larger than a segment are not
+   * stored and replace previous value with nothing.
+   *
+   * @param key to associate the value with
+   * @param value to copy into direct memory
+   * @param timeToLive of the entry in nanoseconds
+   * @return {@code true} if the value was stored
+   */
+  @Override
+  public boolean put(@NonNull String key, byte @NonNull [] value, long timeToLive) {
+    long now = System.nanoTime();
+    long expiresAt = now + timeToLive < now ? Long.MAX_VALUE : now + timeToLive;
+    return segmentFor(key).put(key, value, expiresAt, now);
+  }
+
+  @Override
+  public void remove(@NonNull String key) {
+    segmentFor(key).remove(key);
+  }
+
+  /** Removes all entries and releases all slabs */
+  @Override
+  public void clear() {
+    for (Segment segment : segments) {
+      segment.clear();
+    }
+  }
+
+  @Override
+  public long size() {
+    long size = 0;
+    for (Segment segment : segments) {
+      size += segment.size();
+    }
+    return size;
+  }
+
+  /**
+   * @return amount of direct memory occupied by entries
+   */
+  long usedBytes() {
+    long bytes = 0;
+    for (Segment segment : segments) {
+      bytes += segment.usedBytes();
+    }
+    return bytes;
+  }
+
+  /**
+   * @return amount of direct memory allocated for slabs
+   */
+  long allocatedBytes() {
+    long bytes = 0;
+    for (Segment segment : segments) {
+      bytes += segment.allocatedBytes();
+    }
+    return bytes;
+  }
+
+  long hitCount() {
+    return hits.sum();
+  }
+
+  long missCount() {
+    return misses.sum();
+  }
+
+  /**
+   * @param key to find segment for
+   * @return segment owning the key
+   */
+  private Segment segmentFor(@NonNull String key) {
+    int hash = key.hashCode();
+    return segments[Math.floorMod(hash ^ (hash >>> 16), segments.length)];
+  }
+
+  /** Part of the store with its own slabs, entries and CLOCK hand */
+  private static final class Segment {
+
+    private final int blockSize;
+    private final int blocksPerSlab;
+    private final int maxSlabs;
+
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final List<Entry> clock = new ArrayList<>();
+    private int hand;
+
+    private int[] freeBlocks = new int[0];
+    private int freeCount;
+
+    Segment(int blockSize, int blocksPerSlab, int maxSlabs) {
+      this.blockSize = blockSize;
+      this.blocksPerSlab = blocksPerSlab;
+      this.maxSlabs = maxSlabs;
+    }
+
+    synchronized byte @Nullable [] get(@NonNull String key, long now) {
+      Entry entry = entries.get(key);
+      if (entry == null) {
+        return null;
+      }
+
+      if (now - entry.expiresAt >= 0) {
+        release(entry);
+        return null;
+      }
+
+      entry.referenced = true;
+
+      byte[] value = new byte[entry.length];
+      int copied = 0;
+      for (int block : entry.blocks) {
+        int length = Math.min(blockSize, entry.length - copied);
+        slabOf(block).get(offsetOf(block), value, copied, length);
+        copied += length;
+      }
+      return value;
+    }
+
+    synchronized boolean put(
+        @NonNull String key, byte @NonNull [] value, long expiresAt, long now) {
+      Entry previous = entries.get(key);
+      if (previous != null) {
+        release(previous);
+      }
+
+      long needed = ((long) value.length + blockSize - 1) / blockSize;
+      if (needed > (long) maxSlabs * blocksPerSlab) {
+        return false;
+      }
+
+      while (freeCount < needed) {
+        if (slabs.size() < maxSlabs) {
+          addSlab();
+        } else {
+          evict(now);
+        }
+      }
+
+      int[] blocks = Arrays.copyOfRange(freeBlocks, freeCount - (int) needed, freeCount);
+      freeCount -= (int) needed;
+
+      int copied = 0;
+      for (int block : blocks) {
+        int length = Math.min(blockSize, value.length - copied);
+        slabOf(block).put(offsetOf(block), value, copied, length);
+        copied += length;
+      }
+
+      Entry entry = new Entry(key, blocks, value.length, expiresAt, clock.size());
+      entries.put(key, entry);
+      clock.add(entry);
+      return true;
+    }
+
+    synchronized void remove(@NonNull String key) {
+      Entry entry = entries.get(key);
+      if (entry != null) {
+        release(entry);
+      }
+    }
+
+    synchronized void clear() {
+      entries.clear();
+      clock.clear();
+      slabs.clear();
+      hand = 0;
+      freeBlocks = new int[0];
+      freeCount = 0;
+    }
+
+    synchronized int size() {
+      return entries.size();
+    }
+
+    synchronized long usedBytes() {
+      return ((long) slabs.size() * blocksPerSlab - freeCount) * blockSize;
+    }
+
+    synchronized long allocatedBytes() {
+      return (long) slabs.size() * blocksPerSlab * blockSize;
+    }
+
+    /** Moves CLOCK hand until an entry is evicted, segment must have at least one entry */
+    private void evict(long now) {
+      while (true) {
+        if (hand >= clock.size()) {
+          hand = 0;
+        }
+
+        Entry entry = clock.get(hand);
+        if (entry.referenced && now - entry.expiresAt < 0) {
+          entry.referenced = false;
+          hand++;
+        } else {
+          // Last entry takes place of the released one, so the hand stays to check it next time
+          release(entry);
+          return;
+        }
+      }
+    }
+
+    private void release(@NonNull Entry entry) {
+      entries.remove(entry.key);
+
+      Entry last = clock.remove(clock.size() - 1);
+      if (last != entry) {
+        clock.set(entry.position, last);
+        last.position = entry.position;
+      }
+
+      for (int block : entry.blocks) {
+        freeBlocks[freeCount++] = block;
+      }
+    }
+
+    private void addSlab() {
+      int first = slabs.size() * blocksPerSlab;
+      slabs.add(ByteBuffer.allocateDirect(blocksPerSlab * blockSize));
+
+      freeBlocks = Arrays.copyOf(freeBlocks, first + blocksPerSlab);
+      for (int block = first + blocksPerSlab - 1; block >= first; block--) {
+        freeBlocks[freeCount++] = block;
+      }
+    }
+
+    private ByteBuffer slabOf(int block) {
+      return slabs.get(block / blocksPerSlab);
+    }
+
+    private int offsetOf(int block) {
+      return (block % blocksPerSlab) * blockSize;
+    }
+  }
+
+  /** Stored value located in blocks of segment slabs */
+  private static final class Entry {
+
+    private final String key;
+    private final int[] blocks;
+    private final int length;
+    private final long expiresAt;
+    private int position;
+    private boolean referenced;
+
+    Entry(@NonNull String key, int @NonNull [] blocks, int length, long expiresAt, int position) {
+      this.key = key;
+      this.blocks = blocks;
+      this.length = length;
+      this.expiresAt = expiresAt;
+      this.position = position;
+    }
+  }
+}
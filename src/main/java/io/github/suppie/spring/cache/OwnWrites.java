@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Roman Khlebnov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.suppie.spring.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Writes of this instance to Redis keys reported by Redis through {@code CLIENT TRACKING}, so that
+ * invalidations pushed about them do not drop local entries just written.
+ *
+ * <p>Redis pushes one invalidation per change of a tracked key, in the order of changes, so one
+ * push is skipped per own write. If another client changed the key right before, its push is
+ * skipped instead, which is safe because the own value is newer, and the push of the own write
+ * drops the local entry later. Writes are forgotten once the window passes, in case their push
+ * never came.
+ */
+final class OwnWrites {
+
+  private final Cache<@NonNull String, Integer> pending;
+
+  /**
+   * @param maxSize of remembered keys, writes of other keys are not skipped
+   * @param window to wait for the push of a write in
+   */
+  OwnWrites(long maxSize, @NonNull Duration window) {
+    this.pending = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(window).build();
+  }
+
+  /**
+   * @param localKey converted key about to be written to Redis
+   */
+  void record(@NonNull String localKey) {
+    pending.asMap().merge(localKey, 1, Integer::sum);
+  }
+
+  /**
+   * Consumes a write pushed by Redis, or a write which did not reach Redis.
+   *
+   * @param localKey converted key changed in Redis
+   * @return {@code true} if this instance wrote the key and the push is expected
+   */
+  boolean take(@NonNull String localKey) {
+    boolean[] taken = new boolean[1];
+    pending
+        .asMap()
+        .computeIfPresent(
+            localKey,
+            (key, count) -> {
+              taken[0] = true;
+              return count > 1 ? count - 1 : null;
+            });
+    return taken[0];
+  }
+
+  /**
+   * @param localKey converted key written to Redis
+   * @return {@code true} if push of a write is still expected
+   */
+  boolean isPending(@NonNull String localKey) {
+    return pending.getIfPresent(localKey) != null;
+  }
+
+  /** Forgets all writes, pushes might have been lost while tracking connection was down */
+  void clear() {
+    pending.invalidateAll();
+  }
+}
@@ -0,0 +1,463 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Roman Khlebnov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.suppie.spring.cache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Stores serialized values in a memory-mapped append-only file per cache, so that values and their
+ * remaining lifetimes survive restarts.
+ *
+ * <p>File starts with a header holding the end of written records and the last time the store was
+ * known to be in sync with evictions. Every put appends a record with key, value and expiration
+ * time, every removal appends a tombstone, and the index of live records is rebuilt by reading the
+ * file on startup. Once the file is full, live records are compacted towards its start, keeping
+ * the most recently written ones up to half of the file.
+ *
+ * <p>Loaded entries are not served until {@link #reconcile(Set)} drops entries changed while the
+ * store was closed.
+ *
+ * <p>Reads share a lock, so that they do not wait for each other, and neither pin virtual threads.
+ */
+@Slf4j
+final class PersistentStore implements LocalTier {
+
+  private static final int MAGIC = 0x4D4C4331;
+
+  // Magic, end of records and sync time
+  private static final int HEADER_SIZE = 16;
+  private static final int END_OFFSET = 4;
+  private static final int SYNCED_AT_OFFSET = 8;
+
+  // Key length, value length and expiration time
+  private static final int RECORD_HEADER_SIZE = 16;
+  private static final int TOMBSTONE = -1;
+
+  private final Path file;
+  private final FileChannel channel;
+  private final FileLock lock;
+  private final MappedByteBuffer buffer;
+  private final int capacity;
+  private final Map<String, Entry> index;
+  private final long syncedAt;
+  private final LongAdder hits;
+  private final LongAdder misses;
+  private final ReadWriteLock indexLock;
+
+  private int end;
+  private volatile boolean reconciled;
+
+  /**
+   * @param directory to keep files of caches in
+   * @param cacheName to name the file after
+   * @param capacity of the file
+   * @throws UncheckedIOException if the file cannot be opened
+   * @throws IllegalStateException if the file is used by another process
+   */
+  PersistentStore(@NonNull Path directory, @NonNull String cacheName, @NonNull DataSize capacity) {
+    if (capacity.toBytes() < 1024 || capacity.toBytes() > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Persistent tier capacity must be between 1KB and 2GB");
+    }
+
+    this.file = directory.resolve(URLEncoder.encode(cacheName, StandardCharsets.UTF_8) + ".cache");
+    this.capacity = (int) capacity.toBytes();
+    this.index = new HashMap<>();
+    this.hits = new LongAdder();
+    this.misses = new LongAdder();
+    this.indexLock = new ReentrantReadWriteLock();
+
+    try {
+      Files.createDirectories(directory);
+      this.channel =
+          FileChannel.open(
+              file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      this.lock = tryLock(channel);
+      if (lock == null) {
+        channel.close();
+        throw new IllegalStateException(
+            "Persistent tier file " + file + " is used by another process");
+      }
+      this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, this.capacity);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Persistent tier file " + file + " cannot be opened", e);
+    }
+
+    this.syncedAt = load();
+    log.debug("Loaded {} entries of persistent tier file {}", index.size(), file);
+  }
+
+  /**
+   * @param channel of the file
+   * @return exclusive lock of the file, or {@code null} if it is held by another process or store
+   * @throws IOException if the file cannot be locked
+   */
+  private static @Nullable FileLock tryLock(@NonNull FileChannel channel) throws IOException {
+    try {
+      return channel.tryLock();
+    } catch (OverlappingFileLockException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Rebuilds index from the file, starting with an empty file if it is not recognized.
+   *
+   * @return last time the file was known to be in sync with evictions, {@code 0} if unknown
+   */
+  private long load() {
+    if (buffer.getInt(0) != MAGIC) {
+      reset();
+      return 0L;
+    }
+
+    int recordedEnd = buffer.getInt(END_OFFSET);
+    long lastSync = buffer.getLong(SYNCED_AT_OFFSET);
+    long now = System.currentTimeMillis();
+
+    int position = HEADER_SIZE;
+    while (position + RECORD_HEADER_SIZE <= Math.min(recordedEnd, capacity)) {
+      int keyLength = buffer.getInt(position);
+      int valueLength = buffer.getInt(position + 4);
+      long expiresAt = buffer.getLong(position + 8);
+      long size = (long) RECORD_HEADER_SIZE + keyLength + Math.max(valueLength, 0);
+      if (keyLength < 0 || valueLength < TOMBSTONE || position + size > recordedEnd) {
+        // Record was not fully written
+        break;
+      }
+
+      byte[] key = new byte[keyLength];
+      buffer.get(position + RECORD_HEADER_SIZE, key);
+      String stringKey = new String(key, StandardCharsets.UTF_8);
+      if (valueLength == TOMBSTONE || expiresAt <= now) {
+        index.remove(stringKey);
+      } else {
+        index.put(stringKey, new Entry(position, keyLength, valueLength, expiresAt));
+      }
+
+      position += (int) size;
+    }
+
+    end = position;
+    writeHeader(lastSync);
+    return lastSync;
+  }
+
+  /**
+   * @return last time the store was known to be in sync with evictions before it was opened, in
+   *     epoch milliseconds, {@code 0} if unknown
+   */
+  long getSyncedAt() {
+    return syncedAt;
+  }
+
+  /**
+   * @return {@code true} once loaded entries can be served
+   */
+  boolean isReconciled() {
+    return reconciled;
+  }
+
+  /**
+   * Drops loaded entries changed while the store was closed and starts serving the rest.
+   *
+   * @param changedKeys keys changed since {@link #getSyncedAt()}, {@code null} drops all entries
+   */
+  void reconcile(@Nullable Set<String> changedKeys) {
+    indexLock.writeLock().lock();
+    try {
+      if (changedKeys == null) {
+        clear();
+      } else {
+        changedKeys.forEach(this::remove);
+      }
+
+      reconciled = true;
+    } finally {
+      indexLock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public byte @Nullable [] get(@NonNull String key) {
+    Entry expired = null;
+    indexLock.readLock().lock();
+    try {
+      Entry entry = reconciled ? index.get(key) : null;
+      if (entry != null && entry.expiresAt() > System.currentTimeMillis()) {
+        byte[] value = new byte[entry.valueLength()];
+        buffer.get(entry.valueOffset(), value);
+        hits.increment();
+        return value;
+      }
+      expired = entry;
+    } finally {
+      indexLock.readLock().unlock();
+    }
+
+    if (expired != null) {
+      // Expired record stays expired after restart, so no tombstone is needed
+      indexLock.writeLock().lock();
+      try {
+        index.remove(key, expired);
+      } finally {
+        indexLock.writeLock().unlock();
+      }
+    }
+
+    misses.increment();
+    return null;
+  }
+
+  @Override
+  public boolean put(@NonNull String key, byte @NonNull [] value, long timeToLive) {
+    long expiresAt = System.currentTimeMillis() + TimeUnit.NANOSECONDS.toMillis(timeToLive);
+    byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+
+    indexLock.writeLock().lock();
+    try {
+      if ((long) RECORD_HEADER_SIZE + keyBytes.length + value.length > capacity - HEADER_SIZE) {
+        remove(key);
+        return false;
+      }
+
+      index.put(key, append(keyBytes, value, value.length, expiresAt));
+      return true;
+    } finally {
+      indexLock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void remove(@NonNull String key) {
+    indexLock.writeLock().lock();
+    try {
+      if (index.remove(key) != null) {
+        append(key.getBytes(StandardCharsets.UTF_8), null, TOMBSTONE, 0L);
+      }
+    } finally {
+      indexLock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    indexLock.writeLock().lock();
+    try {
+      index.clear();
+      reset();
+    } finally {
+      indexLock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public long size() {
+    indexLock.readLock().lock();
+    try {
+      return index.size();
+    } finally {
+      indexLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @return amount of file bytes occupied by records, including replaced ones
+   */
+  long usedBytes() {
+    indexLock.readLock().lock();
+    try {
+      return (long) end - HEADER_SIZE;
+    } finally {
+      indexLock.readLock().unlock();
+    }
+  }
+
+  long hitCount() {
+    return hits.sum();
+  }
+
+  long missCount() {
+    return misses.sum();
+  }
+
+  /** Records sync time and flushes the file to disk */
+  void close() {
+    indexLock.writeLock().lock();
+    try {
+      if (!channel.isOpen()) {
+        return;
+      }
+
+      writeHeader(syncTime());
+      buffer.force();
+      lock.release();
+      channel.close();
+    } catch (IOException e) {
+      log.warn("Persistent tier file {} was not closed properly", file, e);
+    } finally {
+      indexLock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Appends a record, compacting the file if it is full.
+   *
+   * @return entry of the appended record
+   */
+  private Entry append(byte @NonNull [] key, byte @Nullable [] value, int valueLength, long time) {
+    int size = RECORD_HEADER_SIZE + key.length + Math.max(valueLength, 0);
+    if (end + size > capacity) {
+      compact();
+    }
+    if (end + size > capacity) {
+      index.clear();
+      reset();
+    }
+
+    int position = end;
+    buffer.putInt(position, key.length);
+    buffer.putInt(position + 4, valueLength);
+    buffer.putLong(position + 8, time);
+    buffer.put(position + RECORD_HEADER_SIZE, key);
+    if (value != null) {
+      buffer.put(position + RECORD_HEADER_SIZE + key.length, value);
+    }
+
+    // Record becomes visible after restart only once it is fully written
+    end = position + size;
+    writeHeader(syncTime());
+    return new Entry(position, key.length, valueLength, time);
+  }
+
+  /**
+   * Moves live records towards the start of the file, dropping expired records and the oldest
+   * ones which do not fit into half of the file.
+   */
+  private void compact() {
+    long now = System.currentTimeMillis();
+    index.values().removeIf(entry -> entry.expiresAt() <= now);
+
+    List<Map.Entry<String, Entry>> live = new ArrayList<>(index.entrySet());
+    live.sort(Comparator.comparingInt(liveEntry -> -liveEntry.getValue().offset()));
+
+    int budget = (capacity - HEADER_SIZE) / 2;
+    List<Map.Entry<String, Entry>> kept = new ArrayList<>();
+    for (Map.Entry<String, Entry> liveEntry : live) {
+      budget -= liveEntry.getValue().size();
+      if (budget < 0) {
+        index.remove(liveEntry.getKey());
+      } else {
+        kept.add(liveEntry);
+      }
+    }
+
+    // File is empty after restart if compaction is interrupted
+    end = HEADER_SIZE;
+    writeHeader(syncTime());
+
+    int position = HEADER_SIZE;
+    for (int i = kept.size() - 1; i >= 0; i--) {
+      Entry entry = kept.get(i).getValue();
+      byte[] record = new byte[entry.size()];
+      buffer.get(entry.offset(), record);
+      buffer.put(position, record);
+
+      kept.get(i)
+          .setValue(
+              new Entry(position, entry.keyLength(), entry.valueLength(), entry.expiresAt()));
+      position += record.length;
+    }
+
+    end = position;
+    writeHeader(syncTime());
+    log.debug("Compacted persistent tier file {} to {} entries", file, index.size());
+  }
+
+  /** Empties the file */
+  private void reset() {
+    buffer.putInt(0, MAGIC);
+    end = HEADER_SIZE;
+    writeHeader(syncTime());
+  }
+
+  /**
+   * Loaded entries might miss evictions until they are reconciled, so sync time does not move
+   * until then.
+   *
+   * @return time to record as the last time the file was in sync with evictions
+   */
+  private long syncTime() {
+    return reconciled ? System.currentTimeMillis() : syncedAt;
+  }
+
+  /**
+   * @param syncTime to record as the last time the file was in sync with evictions
+   */
+  private void writeHeader(long syncTime) {
+    buffer.putInt(END_OFFSET, end);
+    buffer.putLong(SYNCED_AT_OFFSET, syncTime);
+  }
+
+  /**
+   * @param offset of the record in the file
+   * @param keyLength of the record
+   * @param valueLength of the record, {@link #TOMBSTONE} for removals
+   * @param expiresAt epoch milliseconds
+   */
+  private record Entry(int offset, int keyLength, int valueLength, long expiresAt) {
+
+    int valueOffset() {
+      return offset + RECORD_HEADER_SIZE + keyLength;
+    }
+
+    int size() {
+      return RECORD_HEADER_SIZE + keyLength + Math.max(valueLength, 0);
+    }
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Roman Khlebnov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.suppie.spring.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.suppie.spring.cache.MultiLevelCacheConfigurationProperties.ReadRoutingProperties;
+import java.time.Duration;
+import java.util.Collection;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+
+/**
+ * Routes Redis reads of a single cache to the connection factory reading from replicas.
+ *
+ * <p>With {@link ReadRoutingMode#MASTER} only hedged reads go to replicas, other reads stay on
+ * master.
+ *
+ * <p>Keys changed within the read-your-writes window, either by this instance or by others as
+ * reported by invalidations, are still read from master so that replication lag does not bring
+ * stale values back to local cache.
+ */
+final class ReadRouting {
+
+  private final RedisConnectionFactory connectionFactory;
+  private final RedisCacheWriter cacheWriter;
+  private final boolean routingReads;
+  private final long windowNanos;
+  private final Cache<@NonNull String, Boolean> recentChanges;
+  private volatile long clearedAt;
+
+  /**
+   * @param connectionFactory reading from replicas
+   * @param properties of read routing
+   * @param maxSize of recently changed keys to remember
+   */
+  ReadRouting(
+      @NonNull RedisConnectionFactory connectionFactory,
+      @NonNull ReadRoutingProperties properties,
+      long maxSize) {
+    Duration window = properties.getReadYourWritesWindow();
+
+    if (window.isNegative()) {
+      throw new IllegalArgumentException("Read your writes window must be positive");
+    }
+
+    this.connectionFactory = connectionFactory;
+    this.cacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory);
+    this.routingReads = properties.getMode() != ReadRoutingMode.MASTER;
+    this.windowNanos = window.toNanos();
+    this.recentChanges =
+        Caffeine.newBuilder().expireAfterWrite(window).maximumSize(maxSize).build();
+    this.clearedAt = System.nanoTime() - windowNanos;
+  }
+
+  /**
+   * @return cache writer reading from replicas
+   */
+  RedisCacheWriter getCacheWriter() {
+    return cacheWriter;
+  }
+
+  /**
+   * @return {@code true} if reads go to replicas, otherwise only hedged reads do
+   */
+  boolean isRoutingReads() {
+    return routingReads;
+  }
+
+  /**
+   * @param callback to execute on a connection reading from replicas
+   * @return callback result
+   */
+  <T> @Nullable T execute(@NonNull RedisCallback<T> callback) {
+    try (RedisConnection connection = connectionFactory.getConnection()) {
+      return callback.doInRedis(connection);
+    }
+  }
+
+  /**
+   * @param localKey converted key changed in Redis, {@code null} if the whole cache was cleared
+   */
+  void recordChange(@Nullable String localKey) {
+    if (windowNanos == 0L) {
+      return;
+    }
+
+    if (localKey == null) {
+      clearedAt = System.nanoTime();
+      recentChanges.invalidateAll();
+    } else {
+      recentChanges.put(localKey, Boolean.TRUE);
+    }
+  }
+
+  /**
+   * @param localKey converted key to read
+   * @return {@code true} if key can be read from replicas
+   */
+  boolean readsFromReplicas(@NonNull String localKey) {
+    return !recentlyCleared() && recentChanges.getIfPresent(localKey) == null;
+  }
+
+  /**
+   * @param localKeys converted keys to read at once
+   * @return {@code true} if all keys can be read from replicas
+   */
+  boolean readsFromReplicas(@NonNull Collection<String> localKeys) {
+    if (recentlyCleared()) {
+      return false;
+    }
+
+    for (String localKey : localKeys) {
+      if (recentChanges.getIfPresent(localKey) != null) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private boolean recentlyCleared() {
+    return System.nanoTime() - clearedAt < windowNanos;
+  }
+}
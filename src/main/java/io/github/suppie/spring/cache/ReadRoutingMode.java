@@ -0,0 +1,11 @@
+package io.github.suppie.spring.cache;
+
+/** Defines which Redis nodes serve cache reads, writes always go to master. */
+public enum ReadRoutingMode {
+  /** All reads go to master */
+  MASTER,
+  /** Reads go to replicas, falling back to master if none is available */
+  REPLICA_PREFERRED,
+  /** Reads go to the node with the lowest latency, master included */
+  NEAREST
+}
@@ -0,0 +1,358 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Roman Khlebnov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.suppie.spring.cache;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.core.functions.CheckedSupplier;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.suppie.spring.cache.MultiLevelCacheConfigurationProperties.RedisCallProperties;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Latency budgets, concurrency limit and hedging of Redis calls made by a single cache.
+ *
+ * <p>Calls without a latency budget run on the calling thread as is. Calls with a budget run on
+ * virtual threads if they are enabled, otherwise on a bounded pool shared by caches of the
+ * manager, while {@link
+ * TimeLimiter} makes the caller wait at most for the budget. Calls exceeding the budget are not
+ * interrupted: they keep their permission until Redis replies or the client times them out, so
+ * that the concurrency limit covers every call actually running against Redis.
+ */
+final class RedisCallPolicy {
+
+  /** Kinds of Redis calls with their own latency budgets */
+  enum Operation {
+    LOOKUP,
+    WRITE,
+    PUBLISH
+  }
+
+  private static final Duration CALL_THREAD_KEEP_ALIVE = Duration.ofSeconds(60L);
+
+  private final Executor executor;
+  private final @Nullable ExecutorService ownedExecutor;
+  private final @Nullable TimeLimiter lookupTimeLimiter;
+  private final @Nullable TimeLimiter writeTimeLimiter;
+  private final @Nullable TimeLimiter publishTimeLimiter;
+  private final @Nullable Duration hedgeDelay;
+  private final @Nullable Bulkhead bulkhead;
+
+  /**
+   * @param name of the cache
+   * @param properties of Redis calls
+   * @param executor to run calls with a latency budget on if it runs each task on a virtual thread
+   * @param virtualThreads whether {@code executor} runs each task on a virtual thread, otherwise
+   *     calls with a latency budget run on {@code callExecutor}
+   * @param callExecutor pool to run calls with a latency budget on, if it is {@code null} and
+   *     there are such calls, a pool of the cache's own is started
+   */
+  RedisCallPolicy(
+      @NonNull String name,
+      @NonNull RedisCallProperties properties,
+      @NonNull Executor executor,
+      boolean virtualThreads,
+      @Nullable Executor callExecutor) {
+    this.lookupTimeLimiter = timeLimiter(properties.getLookupTimeout());
+    this.writeTimeLimiter = timeLimiter(properties.getWriteTimeout());
+    this.publishTimeLimiter = timeLimiter(properties.getPublishTimeout());
+    this.hedgeDelay = properties.getHedgeDelay().orElse(null);
+
+    if (properties.getMaxConcurrentCalls() < 0) {
+      throw new IllegalArgumentException("Maximum amount of concurrent calls must be positive");
+    }
+
+    if (hedgeDelay != null && (hedgeDelay.isNegative() || hedgeDelay.isZero())) {
+      throw new IllegalArgumentException("Hedge delay must be positive");
+    }
+
+    this.bulkhead =
+        properties.getMaxConcurrentCalls() > 0
+            ? Bulkhead.of(
+                name,
+                BulkheadConfig.custom()
+                    .maxConcurrentCalls(properties.getMaxConcurrentCalls())
+                    .maxWaitDuration(Duration.ZERO)
+                    .build())
+            : null;
+
+    boolean offloaded =
+        lookupTimeLimiter != null
+            || writeTimeLimiter != null
+            || publishTimeLimiter != null
+            || hedgeDelay != null;
+    this.ownedExecutor =
+        offloaded && !virtualThreads && callExecutor == null
+            ? newCallExecutor("multilevel-cache-redis-" + name + "-", properties.getCallThreads())
+            : null;
+    this.executor =
+        ownedExecutor != null
+            ? ownedExecutor
+            : callExecutor != null && !virtualThreads ? callExecutor : executor;
+  }
+
+  /**
+   * Does not wait for a permission, so that callers fall back immediately if Redis is saturated.
+   *
+   * @return {@code true} if caller can call Redis, must be followed by {@link #onComplete()} unless
+   *     permission is passed to a call decorated by this policy
+   */
+  boolean tryAcquirePermission() {
+    return bulkhead == null || bulkhead.tryAcquirePermission();
+  }
+
+  /** Returns permission acquired by {@link #tryAcquirePermission()} */
+  void onComplete() {
+    if (bulkhead != null) {
+      bulkhead.onComplete();
+    }
+  }
+
+  /**
+   * Once invoked, decorated call returns permission of the caller when the Redis call itself
+   * completes, which can happen after the caller stopped waiting for it.
+   *
+   * @param operation kind of the call
+   * @param call to Redis
+   * @return call bounded by the latency budget of the operation, hedged if it is a lookup
+   */
+  <T> CheckedSupplier<T> decorate(@NonNull Operation operation, @NonNull CheckedSupplier<T> call) {
+    return decorate(operation, call, call);
+  }
+
+  /**
+   * Once invoked, decorated call returns permission of the caller when the Redis call itself
+   * completes, which can happen after the caller stopped waiting for it.
+   *
+   * @param operation kind of the call
+   * @param call to Redis
+   * @param hedgeCall to send instead of repeating the call if it is a lookup which did not complete
+   *     within hedge delay, for example to read from replicas
+   * @return call bounded by the latency budget of the operation, hedged if it is a lookup
+   */
+  <T> CheckedSupplier<T> decorate(
+      @NonNull Operation operation,
+      @NonNull CheckedSupplier<T> call,
+      @NonNull CheckedSupplier<T> hedgeCall) {
+    TimeLimiter timeLimiter = timeLimiter(operation);
+    boolean hedged = operation == Operation.LOOKUP && hedgeDelay != null;
+
+    if (timeLimiter == null && !hedged) {
+      return () -> {
+        try {
+          return call.get();
+        } finally {
+          onComplete();
+        }
+      };
+    }
+
+    Supplier<CompletableFuture<T>> future =
+        () -> hedged ? hedge(call, hedgeCall) : supplyAsync(call);
+
+    if (timeLimiter == null) {
+      return () -> await(future.get());
+    }
+
+    return () -> timeLimiter.executeFutureSupplier(future);
+  }
+
+  /**
+   * Once invoked, decorated call returns permission of the caller when the Redis call itself
+   * completes, which can happen after the returned future timed out.
+   *
+   * @param operation kind of the call
+   * @param call asynchronous Redis call
+   * @return call completing exceptionally once latency budget of the operation is exceeded
+   */
+  <T> Supplier<CompletableFuture<T>> decorateAsync(
+      @NonNull Operation operation, @NonNull Supplier<CompletableFuture<T>> call) {
+    TimeLimiter timeLimiter = timeLimiter(operation);
+
+    return () -> {
+      CompletableFuture<T> future;
+      try {
+        future = call.get();
+      } catch (RuntimeException e) {
+        onComplete();
+        return CompletableFuture.failedFuture(e);
+      }
+
+      future.whenComplete((ignored, throwable) -> onComplete());
+      if (timeLimiter == null) {
+        return future;
+      }
+
+      Duration timeout = timeLimiter.getTimeLimiterConfig().getTimeoutDuration();
+      return future.copy().orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    };
+  }
+
+  /** Stops threads of the pool of the cache's own, if there is one */
+  void close() {
+    if (ownedExecutor != null) {
+      ownedExecutor.shutdown();
+    }
+  }
+
+  /**
+   * Sends the hedge call if the call did not complete within hedge delay, first successful
+   * completion wins. Result fails only once every sent call failed, the hedge call is not sent if
+   * the call already failed.
+   *
+   * <p>Hedge call needs a permission of its own and is not sent if there is none.
+   *
+   * @param call to Redis
+   * @param hedgeCall to send if the call is slow
+   * @return future of the first successfully completed call
+   */
+  private <T> CompletableFuture<T> hedge(
+      @NonNull CheckedSupplier<T> call, @NonNull CheckedSupplier<T> hedgeCall) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    AtomicInteger pending = new AtomicInteger(1);
+    BiConsumer<T, Throwable> complete =
+        (value, throwable) -> {
+          if (throwable == null) {
+            result.complete(value);
+          } else if (pending.decrementAndGet() == 0) {
+            result.completeExceptionally(throwable);
+          }
+        };
+
+    supplyAsync(call).whenComplete(complete);
+    CompletableFuture.delayedExecutor(hedgeDelay.toNanos(), TimeUnit.NANOSECONDS)
+        .execute(
+            () -> {
+              if (result.isDone() || !tryAcquirePermission()) {
+                return;
+              }
+
+              // Call failed while permission was being acquired
+              if (pending.getAndUpdate(count -> count == 0 ? 0 : count + 1) == 0) {
+                onComplete();
+                return;
+              }
+
+              supplyAsync(hedgeCall).whenComplete(complete);
+            });
+    return result;
+  }
+
+  /**
+   * @param call to Redis, holding a permission which is returned once it completes
+   * @return future of the call, failed immediately if there is no thread to run it on
+   */
+  private <T> CompletableFuture<T> supplyAsync(@NonNull CheckedSupplier<T> call) {
+    try {
+      return CompletableFuture.supplyAsync(
+          () -> {
+            try {
+              return call.get();
+            } catch (Throwable e) {
+              throw new CompletionException(e);
+            } finally {
+              onComplete();
+            }
+          },
+          executor);
+    } catch (RejectedExecutionException e) {
+      onComplete();
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  private @Nullable TimeLimiter timeLimiter(@NonNull Operation operation) {
+    return switch (operation) {
+      case LOOKUP -> lookupTimeLimiter;
+      case WRITE -> writeTimeLimiter;
+      case PUBLISH -> publishTimeLimiter;
+    };
+  }
+
+  private static <T> T await(@NonNull CompletableFuture<T> future) throws Throwable {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Pool does not queue calls: if every thread is busy, the call fails at once and the caller falls
+   * back as if Redis was not available. Threads are started on demand.
+   *
+   * @param threadNamePrefix of pool threads
+   * @param threads maximum amount of pool threads
+   * @return bounded pool of daemon threads stopping when idle
+   */
+  static ExecutorService newCallExecutor(@NonNull String threadNamePrefix, int threads) {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("Amount of Redis call threads must be positive");
+    }
+
+    AtomicInteger counter = new AtomicInteger();
+    ThreadPoolExecutor pool =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            CALL_THREAD_KEEP_ALIVE.toMillis(),
+            TimeUnit.MILLISECONDS,
+            new SynchronousQueue<>(),
+            runnable -> {
+              Thread thread =
+                  new Thread(runnable, threadNamePrefix + counter.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    pool.allowCoreThreadTimeOut(true);
+    return pool;
+  }
+
+  private static @Nullable TimeLimiter timeLimiter(@NonNull Optional<Duration> timeout) {
+    return timeout
+        .map(
+            duration -> {
+              if (duration.isNegative() || duration.isZero()) {
+                throw new IllegalArgumentException("Redis call timeout must be positive");
+              }
+              return TimeLimiter.of(duration);
+            })
+        .orElse(null);
+  }
+}
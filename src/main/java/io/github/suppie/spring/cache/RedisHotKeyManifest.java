@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Roman Khlebnov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.suppie.spring.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.jspecify.annotations.NonNull;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * Records hot keys in a Redis sorted set per cache shared by all instances.
+ *
+ * <p>Keys are scored by the time of recording minus their rank, so keys recorded by any instance
+ * recently outrank keys recorded before and sets are trimmed to the maximum amount of keys on
+ * every write.
+ */
+final class RedisHotKeyManifest implements HotKeyManifest {
+
+  private final RedisTemplate<Object, Object> redisTemplate;
+  private final String keyPrefix;
+  private final byte[] cacheNamesKey;
+  private final int maxKeys;
+
+  /**
+   * @param redisTemplate to access sorted sets with
+   * @param keyPrefix of Redis keys of the manifest
+   * @param maxKeys to keep per cache
+   */
+  RedisHotKeyManifest(
+      @NonNull RedisTemplate<Object, Object> redisTemplate,
+      @NonNull String keyPrefix,
+      int maxKeys) {
+    this.redisTemplate = redisTemplate;
+    this.keyPrefix = keyPrefix;
+    this.cacheNamesKey = keyPrefix.getBytes(StandardCharsets.UTF_8);
+    this.maxKeys = maxKeys;
+  }
+
+  @Override
+  public void write(@NonNull String cacheName, @NonNull List<String> keys) {
+    byte[] manifestKey = manifestKey(cacheName);
+    byte[] cacheNameMember = cacheName.getBytes(StandardCharsets.UTF_8);
+    long now = System.currentTimeMillis();
+
+    redisTemplate.executePipelined(
+        (RedisCallback<Object>)
+            connection -> {
+              for (int rank = 0; rank < keys.size(); rank++) {
+                byte[] member = keys.get(rank).getBytes(StandardCharsets.UTF_8);
+                connection.zSetCommands().zAdd(manifestKey, now - rank, member);
+              }
+              connection.zSetCommands().zRemRange(manifestKey, 0, -(maxKeys + 1L));
+              connection.setCommands().sAdd(cacheNamesKey, cacheNameMember);
+              return null;
+            });
+  }
+
+  @Override
+  public @NonNull List<String> read(@NonNull String cacheName, int limit) {
+    byte[] manifestKey = manifestKey(cacheName);
+    Set<byte[]> members =
+        redisTemplate.execute(
+            (RedisCallback<Set<byte[]>>)
+                connection -> connection.zSetCommands().zRevRange(manifestKey, 0, limit - 1L));
+
+    List<String> keys = new ArrayList<>();
+    if (members != null) {
+      members.forEach(member -> keys.add(new String(member, StandardCharsets.UTF_8)));
+    }
+    return keys;
+  }
+
+  @Override
+  public @NonNull Set<String> cacheNames() {
+    Set<byte[]> members =
+        redisTemplate.execute(
+            (RedisCallback<Set<byte[]>>)
+                connection -> connection.setCommands().sMembers(cacheNamesKey));
+
+    Set<String> cacheNames = new HashSet<>();
+    if (members != null) {
+      members.forEach(member -> cacheNames.add(new String(member, StandardCharsets.UTF_8)));
+    }
+    return cacheNames;
+  }
+
+  /**
+   * @param cacheName of the cache
+   * @return Redis key of sorted set of the cache
+   */
+  private byte[] manifestKey(@NonNull String cacheName) {
+    return (keyPrefix + ":" + cacheName).getBytes(StandardCharsets.UTF_8);
+  }
+}
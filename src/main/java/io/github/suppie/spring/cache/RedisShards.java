@@ -0,0 +1,246 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Roman Khlebnov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.suppie.spring.cache;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+
+/**
+ * Independent Redis servers sharing cache entries through consistent hashing of Redis keys.
+ *
+ * <p>Each shard owns a number of points on a hash ring derived from its name, and a key belongs to
+ * the shard owning the first point at or after the hash of the key. Adding a shard moves only the
+ * keys falling on its points, about {@code 1 / (N + 1)} of all keys.
+ *
+ * <p>Every shard has its own circuit breaker, failures of a shard are reported as {@link
+ * RedisShardException} so that callers can tell them apart from failures of Redis in general.
+ */
+public final class RedisShards implements DisposableBean {
+
+  /**
+   * Single Redis server of the ring.
+   *
+   * @param name stable identifier of the shard, like {@code host:port}, defining its ring points
+   * @param connectionFactory to connect to the shard with
+   * @param circuitBreaker protecting calls to the shard
+   */
+  public record Shard(
+      @NonNull String name,
+      @NonNull RedisConnectionFactory connectionFactory,
+      @NonNull CircuitBreaker circuitBreaker) {}
+
+  private final List<Shard> shards;
+  private final NavigableMap<Long, Shard> ring;
+
+  /**
+   * @param shards to distribute keys between
+   * @param virtualNodes amount of ring points per shard, more points spread keys more evenly
+   */
+  public RedisShards(@NonNull List<Shard> shards, int virtualNodes) {
+    if (shards.isEmpty()) {
+      throw new IllegalArgumentException("At least one Redis shard is required");
+    }
+
+    if (virtualNodes <= 0) {
+      throw new IllegalArgumentException("Amount of virtual nodes must be positive");
+    }
+
+    if (shards.stream().map(Shard::name).distinct().count() != shards.size()) {
+      throw new IllegalArgumentException("Redis shard names must be unique");
+    }
+
+    this.shards = List.copyOf(shards);
+    this.ring = new TreeMap<>();
+
+    for (Shard shard : this.shards) {
+      for (int i = 0; i < virtualNodes; i++) {
+        // Colliding points go to the same shard regardless of configuration order
+        ring.merge(
+            hash((shard.name() + "#" + i).getBytes(StandardCharsets.UTF_8)),
+            shard,
+            (existing, added) -> existing.name().compareTo(added.name()) <= 0 ? existing : added);
+      }
+    }
+  }
+
+  /**
+   * @return all shards
+   */
+  public List<Shard> getShards() {
+    return shards;
+  }
+
+  /**
+   * @param redisKey serialized Redis key
+   * @return shard owning the key
+   */
+  Shard shardOf(byte @NonNull [] redisKey) {
+    Map.Entry<Long, Shard> entry = ring.ceilingEntry(hash(redisKey));
+    return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+  }
+
+  /**
+   * @param redisKeys serialized Redis keys
+   * @return indexes of the keys grouped by shards owning them
+   */
+  Map<Shard, List<Integer>> groupByShard(@NonNull List<byte[]> redisKeys) {
+    Map<Shard, List<Integer>> indexes = new LinkedHashMap<>();
+    for (int i = 0; i < redisKeys.size(); i++) {
+      indexes.computeIfAbsent(shardOf(redisKeys.get(i)), shard -> new ArrayList<>()).add(i);
+    }
+    return indexes;
+  }
+
+  /**
+   * @param shard to call
+   * @param call to the shard
+   * @return call result
+   * @throws RedisShardException if the call failed or shard circuit breaker did not permit it
+   */
+  <T> T call(@NonNull Shard shard, @NonNull Supplier<T> call) {
+    try {
+      return shard.circuitBreaker().executeSupplier(call);
+    } catch (RuntimeException e) {
+      throw new RedisShardException(shard.name(), e);
+    }
+  }
+
+  /**
+   * @param shard to call
+   * @param call to the shard
+   * @return future of the call result, failed with {@link RedisShardException} if the call failed
+   *     or shard circuit breaker did not permit it
+   */
+  <T> CompletableFuture<T> callAsync(
+      @NonNull Shard shard, @NonNull Supplier<CompletionStage<T>> call) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    shard
+        .circuitBreaker()
+        .executeCompletionStage(call)
+        .whenComplete(
+            (value, throwable) -> {
+              if (throwable == null) {
+                result.complete(value);
+              } else {
+                Throwable cause =
+                    throwable instanceof CompletionException && throwable.getCause() != null
+                        ? throwable.getCause()
+                        : throwable;
+                result.completeExceptionally(new RedisShardException(shard.name(), cause));
+              }
+            });
+    return result;
+  }
+
+  /**
+   * @param shard to execute the callback on
+   * @param callback to execute with a connection to the shard
+   * @return callback result
+   * @throws RedisShardException if the call failed or shard circuit breaker did not permit it
+   */
+  <T> @Nullable T execute(@NonNull Shard shard, @NonNull RedisCallback<T> callback) {
+    return call(
+        shard,
+        () -> {
+          try (RedisConnection connection = shard.connectionFactory().getConnection()) {
+            return callback.doInRedis(connection);
+          }
+        });
+  }
+
+  /**
+   * Runs the action for every shard, failing once all shards were attempted if any of them failed.
+   *
+   * @param groups of values mapped by shards owning them
+   * @param action to run for each shard
+   * @throws RedisShardException of the first failed shard, with failures of others suppressed
+   */
+  static <T> void forEach(@NonNull Map<Shard, T> groups, @NonNull BiConsumer<Shard, T> action) {
+    RedisShardException failure = null;
+
+    for (Map.Entry<Shard, T> group : groups.entrySet()) {
+      try {
+        action.accept(group.getKey(), group.getValue());
+      } catch (RedisShardException e) {
+        if (failure == null) {
+          failure = e;
+        } else {
+          failure.addSuppressed(e);
+        }
+      }
+    }
+
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /** Releases connection factories of the shards */
+  @Override
+  public void destroy() throws Exception {
+    for (Shard shard : shards) {
+      if (shard.connectionFactory() instanceof DisposableBean disposable) {
+        disposable.destroy();
+      }
+    }
+  }
+
+  /**
+   * 64-bit FNV-1a hash with MurmurHash3 finalizer to spread similar keys over the ring.
+   *
+   * @param bytes to hash
+   * @return hash of the bytes
+   */
+  static long hash(byte @NonNull [] bytes) {
+    long hash = 0xcbf29ce484222325L;
+    for (byte b : bytes) {
+      hash ^= b & 0xff;
+      hash *= 0x100000001b3L;
+    }
+
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Roman Khlebnov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.suppie.spring.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.function.Function;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.springframework.cache.support.NullValue;
+
+/**
+ * Converts values of local cache between objects and their serialized form for {@link
+ * LocalStorageMode#SERIALIZED}.
+ *
+ * <p>{@link NullValue} is kept as is, so local expiry still recognizes it. Deserialized values can
+ * be kept in a small front cache keyed by identity of serialized values, so replaced or evicted
+ * local entries drop out of it without explicit invalidation.
+ */
+final class SerializedLocalValues {
+
+  private final Function<Object, byte[]> serializer;
+  private final Function<byte[], Object> deserializer;
+  private final @Nullable Cache<SerializedValue, Object> decoded;
+
+  /**
+   * @param serializer of store values
+   * @param deserializer of store values
+   * @param decodedSize maximum amount of deserialized values to keep, {@code 0} disables it
+   */
+  SerializedLocalValues(
+      @NonNull Function<Object, byte[]> serializer,
+      @NonNull Function<byte[], Object> deserializer,
+      int decodedSize) {
+    if (decodedSize < 0) {
+      throw new IllegalArgumentException("Decoded size must be positive");
+    }
+
+    this.serializer = serializer;
+    this.deserializer = deserializer;
+    this.decoded =
+        decodedSize > 0 ? Caffeine.newBuilder().weakKeys().maximumSize(decodedSize).build() : null;
+  }
+
+  /**
+   * @param storeValue to put into local cache
+   * @return local cache value
+   */
+  Object encode(@NonNull Object storeValue) {
+    return storeValue instanceof NullValue
+        ? storeValue
+        : new SerializedValue(serializer.apply(storeValue));
+  }
+
+  /**
+   * @param localValue taken from local cache
+   * @return store value
+   */
+  Object decode(@NonNull Object localValue) {
+    if (!(localValue instanceof SerializedValue serializedValue)) {
+      return localValue;
+    }
+
+    return decoded == null
+        ? deserializer.apply(serializedValue.bytes())
+        : decoded.get(serializedValue, value -> deserializer.apply(value.bytes()));
+  }
+
+  /**
+   * Weigher of local cache entries.
+   *
+   * @param key of the entry
+   * @param localValue of the entry
+   * @return size of serialized value in bytes
+   */
+  static int weigh(@NonNull Object key, @NonNull Object localValue) {
+    return localValue instanceof SerializedValue serializedValue
+        ? serializedValue.bytes().length
+        : 1;
+  }
+
+  /**
+   * @param bytes of the value, front cache compares serialized values by identity
+   */
+  private record SerializedValue(byte[] bytes) {}
+}
@@ -0,0 +1,61 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Roman Khlebnov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.suppie.spring.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/** Default {@link LocalCacheWeigher} weighing values by their serialized size. */
+@Slf4j
+final class SerializedSizeWeigher implements LocalCacheWeigher {
+
+  private final RedisSerializer<?> serializer;
+
+  /**
+   * @param serializer of Redis values
+   */
+  SerializedSizeWeigher(@NonNull RedisSerializer<?> serializer) {
+    this.serializer = serializer;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public int weigh(@NonNull String cacheName, @NonNull Object key, @NonNull Object value) {
+    if (value instanceof NullValue) {
+      return 1;
+    }
+
+    try {
+      byte[] bytes = ((RedisSerializer<Object>) serializer).serialize(value);
+      return bytes == null ? 1 : Math.max(1, bytes.length);
+    } catch (SerializationException e) {
+      // Such values cannot reach Redis either, so they are weighed as small ones
+      log.debug("Could not weigh value of cache '{}' and key '{}'", cacheName, key, e);
+      return 1;
+    }
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Roman Khlebnov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.suppie.spring.cache;
+
+import io.github.suppie.spring.cache.RedisShards.Shard;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+/**
+ * {@link RedisCacheWriter} sending each key to the shard owning it, while operations on the whole
+ * cache are sent to every shard.
+ */
+final class ShardedRedisCacheWriter implements RedisCacheWriter {
+
+  private final RedisShards shards;
+  private final Map<Shard, RedisCacheWriter> writers;
+
+  /**
+   * @param shards to distribute keys between
+   */
+  ShardedRedisCacheWriter(@NonNull RedisShards shards) {
+    this(shards, shard -> RedisCacheWriter.nonLockingRedisCacheWriter(shard.connectionFactory()));
+  }
+
+  private ShardedRedisCacheWriter(
+      @NonNull RedisShards shards, @NonNull Function<Shard, RedisCacheWriter> writerFactory) {
+    this.shards = shards;
+    this.writers = new LinkedHashMap<>();
+    shards.getShards().forEach(shard -> writers.put(shard, writerFactory.apply(shard)));
+  }
+
+  @Override
+  public byte @Nullable [] get(@NonNull String name, byte @NonNull [] key) {
+    Shard shard = shards.shardOf(key);
+    return shards.call(shard, () -> writers.get(shard).get(name, key));
+  }
+
+  @Override
+  public byte @Nullable [] get(
+      @NonNull String name, byte @NonNull [] key, @Nullable Duration ttl) {
+    Shard shard = shards.shardOf(key);
+    return shards.call(shard, () -> writers.get(shard).get(name, key, ttl));
+  }
+
+  @Override
+  public boolean supportsAsyncRetrieve() {
+    return writers.values().stream().allMatch(RedisCacheWriter::supportsAsyncRetrieve);
+  }
+
+  @Override
+  public CompletableFuture<byte[]> retrieve(
+      @NonNull String name, byte @NonNull [] key, @Nullable Duration ttl) {
+    Shard shard = shards.shardOf(key);
+    return shards.callAsync(shard, () -> writers.get(shard).retrieve(name, key, ttl));
+  }
+
+  @Override
+  public void put(
+      @NonNull String name, byte @NonNull [] key, byte @NonNull [] value, @Nullable Duration ttl) {
+    Shard shard = shards.shardOf(key);
+    shards.call(
+        shard,
+        () -> {
+          writers.get(shard).put(name, key, value, ttl);
+          return null;
+        });
+  }
+
+  @Override
+  public CompletableFuture<Void> store(
+      @NonNull String name, byte @NonNull [] key, byte @NonNull [] value, @Nullable Duration ttl) {
+    Shard shard = shards.shardOf(key);
+    return shards.callAsync(shard, () -> writers.get(shard).store(name, key, value, ttl));
+  }
+
+  @Override
+  public byte @Nullable [] putIfAbsent(
+      @NonNull String name, byte @NonNull [] key, byte @NonNull [] value, @Nullable Duration ttl) {
+    Shard shard = shards.shardOf(key);
+    return shards.call(shard, () -> writers.get(shard).putIfAbsent(name, key, value, ttl));
+  }
+
+  @Override
+  public void remove(@NonNull String name, byte @NonNull [] key) {
+    Shard shard = shards.shardOf(key);
+    shards.call(
+        shard,
+        () -> {
+          writers.get(shard).remove(name, key);
+          return null;
+        });
+  }
+
+  /** Cleans every shard, failing once all shards were attempted if any of them failed */
+  @Override
+  public void clean(@NonNull String name, byte @NonNull [] pattern) {
+    RedisShards.forEach(
+        writers,
+        (shard, writer) ->
+            shards.call(
+                shard,
+                () -> {
+                  writer.clean(name, pattern);
+                  return null;
+                }));
+  }
+
+  @Override
+  public void clearStatistics(@NonNull String name) {
+    writers.values().forEach(writer -> writer.clearStatistics(name));
+  }
+
+  /** Shards share the collector, so statistics of any shard cover the whole cache */
+  @Override
+  public RedisCacheWriter withStatisticsCollector(
+      @NonNull CacheStatisticsCollector cacheStatisticsCollector) {
+    return new ShardedRedisCacheWriter(
+        shards, shard -> writers.get(shard).withStatisticsCollector(cacheStatisticsCollector));
+  }
+
+  @Override
+  public CacheStatistics getCacheStatistics(@NonNull String cacheName) {
+    return writers.values().iterator().next().getCacheStatistics(cacheName);
+  }
+}
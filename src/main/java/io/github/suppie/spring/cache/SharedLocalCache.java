@@ -0,0 +1,270 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Roman Khlebnov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.suppie.spring.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.Policy.CacheEntry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Local cache shared by all caches of a manager, so that they compete for one weight budget and an
+ * idle cache leaves its share to busy ones.
+ *
+ * <p>Entries are kept in a single Caffeine cache keyed by the entries of a cache, the epoch of
+ * those entries and the key of an entry, so eviction picks victims among entries of all caches.
+ * Every cache gets {@link LocalEntries} of its own, which keep the expiry and weigher of the cache
+ * along with its size and statistics. Clearing a cache starts a new epoch of its entries instead of
+ * visiting entries of all caches, entries of former epochs are never read again and leave once
+ * they are evicted or expire.
+ */
+final class SharedLocalCache {
+
+  private final Cache<Key, Object> cache;
+  private final Policy.Eviction<Key, Object> eviction;
+  private final Policy.VarExpiration<Key, Object> expiration;
+
+  // Reused by lookups, so that local cache hits do not allocate keys
+  private final ThreadLocal<Key> lookupKeys;
+
+  /**
+   * @param maximumWeight total weight of entries of all caches
+   */
+  SharedLocalCache(long maximumWeight) {
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumWeight(maximumWeight)
+            .weigher((Key key, Object value) -> key.owner.weigher.weigh(key.key, value))
+            .expireAfter(new KeyExpiry())
+            .evictionListener(SharedLocalCache::onEviction)
+            .build();
+    this.eviction = cache.policy().eviction().orElseThrow();
+    this.expiration = cache.policy().expireVariably().orElseThrow();
+    this.lookupKeys = ThreadLocal.withInitial(() -> new Key(null, 0L, null));
+  }
+
+  /**
+   * @param expiry of entries of the cache
+   * @param weigher of entries of the cache, in units of the shared maximum weight
+   * @return entries of a cache in the shared local cache
+   */
+  LocalEntries entries(
+      @NonNull Expiry<@NonNull Object, @NonNull Object> expiry,
+      @NonNull Weigher<@NonNull Object, @NonNull Object> weigher) {
+    return new Entries(expiry, weigher);
+  }
+
+  /**
+   * @return number of entries of all caches, including entries of former epochs
+   */
+  long estimatedSize() {
+    return cache.estimatedSize();
+  }
+
+  /** Performs pending maintenance, such as eviction, of the shared local cache */
+  void cleanUp() {
+    cache.cleanUp();
+  }
+
+  /**
+   * @param key of an entry evicted by size or expired
+   * @param value of the entry
+   * @param cause of eviction
+   */
+  private static void onEviction(@Nullable Key key, @Nullable Object value, RemovalCause cause) {
+    if (key != null && key.epoch == key.owner.epoch) {
+      key.owner.size.decrement();
+      key.owner.evictions.increment();
+    }
+  }
+
+  /**
+   * Key of an entry of a cache, entries of caches are compared by identity. Keys stored in local
+   * cache are never changed, lookup keys are reused by their thread.
+   */
+  private static final class Key {
+
+    private Entries owner;
+    private long epoch;
+    private String key;
+
+    private Key(Entries owner, long epoch, String key) {
+      this.owner = owner;
+      this.epoch = epoch;
+      this.key = key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Key other
+          && owner == other.owner
+          && epoch == other.epoch
+          && key.equals(other.key);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (31 * System.identityHashCode(owner) + Long.hashCode(epoch)) + key.hashCode();
+    }
+  }
+
+  /** Expiry delegating to the expiry of the cache owning an entry */
+  private static final class KeyExpiry implements Expiry<Key, Object> {
+
+    @Override
+    public long expireAfterCreate(Key key, Object value, long currentTime) {
+      return key.owner.expiry.expireAfterCreate(key.key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterUpdate(Key key, Object value, long currentTime, long currentDuration) {
+      return key.owner.expiry.expireAfterUpdate(key.key, value, currentTime, currentDuration);
+    }
+
+    @Override
+    public long expireAfterRead(Key key, Object value, long currentTime, long currentDuration) {
+      return key.owner.expiry.expireAfterRead(key.key, value, currentTime, currentDuration);
+    }
+  }
+
+  /** Entries of a single cache in the shared local cache */
+  private final class Entries implements LocalEntries {
+
+    private final Expiry<@NonNull Object, @NonNull Object> expiry;
+    private final Weigher<@NonNull Object, @NonNull Object> weigher;
+
+    // Entries written in former epochs are cleared
+    private volatile long epoch;
+
+    private final LongAdder size = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private Entries(
+        Expiry<@NonNull Object, @NonNull Object> expiry,
+        Weigher<@NonNull Object, @NonNull Object> weigher) {
+      this.expiry = expiry;
+      this.weigher = weigher;
+    }
+
+    @Override
+    public @Nullable Object getIfPresent(@NonNull String key) {
+      Key lookupKey = lookupKeys.get();
+      lookupKey.owner = this;
+      lookupKey.epoch = epoch;
+      lookupKey.key = key;
+      try {
+        Object value = cache.getIfPresent(lookupKey);
+        (value == null ? misses : hits).increment();
+        return value;
+      } finally {
+        lookupKey.owner = null;
+        lookupKey.key = null;
+      }
+    }
+
+    @Override
+    public void put(@NonNull String key, @NonNull Object value) {
+      if (cache.asMap().put(new Key(this, epoch, key), value) == null) {
+        size.increment();
+      }
+    }
+
+    @Override
+    public void putAll(@NonNull Map<String, Object> values) {
+      values.forEach(this::put);
+    }
+
+    @Override
+    public boolean replace(@NonNull String key, @NonNull Object value, long expiresAfter) {
+      Key cacheKey = new Key(this, epoch, key);
+      if (cache.asMap().replace(cacheKey, value) == null) {
+        return false;
+      }
+
+      expiration.setExpiresAfter(cacheKey, expiresAfter, TimeUnit.NANOSECONDS);
+      return true;
+    }
+
+    @Override
+    public long expiresAfter(@NonNull String key) {
+      return expiration
+          .getExpiresAfter(new Key(this, epoch, key), TimeUnit.NANOSECONDS)
+          .orElse(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void invalidate(@NonNull String key) {
+      if (cache.asMap().remove(new Key(this, epoch, key)) != null) {
+        size.decrement();
+      }
+    }
+
+    @Override
+    public void invalidateAll(@NonNull Collection<String> keys) {
+      keys.forEach(this::invalidate);
+    }
+
+    @Override
+    public synchronized void invalidateAll() {
+      epoch++;
+      size.reset();
+    }
+
+    @Override
+    public long estimatedSize() {
+      return Math.max(0L, size.sum());
+    }
+
+    @Override
+    public CacheStats stats() {
+      return CacheStats.of(hits.sum(), misses.sum(), 0L, 0L, 0L, evictions.sum(), 0L);
+    }
+
+    @Override
+    public List<String> hottestKeys(int limit) {
+      long current = epoch;
+      return eviction.hottest(
+          entries ->
+              entries
+                  .map(CacheEntry::getKey)
+                  .filter(key -> key.owner == this && key.epoch == current)
+                  .limit(limit)
+                  .map(key -> key.key)
+                  .toList());
+    }
+  }
+}
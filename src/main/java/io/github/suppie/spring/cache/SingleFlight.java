@@ -0,0 +1,218 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Roman Khlebnov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.suppie.spring.cache;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Coalesces concurrent operations on the same key through in-flight futures.
+ *
+ * <p>The first caller for a key becomes the owner of the flight and executes the operation, every
+ * other caller waits for the flight to complete instead of executing the same operation again.
+ * Flights are removed as soon as they complete, so the amount of tracked keys is bounded only by
+ * the amount of concurrent operations and no flight can be evicted while it is still running.
+ */
+final class SingleFlight {
+
+  private final ConcurrentMap<Object, Flight> flights = new ConcurrentHashMap<>();
+
+  /**
+   * Executes the call unless another caller already runs a shared call for the same key, in which
+   * case the result of that call is returned.
+   *
+   * @param key to coalesce calls by
+   * @param call to execute
+   * @param waitTimeout maximum time to wait for another caller, {@code null} - wait until it
+   *     completes
+   * @param <T> type of the result
+   * @return result of the call
+   * @throws TimeoutException if waiting for another caller took longer than {@code waitTimeout}
+   * @throws Exception if the call failed
+   */
+  <T> T execute(@NonNull Object key, @NonNull Callable<T> call, @Nullable Duration waitTimeout)
+      throws Exception {
+    return run(key, call, waitTimeout, false);
+  }
+
+  /**
+   * Executes the call once all other calls for the same key complete and prevents other calls for
+   * this key from running until this call completes.
+   *
+   * @param key to coalesce calls by
+   * @param call to execute
+   * @param <T> type of the result
+   * @return result of the call
+   * @throws Exception if the call failed
+   */
+  <T> T exclusive(@NonNull Object key, @NonNull Callable<T> call) throws Exception {
+    return run(key, call, null, true);
+  }
+
+  /**
+   * Asynchronous counterpart of {@link #execute(Object, Callable, Duration)}: starts the call
+   * unless another caller already runs a shared call for the same key, in which case the result of
+   * that call is returned.
+   *
+   * @param key to coalesce calls by
+   * @param call to start
+   * @param <T> type of the result
+   * @return future completed with result of the call
+   */
+  @SuppressWarnings("unchecked")
+  <T> CompletableFuture<T> executeAsync(
+      @NonNull Object key, @NonNull Supplier<CompletableFuture<T>> call) {
+    final Flight flight = new Flight(null, false);
+    final Flight existing = flights.putIfAbsent(key, flight);
+
+    if (existing != null) {
+      if (existing.exclusive) {
+        return existing
+            .handle((value, failure) -> null)
+            .thenCompose(ignored -> executeAsync(key, call));
+      }
+
+      return existing.thenApply(value -> (T) value);
+    }
+
+    CompletableFuture<T> result;
+    try {
+      result = call.get();
+    } catch (Throwable t) {
+      result = CompletableFuture.failedFuture(t);
+    }
+
+    result.whenComplete(
+        (value, failure) -> {
+          flights.remove(key, flight);
+          if (failure != null) {
+            flight.completeExceptionally(failure);
+          } else {
+            flight.complete(value);
+          }
+        });
+
+    return flight.thenApply(value -> (T) value);
+  }
+
+  /**
+   * @return amount of calls currently in progress
+   */
+  int inFlight() {
+    return flights.size();
+  }
+
+  /**
+   * @param key of the call
+   * @return amount of callers waiting for the call in progress for the key
+   */
+  int waiting(@NonNull Object key) {
+    Flight flight = flights.get(key);
+    return flight == null ? 0 : flight.getNumberOfDependents();
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T run(
+      @NonNull Object key,
+      @NonNull Callable<T> call,
+      @Nullable Duration waitTimeout,
+      boolean exclusive)
+      throws Exception {
+    final Thread currentThread = Thread.currentThread();
+    final long deadline = waitTimeout == null ? 0L : System.nanoTime() + waitTimeout.toNanos();
+    final Flight flight = new Flight(currentThread, exclusive);
+
+    Flight existing;
+    while ((existing = flights.putIfAbsent(key, flight)) != null) {
+      if (existing.owner == currentThread) {
+        // Nested call for the same key from within the running call
+        return call.call();
+      }
+
+      if (!exclusive && !existing.exclusive) {
+        try {
+          return (T) await(existing, waitTimeout, deadline);
+        } catch (ExecutionException e) {
+          throw unwrap(e);
+        }
+      }
+
+      try {
+        await(existing, waitTimeout, deadline);
+      } catch (ExecutionException ignored) {
+        // Outcome of the other call is irrelevant, we only wait for it to finish
+      }
+    }
+
+    try {
+      T result = call.call();
+      flight.complete(result);
+      return result;
+    } catch (Throwable t) {
+      flight.completeExceptionally(t);
+      throw t;
+    } finally {
+      flights.remove(key, flight);
+    }
+  }
+
+  private static Object await(
+      @NonNull Flight flight, @Nullable Duration waitTimeout, long deadline)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    if (waitTimeout == null) {
+      return flight.get();
+    }
+
+    return flight.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+  }
+
+  private static Exception unwrap(@NonNull ExecutionException e) {
+    Throwable cause = e.getCause();
+    if (cause instanceof Error error) {
+      throw error;
+    }
+    return cause instanceof Exception exception ? exception : e;
+  }
+
+  /** In-flight call with the thread executing it, {@code null} for asynchronous calls */
+  private static final class Flight extends CompletableFuture<Object> {
+    private final @Nullable Thread owner;
+    private final boolean exclusive;
+
+    private Flight(@Nullable Thread owner, boolean exclusive) {
+      this.owner = owner;
+      this.exclusive = exclusive;
+    }
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Roman Khlebnov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.suppie.spring.cache;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.DefaultTyping;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import tools.jackson.dataformat.smile.SmileMapper;
+import tools.jackson.dataformat.smile.SmileWriteFeature;
+
+/**
+ * Serializer writing values in Jackson Smile binary format.
+ *
+ * <p>Class names are written for the root value and for every value of a non-final declared type,
+ * like collections, maps or properties typed with an interface, while values of final declared
+ * types, like records, strings or boxed primitives inside other values, are written without them.
+ * Repeated property names and class names are written once per value. Readers and writers are
+ * created once and Jackson recycles their buffers.
+ *
+ * <p>Only classes of trusted packages are read back: JDK value types from {@code java.lang}, {@code
+ * java.util}, {@code java.time} and {@code java.math}, classes of this library and the configured
+ * packages or classes, so that Redis entries cannot make the application instantiate arbitrary
+ * classes.
+ */
+public final class SmileRedisSerializer implements RedisSerializer<Object> {
+
+  private static final byte[] EMPTY = new byte[0];
+
+  /** Smile values start with {@code :)} header, so a single zero byte never clashes with them */
+  private static final byte[] NULL_VALUE = {0};
+
+  private final ObjectWriter writer;
+  private final ObjectReader reader;
+
+  /**
+   * JDK value types, without subpackages like {@code java.util.logging}, and classes of this
+   * library
+   */
+  private static final List<String> BUILT_IN_TRUSTED_TYPES =
+      List.of(
+          "java\\.lang\\.(String|Boolean|Character|Byte|Short|Integer|Long|Float|Double)",
+          "java\\.util\\.[^.]+",
+          "java\\.time\\.[^.]+",
+          "java\\.math\\.[^.]+",
+          Pattern.quote(SmileRedisSerializer.class.getPackageName()) + "\\.[^.]+");
+
+  /** Creates serializer reading back only JDK value types and classes of this library */
+  public SmileRedisSerializer() {
+    this(List.of());
+  }
+
+  /**
+   * @param trustedTypes packages, including their subpackages, or classes of values to read back in
+   *     addition to JDK value types and classes of this library
+   */
+  public SmileRedisSerializer(@NonNull Collection<String> trustedTypes) {
+    this(
+        mapperBuilder()
+            .activateDefaultTyping(
+                BasicPolymorphicTypeValidator.builder()
+                    .allowIfSubType(trustedTypesPattern(trustedTypes))
+                    .build(),
+                DefaultTyping.NON_FINAL)
+            .build());
+  }
+
+  /**
+   * @param mapper to use, must be configured with default typing to read values back as their
+   *     original classes
+   */
+  public SmileRedisSerializer(@NonNull ObjectMapper mapper) {
+    // Object as declared root type makes default typing write class name of the root value
+    this.writer = mapper.writerFor(Object.class);
+    this.reader = mapper.readerFor(Object.class);
+  }
+
+  /**
+   * @return mapper without default typing for values of a known class
+   */
+  static ObjectMapper typedMapper() {
+    return mapperBuilder().build();
+  }
+
+  /**
+   * @param trustedTypes configured packages or classes
+   * @return pattern matching class names of trusted types and arrays of them
+   */
+  private static Pattern trustedTypesPattern(@NonNull Collection<String> trustedTypes) {
+    String types =
+        Stream.concat(
+                BUILT_IN_TRUSTED_TYPES.stream(),
+                trustedTypes.stream().map(type -> Pattern.quote(type) + "([.$].+)?"))
+            .collect(Collectors.joining("|", "(", ")"));
+    return Pattern.compile(types + "|\\[+L" + types + ";|\\[+[ZBCSIJFD]");
+  }
+
+  private static SmileMapper.Builder mapperBuilder() {
+    return SmileMapper.builder()
+        .enable(SmileWriteFeature.CHECK_SHARED_STRING_VALUES)
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+  }
+
+  @Override
+  public byte @NonNull [] serialize(@Nullable Object value) throws SerializationException {
+    if (value == null) {
+      return EMPTY;
+    }
+
+    if (value instanceof NullValue) {
+      return NULL_VALUE;
+    }
+
+    try {
+      return writer.writeValueAsBytes(value);
+    } catch (JacksonException e) {
+      throw new SerializationException("Could not write Smile: " + e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public @Nullable Object deserialize(byte @Nullable [] bytes) throws SerializationException {
+    if (bytes == null || bytes.length == 0) {
+      return null;
+    }
+
+    if (bytes.length == 1 && bytes[0] == NULL_VALUE[0]) {
+      return NullValue.INSTANCE;
+    }
+
+    try {
+      return reader.readValue(bytes);
+    } catch (JacksonException e) {
+      throw new SerializationException("Could not read Smile: " + e.getMessage(), e);
+    }
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Roman Khlebnov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.suppie.spring.cache;
+
+import java.io.ByteArrayOutputStream;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.JavaType;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Serializer of caches holding values of a single class, which is known up front, so values are
+ * written without class names.
+ *
+ * <p>Besides values of the class, {@link NullValue} and {@link MultiLevelCacheEntry} holding
+ * values of the class are supported. They are written with a leading byte which never starts JSON
+ * or Smile documents.
+ */
+public final class TypedJacksonRedisSerializer implements RedisSerializer<Object> {
+
+  private static final byte[] EMPTY = new byte[0];
+  private static final byte NULL_VALUE = 0;
+  private static final byte ENTRY = 1;
+
+  private final Class<?> type;
+  private final ObjectWriter valueWriter;
+  private final ObjectReader valueReader;
+  private final ObjectWriter entryWriter;
+  private final ObjectReader entryReader;
+
+  /**
+   * @param mapper to use, without default typing
+   * @param type of all values
+   */
+  public TypedJacksonRedisSerializer(@NonNull ObjectMapper mapper, @NonNull Class<?> type) {
+    JavaType entryType = mapper.getTypeFactory().constructParametricType(TypedEntry.class, type);
+
+    this.type = type;
+    this.valueWriter = mapper.writerFor(type);
+    this.valueReader = mapper.readerFor(type);
+    this.entryWriter = mapper.writerFor(entryType);
+    this.entryReader = mapper.readerFor(entryType);
+  }
+
+  /**
+   * @param format of values, either JSON or Smile
+   * @param type of all values
+   * @return serializer of the given format
+   * @throws IllegalStateException if format does not support typed values or is not available
+   */
+  static TypedJacksonRedisSerializer of(
+      @NonNull ValueSerializerType format, @NonNull Class<?> type) {
+    format.requireAvailable();
+
+    ObjectMapper mapper =
+        switch (format) {
+          case JSON ->
+              JsonMapper.builder()
+                  .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                  .build();
+          case SMILE -> SmileRedisSerializer.typedMapper();
+          case JDK ->
+              throw new IllegalStateException(
+                  "Value types of caches require 'json' or 'smile' value serializer");
+        };
+
+    return new TypedJacksonRedisSerializer(mapper, type);
+  }
+
+  @Override
+  public byte @NonNull [] serialize(@Nullable Object value) throws SerializationException {
+    if (value == null) {
+      return EMPTY;
+    }
+
+    if (value instanceof NullValue) {
+      return new byte[] {NULL_VALUE};
+    }
+
+    try {
+      if (value instanceof MultiLevelCacheEntry entry) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        output.write(ENTRY);
+        entryWriter.writeValue(
+            output,
+            new TypedEntry<>(
+                requireType(entry.getValue()), entry.getComputeTime(), entry.getExpiresAt()));
+        return output.toByteArray();
+      }
+
+      return valueWriter.writeValueAsBytes(requireType(value));
+    } catch (JacksonException e) {
+      throw new SerializationException("Could not write " + type.getName(), e);
+    }
+  }
+
+  @Override
+  public @Nullable Object deserialize(byte @Nullable [] bytes) throws SerializationException {
+    if (bytes == null || bytes.length == 0) {
+      return null;
+    }
+
+    try {
+      if (bytes[0] == NULL_VALUE && bytes.length == 1) {
+        return NullValue.INSTANCE;
+      }
+
+      if (bytes[0] == ENTRY) {
+        TypedEntry<?> entry = entryReader.readValue(bytes, 1, bytes.length - 1);
+        return new MultiLevelCacheEntry(entry.value(), entry.computeTime(), entry.expiresAt());
+      }
+
+      return valueReader.readValue(bytes);
+    } catch (JacksonException e) {
+      throw new SerializationException("Could not read " + type.getName(), e);
+    }
+  }
+
+  /**
+   * @param value to check
+   * @return the same value
+   * @throws SerializationException if value is not an instance of the configured type
+   */
+  private Object requireType(@Nullable Object value) {
+    if (!type.isInstance(value)) {
+      throw new SerializationException(
+          "Value of "
+              + (value == null ? "null" : value.getClass().getName())
+              + " is not an instance of "
+              + type.getName());
+    }
+    return value;
+  }
+
+  /** {@link MultiLevelCacheEntry} with the value of a known class */
+  record TypedEntry<T>(T value, long computeTime, long expiresAt) {}
+}
@@ -0,0 +1,27 @@
+package io.github.suppie.spring.cache;
+
+import org.springframework.util.ClassUtils;
+
+/** Defines how cache values and eviction notifications are serialized for Redis. */
+public enum ValueSerializerType {
+  /** Jackson JSON with class names of values, readable by humans and other clients */
+  JSON,
+  /** Jackson Smile binary format, requires {@code jackson-dataformat-smile} */
+  SMILE,
+  /** Java serialization, values must implement {@link java.io.Serializable} */
+  JDK;
+
+  /**
+   * @throws IllegalStateException if libraries of this format are not on the classpath
+   */
+  void requireAvailable() {
+    if (this == SMILE
+        && !ClassUtils.isPresent(
+            "tools.jackson.dataformat.smile.SmileMapper",
+            ValueSerializerType.class.getClassLoader())) {
+      throw new IllegalStateException(
+          "Value serializer 'smile' requires"
+              + " 'tools.jackson.dataformat:jackson-dataformat-smile' on the classpath");
+    }
+  }
+}
@@ -0,0 +1,126 @@
+package io.github.suppie.spring.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.Deflater;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+class CompressingRedisSerializerTest {
+
+  private static final int MIN_SIZE = 1024;
+
+  private final CompressingRedisSerializer<byte[]> serializer =
+      new CompressingRedisSerializer<>(RedisSerializer.byteArray(), MIN_SIZE, Deflater.BEST_SPEED);
+
+  @Test
+  void compressesLargeValues() {
+    byte[] value =
+        "{\"name\":\"product\",\"price\":100}".repeat(100).getBytes(StandardCharsets.UTF_8);
+
+    byte[] serialized = serializer.serialize(value);
+
+    assertThat(serialized).isNotNull();
+    assertThat(serialized[0]).isEqualTo(CompressingRedisSerializer.DEFLATED);
+    assertThat(serialized.length).isLessThan(value.length / 10);
+    assertThat(serializer.deserialize(serialized)).isEqualTo(value);
+  }
+
+  @Test
+  void keepsSmallValuesAsIs() {
+    byte[] value = "{\"name\":\"product\"}".getBytes(StandardCharsets.UTF_8);
+
+    assertThat(serializer.serialize(value)).isEqualTo(value);
+    assertThat(serializer.deserialize(value)).isEqualTo(value);
+  }
+
+  @Test
+  void keepsIncompressibleValuesAsIs() {
+    byte[] value = new byte[MIN_SIZE * 4];
+    new Random(42).nextBytes(value);
+    value[0] = 1;
+
+    assertThat(serializer.serialize(value)).isEqualTo(value);
+  }
+
+  @Test
+  void escapesValuesStartingWithHeaderByte() {
+    byte[] headers = {CompressingRedisSerializer.STORED, CompressingRedisSerializer.DEFLATED};
+    for (byte header : headers) {
+      byte[] value = {header, 1, 2, 3};
+
+      byte[] serialized = serializer.serialize(value);
+
+      assertThat(serialized).hasSize(value.length + 1);
+      assertThat(serialized[0]).isEqualTo(CompressingRedisSerializer.STORED);
+      assertThat(serializer.deserialize(serialized)).isEqualTo(value);
+    }
+  }
+
+  @Test
+  void readsValuesWrittenWithoutCompression() {
+    RedisSerializer<Object> json = RedisSerializer.json();
+    CompressingRedisSerializer<Object> compressing =
+        new CompressingRedisSerializer<>(json, 0, Deflater.BEST_SPEED);
+    String value = "value".repeat(100);
+
+    assertThat(compressing.deserialize(json.serialize(value))).isEqualTo(value);
+    assertThat(compressing.deserialize(compressing.serialize(value))).isEqualTo(value);
+    assertThat(compressing.serialize(null)).isEqualTo(json.serialize(null));
+  }
+
+  @Test
+  void rejectsCorruptedValues() {
+    byte[] value = "value".repeat(1000).getBytes(StandardCharsets.UTF_8);
+    byte[] serialized = serializer.serialize(value);
+    assertThat(serialized).isNotNull();
+
+    byte[] truncated = Arrays.copyOf(serialized, serialized.length / 2);
+    assertThatThrownBy(() -> serializer.deserialize(truncated))
+        .isInstanceOf(SerializationException.class);
+
+    byte[] header = Arrays.copyOf(serialized, 3);
+    assertThatThrownBy(() -> serializer.deserialize(header))
+        .isInstanceOf(SerializationException.class);
+  }
+
+  @Test
+  void rejectsOversizedValuesBeforeInflating() {
+    byte[] value = "value".repeat(1000).getBytes(StandardCharsets.UTF_8);
+    CompressingRedisSerializer<byte[]> limited =
+        new CompressingRedisSerializer<>(
+            RedisSerializer.byteArray(), MIN_SIZE, Deflater.BEST_SPEED, value.length - 1);
+
+    assertThat(limited.serialize(value)).isEqualTo(value);
+
+    byte[] serialized = serializer.serialize(value);
+    assertThat(serialized).isNotNull();
+    assertThatThrownBy(() -> limited.deserialize(serialized))
+        .isInstanceOf(SerializationException.class)
+        .hasMessageContaining("exceeds maximum size");
+
+    byte[] forged = Arrays.copyOf(serialized, serialized.length);
+    ByteBuffer.wrap(forged, 1, Integer.BYTES).putInt(Integer.MAX_VALUE);
+    assertThatThrownBy(() -> serializer.deserialize(forged))
+        .isInstanceOf(SerializationException.class)
+        .hasMessageContaining("invalid length");
+  }
+
+  @Test
+  void rejectsInvalidSettings() {
+    RedisSerializer<byte[]> delegate = RedisSerializer.byteArray();
+    assertThatThrownBy(() -> new CompressingRedisSerializer<>(delegate, -1, Deflater.BEST_SPEED))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new CompressingRedisSerializer<>(delegate, MIN_SIZE, 10))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(
+            () -> new CompressingRedisSerializer<>(delegate, MIN_SIZE, Deflater.BEST_SPEED, 0))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
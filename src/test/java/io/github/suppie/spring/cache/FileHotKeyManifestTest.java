@@ -0,0 +1,47 @@
+package io.github.suppie.spring.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileHotKeyManifestTest {
+
+  @TempDir Path directory;
+
+  @Test
+  void keysAreReadInRecordedOrder() {
+    FileHotKeyManifest manifest = new FileHotKeyManifest(directory.resolve("manifest"));
+
+    manifest.write("cache", List.of("key-1", "ключ-2", "key-3"));
+
+    assertThat(manifest.read("cache", 10)).containsExactly("key-1", "ключ-2", "key-3");
+    assertThat(manifest.read("cache", 2)).containsExactly("key-1", "ключ-2");
+  }
+
+  @Test
+  void writesReplaceRecordedKeys() {
+    FileHotKeyManifest manifest = new FileHotKeyManifest(directory);
+
+    manifest.write("cache", List.of("key-1", "key-2"));
+    manifest.write("cache", List.of("key-3"));
+
+    assertThat(manifest.read("cache", 10)).containsExactly("key-3");
+    assertThat(directory).isDirectoryNotContaining("glob:**.tmp");
+  }
+
+  @Test
+  void cacheNamesAreListed() {
+    FileHotKeyManifest manifest = new FileHotKeyManifest(directory);
+
+    assertThat(manifest.cacheNames()).isEmpty();
+    assertThat(manifest.read("cache", 10)).isEmpty();
+
+    manifest.write("cache", List.of("key"));
+    manifest.write("users/by:id", List.of("key"));
+
+    assertThat(manifest.cacheNames()).containsExactlyInAnyOrder("cache", "users/by:id");
+  }
+}
@@ -0,0 +1,48 @@
+package io.github.suppie.spring.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class KeyBloomFilterTest {
+
+  @Test
+  void addedKeysAreAlwaysReported() {
+    KeyBloomFilter filter = new KeyBloomFilter(10_000, 0.01);
+    IntStream.range(0, 10_000).forEach(i -> filter.put("key-" + i));
+
+    assertThat(IntStream.range(0, 10_000).allMatch(i -> filter.mightContain("key-" + i)))
+        .isTrue();
+  }
+
+  @Test
+  void falsePositiveRateStaysCloseToConfigured() {
+    KeyBloomFilter filter = new KeyBloomFilter(10_000, 0.01);
+    IntStream.range(0, 10_000).forEach(i -> filter.put("key-" + i));
+
+    long falsePositives =
+        IntStream.range(0, 100_000).filter(i -> filter.mightContain("absent-" + i)).count();
+
+    assertThat(falsePositives).isLessThan(2_000);
+    assertThat(filter.expectedFalsePositiveProbability()).isLessThan(0.02);
+    assertThat(filter.memoryBytes()).isPositive();
+  }
+
+  @Test
+  void emptyFilterReportsNothing() {
+    KeyBloomFilter filter = new KeyBloomFilter(1_000, 0.01);
+
+    assertThat(filter.mightContain("key")).isFalse();
+    assertThat(filter.expectedFalsePositiveProbability()).isZero();
+  }
+
+  @Test
+  void invalidSizingIsRejected() {
+    assertThatThrownBy(() -> new KeyBloomFilter(0, 0.01))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new KeyBloomFilter(1_000, 1))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -24,12 +24,22 @@
 
 package io.github.suppie.spring.cache;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 import org.assertj.core.api.Assertions;
+import org.awaitility.Awaitility;
 import org.jspecify.annotations.NonNull;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -40,10 +50,13 @@ import org.springframework.boot.data.redis.autoconfigure.DataRedisAutoConfigurat
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
 import org.springframework.boot.test.system.CapturedOutput;
 import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.cache.Cache;
 import org.springframework.context.annotation.Bean;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJacksonJsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
@@ -245,6 +258,525 @@ class MultiLevelCacheAutoConfigurationTest extends AbstractRedisIntegrationTest
             });
   }
 
+  @Test
+  void redisTemplateUsesConfiguredValueSerializer() {
+    runner
+        .withPropertyValues("spring.data.redis.host=" + System.getProperty("HOST"))
+        .withPropertyValues("spring.data.redis.port=" + System.getProperty("PORT"))
+        .withPropertyValues("spring.cache.type=" + CacheType.REDIS.name().toLowerCase())
+        .withPropertyValues("spring.cache.multilevel.value-serializer=smile")
+        .withPropertyValues("spring.cache.multilevel.trusted-types=com.example")
+        .run(
+            context -> {
+              RedisTemplate<Object, Object> template =
+                  context.getBean(
+                      MultiLevelCacheAutoConfiguration.CACHE_REDIS_TEMPLATE_NAME,
+                      RedisTemplate.class);
+              Assertions.assertThat(template.getValueSerializer())
+                  .isInstanceOf(SmileRedisSerializer.class);
+
+              MultiLevelCache cache =
+                  (MultiLevelCache)
+                      context.getBean(MultiLevelCacheManager.class).getCache("smile");
+              Assertions.assertThat(cache).isNotNull();
+              cache.put("key", 42L);
+              cache.invalidateLocalCache();
+              Assertions.assertThat(cache.get("key", Long.class)).isEqualTo(42L);
+            });
+
+    runner
+        .withPropertyValues("spring.data.redis.host=" + System.getProperty("HOST"))
+        .withPropertyValues("spring.data.redis.port=" + System.getProperty("PORT"))
+        .withPropertyValues("spring.cache.type=" + CacheType.REDIS.name().toLowerCase())
+        .withPropertyValues("spring.cache.multilevel.value-serializer=jdk")
+        .run(
+            context -> {
+              RedisTemplate<Object, Object> template =
+                  context.getBean(
+                      MultiLevelCacheAutoConfiguration.CACHE_REDIS_TEMPLATE_NAME,
+                      RedisTemplate.class);
+              Assertions.assertThat(template.getValueSerializer())
+                  .isInstanceOf(JdkSerializationRedisSerializer.class);
+            });
+  }
+
+  @Test
+  void smileValueSerializerRequiresTrustedTypes() {
+    runner
+        .withPropertyValues("spring.data.redis.host=" + System.getProperty("HOST"))
+        .withPropertyValues("spring.data.redis.port=" + System.getProperty("PORT"))
+        .withPropertyValues("spring.cache.type=" + CacheType.REDIS.name().toLowerCase())
+        .withPropertyValues("spring.cache.multilevel.value-serializer=smile")
+        .run(
+            context ->
+                Assertions.assertThat(context.getStartupFailure())
+                    .isNotNull()
+                    .hasStackTraceContaining("spring.cache.multilevel.trusted-types"));
+  }
+
+  @Test
+  void cachesWithValueTypeUseTypedValueSerializer() {
+    runner
+        .withPropertyValues("spring.data.redis.host=" + System.getProperty("HOST"))
+        .withPropertyValues("spring.data.redis.port=" + System.getProperty("PORT"))
+        .withPropertyValues("spring.cache.type=" + CacheType.REDIS.name().toLowerCase())
+        .withPropertyValues("spring.cache.multilevel.caches.typed.value-type=java.lang.Long")
+        .run(
+            context -> {
+              MultiLevelCacheManager cacheManager = context.getBean(MultiLevelCacheManager.class);
+
+              MultiLevelCache typed = (MultiLevelCache) cacheManager.getCache("typed");
+              Assertions.assertThat(typed).isNotNull();
+              Assertions.assertThat(typed.getCacheConfiguration().getValueSerializationPair())
+                  .extracting(pair -> pair.getWriter().write(42L))
+                  .isEqualTo(ByteBuffer.wrap("42".getBytes(StandardCharsets.UTF_8)));
+
+              typed.put("key", 42L);
+              typed.invalidateLocalCache();
+              Assertions.assertThat(typed.get("key", Long.class)).isEqualTo(42L);
+
+              MultiLevelCache untyped = (MultiLevelCache) cacheManager.getCache("untyped");
+              Assertions.assertThat(untyped).isNotNull();
+              untyped.put("key", "value");
+              untyped.invalidateLocalCache();
+              Assertions.assertThat(untyped.get("key", String.class)).isEqualTo("value");
+            });
+  }
+
+  @Test
+  void cacheSettingsOverrideSharedSettings() {
+    runner
+        .withPropertyValues("spring.data.redis.host=" + System.getProperty("HOST"))
+        .withPropertyValues("spring.data.redis.port=" + System.getProperty("PORT"))
+        .withPropertyValues("spring.cache.type=" + CacheType.REDIS.name().toLowerCase())
+        .withPropertyValues("spring.cache.multilevel.caches.sessions.time-to-live=5m")
+        .withPropertyValues("spring.cache.multilevel.caches.sessions.local.max-size=10")
+        .withPropertyValues("spring.cache.multilevel.caches.sessions.local.expiry-jitter=0")
+        .run(
+            context -> {
+              MultiLevelCacheManager cacheManager = context.getBean(MultiLevelCacheManager.class);
+
+              MultiLevelCache sessions = (MultiLevelCache) cacheManager.getCache("sessions");
+              Assertions.assertThat(sessions).isNotNull();
+              Assertions.assertThat(
+                      sessions.getCacheConfiguration().getTtlFunction().getTimeToLive("k", "v"))
+                  .isEqualTo(Duration.ofMinutes(5));
+              Assertions.assertThat(
+                      sessions.getLocalCache().policy().eviction().orElseThrow().getMaximum())
+                  .isEqualTo(10);
+
+              sessions.put("key", "value");
+              Assertions.assertThat(
+                      sessions
+                          .getLocalCache()
+                          .policy()
+                          .expireVariably()
+                          .orElseThrow()
+                          .getExpiresAfter("key", TimeUnit.SECONDS))
+                  .hasValueSatisfying(
+                      seconds -> Assertions.assertThat(seconds).isBetween(149L, 150L));
+
+              MultiLevelCache catalog = (MultiLevelCache) cacheManager.getCache("catalog");
+              Assertions.assertThat(catalog).isNotNull();
+              Assertions.assertThat(
+                      catalog.getCacheConfiguration().getTtlFunction().getTimeToLive("k", "v"))
+                  .isEqualTo(Duration.ofHours(1));
+              Assertions.assertThat(
+                      catalog.getLocalCache().policy().eviction().orElseThrow().getMaximum())
+                  .isEqualTo(2000);
+              Assertions.assertThat(cacheManager.getProperties().getTimeToLive())
+                  .isEqualTo(Duration.ofHours(1));
+            });
+  }
+
+  @Test
+  void sharedLocalCacheBoundsAllCachesTogether() {
+    runner
+        .withPropertyValues("spring.data.redis.host=" + System.getProperty("HOST"))
+        .withPropertyValues("spring.data.redis.port=" + System.getProperty("PORT"))
+        .withPropertyValues("spring.cache.type=" + CacheType.REDIS.name().toLowerCase())
+        .withPropertyValues("spring.cache.multilevel.local.shared=true")
+        .withPropertyValues("spring.cache.multilevel.local.max-size=100")
+        .run(
+            context -> {
+              MultiLevelCacheManager cacheManager = context.getBean(MultiLevelCacheManager.class);
+              MultiLevelCache first = (MultiLevelCache) cacheManager.getCache("first");
+              MultiLevelCache second = (MultiLevelCache) cacheManager.getCache("second");
+              Assertions.assertThat(first).isNotNull();
+              Assertions.assertThat(second).isNotNull();
+
+              for (int i = 0; i < 80; i++) {
+                first.put("key-" + i, "first");
+                second.put("key-" + i, "second");
+              }
+              SharedLocalCache sharedLocalCache = cacheManager.getSharedLocalCache();
+              Assertions.assertThat(sharedLocalCache).isNotNull();
+              sharedLocalCache.cleanUp();
+
+              Assertions.assertThatThrownBy(first::getLocalCache)
+                  .isInstanceOf(IllegalStateException.class);
+              Assertions.assertThat(
+                      first.getLocalEntries().estimatedSize()
+                          + second.getLocalEntries().estimatedSize())
+                  .isEqualTo(100);
+
+              first.clear();
+              Assertions.assertThat(first.getLocalEntries().estimatedSize()).isZero();
+              Assertions.assertThat(second.getLocalEntries().estimatedSize()).isPositive();
+              Assertions.assertThat(second.get("key-79", String.class)).isEqualTo("second");
+            });
+  }
+
+  @Test
+  void sharedLocalCacheRejectsBoundsOfSingleCaches() {
+    runner
+        .withPropertyValues("spring.data.redis.host=" + System.getProperty("HOST"))
+        .withPropertyValues("spring.data.redis.port=" + System.getProperty("PORT"))
+        .withPropertyValues("spring.cache.type=" + CacheType.REDIS.name().toLowerCase())
+        .withPropertyValues("spring.cache.multilevel.local.shared=true")
+        .withPropertyValues("spring.cache.multilevel.caches.sessions.local.max-size=10")
+        .run(
+            context ->
+                Assertions.assertThat(context.getStartupFailure())
+                    .isNotNull()
+                    .hasStackTraceContaining("spring.cache.multilevel.caches.sessions.local"));
+  }
+
+  @Test
+  void serializedLocalCacheIsBoundedByBytes() {
+    runner
+        .withPropertyValues("spring.data.redis.host=" + System.getProperty("HOST"))
+        .withPropertyValues("spring.data.redis.port=" + System.getProperty("PORT"))
+        .withPropertyValues("spring.cache.type=" + CacheType.REDIS.name().toLowerCase())
+        .withPropertyValues("spring.cache.multilevel.local.storage-mode=serialized")
+        .withPropertyValues("spring.cache.multilevel.local.max-weight=64KB")
+        .run(
+            context -> {
+              MultiLevelCache cache =
+                  (MultiLevelCache)
+                      context.getBean(MultiLevelCacheManager.class).getCache("serialized");
+              Assertions.assertThat(cache).isNotNull();
+
+              String value = "value".repeat(1000);
+              for (int i = 0; i < 100; i++) {
+                cache.put("key-" + i, value);
+              }
+              cache.getLocalCache().cleanUp();
+
+              Assertions.assertThat(cache.getLocalCache().asMap().values())
+                  .isNotEmpty()
+                  .noneMatch(String.class::isInstance);
+              Assertions.assertThat(
+                      cache
+                          .getLocalCache()
+                          .policy()
+                          .eviction()
+                          .orElseThrow()
+                          .weightedSize()
+                          .orElseThrow())
+                  .isLessThanOrEqualTo(64 * 1024);
+              Assertions.assertThat(cache.getLocalCache().estimatedSize()).isLessThan(100);
+
+              for (Object key : List.copyOf(cache.getLocalCache().asMap().keySet())) {
+                Assertions.assertThat(cache.get(key, String.class)).isEqualTo(value);
+              }
+            });
+  }
+
+  @Test
+  void offHeapTierServesValuesMissingFromLocalCache() {
+    runner
+        .withPropertyValues("spring.data.redis.host=" + System.getProperty("HOST"))
+        .withPropertyValues("spring.data.redis.port=" + System.getProperty("PORT"))
+        .withPropertyValues("spring.cache.type=" + CacheType.REDIS.name().toLowerCase())
+        .withPropertyValues("spring.cache.multilevel.local.off-heap.enabled=true")
+        .withPropertyValues("spring.cache.multilevel.local.off-heap.capacity=16MB")
+        .withPropertyValues("spring.cache.multilevel.local.off-heap.slab-size=1MB")
+        .run(
+            context -> {
+              MultiLevelCache cache =
+                  (MultiLevelCache)
+                      context.getBean(MultiLevelCacheManager.class).getCache("off-heap");
+              Assertions.assertThat(cache).isNotNull();
+              OffHeapStore offHeapStore = cache.getOffHeapStore();
+              Assertions.assertThat(offHeapStore).isNotNull();
+
+              String value = "value".repeat(1000);
+              for (int i = 0; i < 100; i++) {
+                cache.put("key-" + i, value);
+              }
+              cache.getLocalCache().invalidateAll();
+
+              Assertions.assertThat(offHeapStore.size()).isEqualTo(100);
+              for (int i = 0; i < 100; i++) {
+                Assertions.assertThat(cache.get("key-" + i, String.class)).isEqualTo(value);
+              }
+              Assertions.assertThat(offHeapStore.hitCount()).isEqualTo(100);
+              Assertions.assertThat(cache.getLocalCache().estimatedSize()).isEqualTo(100);
+
+              cache.evict("key-0");
+              Assertions.assertThat(offHeapStore.get("key-0")).isNull();
+
+              cache.clear();
+              Assertions.assertThat(offHeapStore.size()).isZero();
+            });
+  }
+
+  @Test
+  void persistentTierServesUnchangedValuesAfterRestart(@TempDir Path directory) {
+    ApplicationContextRunner persistentRunner =
+        runner
+            .withPropertyValues("spring.data.redis.host=" + System.getProperty("HOST"))
+            .withPropertyValues("spring.data.redis.port=" + System.getProperty("PORT"))
+            .withPropertyValues("spring.cache.type=" + CacheType.REDIS.name().toLowerCase())
+            .withPropertyValues("spring.cache.multilevel.local.persistent.enabled=true")
+            .withPropertyValues("spring.cache.multilevel.local.persistent.directory=" + directory)
+            .withPropertyValues("spring.cache.multilevel.local.persistent.clock-skew=0ms");
+    String value = "value".repeat(100);
+
+    persistentRunner.run(
+        context -> {
+          MultiLevelCache cache =
+              (MultiLevelCache)
+                  context.getBean(MultiLevelCacheManager.class).getCache("persistent");
+          for (int i = 0; i < 10; i++) {
+            cache.put("key-" + i, value);
+          }
+          // Journaled puts are older than the time the tier is closed at
+          TimeUnit.MILLISECONDS.sleep(10);
+        });
+
+    // Another instance changes a key while the first one is down
+    persistentRunner
+        .withPropertyValues(
+            "spring.cache.multilevel.local.persistent.directory=" + directory.resolve("other"))
+        .run(
+            context -> {
+              Cache cache = context.getBean(MultiLevelCacheManager.class).getCache("persistent");
+              cache.evict("key-0");
+            });
+
+    persistentRunner.run(
+        context -> {
+          MultiLevelCache cache =
+              (MultiLevelCache)
+                  context.getBean(MultiLevelCacheManager.class).getCache("persistent");
+          PersistentStore persistentStore = cache.getPersistentStore();
+          Assertions.assertThat(persistentStore).isNotNull();
+          Awaitility.await().atMost(Duration.ofSeconds(5)).until(persistentStore::isReconciled);
+
+          Assertions.assertThat(persistentStore.size()).isEqualTo(9);
+          Assertions.assertThat(cache.getLocalCache().estimatedSize()).isZero();
+          for (int i = 1; i < 10; i++) {
+            Assertions.assertThat(cache.get("key-" + i, String.class)).isEqualTo(value);
+          }
+          Assertions.assertThat(persistentStore.hitCount()).isEqualTo(9);
+          Assertions.assertThat(cache.get("key-0", String.class)).isNull();
+        });
+  }
+
+  @Test
+  void warmupLoadsKeysRecordedByPreviousRun() {
+    ApplicationContextRunner warmupRunner =
+        runner
+            .withPropertyValues("spring.data.redis.host=" + System.getProperty("HOST"))
+            .withPropertyValues("spring.data.redis.port=" + System.getProperty("PORT"))
+            .withPropertyValues("spring.cache.type=" + CacheType.REDIS.name().toLowerCase())
+            .withPropertyValues("spring.cache.multilevel.topic=warmup:" + UUID.randomUUID())
+            .withPropertyValues("spring.cache.multilevel.warmup.enabled=true")
+            .withPropertyValues("spring.cache.multilevel.warmup.batch-size=3");
+
+    warmupRunner.run(
+        context -> {
+          Assertions.assertThat(context).hasSingleBean(MultiLevelCacheWarmer.class);
+          Cache cache = context.getBean(MultiLevelCacheManager.class).getCache("warmup");
+          for (int i = 0; i < 10; i++) {
+            cache.put("key-" + i, "value-" + i);
+          }
+        });
+
+    warmupRunner.run(
+        context -> {
+          MultiLevelCacheManager cacheManager = context.getBean(MultiLevelCacheManager.class);
+          Assertions.assertThat(cacheManager.getCacheNames()).containsExactly("warmup");
+
+          MultiLevelCache cache = (MultiLevelCache) cacheManager.getCache("warmup");
+          Assertions.assertThat(cache.getLocalCache().estimatedSize()).isEqualTo(10);
+          Assertions.assertThat(cache.getLocalCache().getIfPresent("key-9")).isEqualTo("value-9");
+        });
+  }
+
+  @Test
+  void localCacheIsBoundedByWeight() {
+    runner
+        .withPropertyValues("spring.data.redis.host=" + System.getProperty("HOST"))
+        .withPropertyValues("spring.data.redis.port=" + System.getProperty("PORT"))
+        .withPropertyValues("spring.cache.type=" + CacheType.REDIS.name().toLowerCase())
+        .withPropertyValues("spring.cache.multilevel.local.max-weight=64KB")
+        .run(
+            context -> {
+              MultiLevelCache cache =
+                  (MultiLevelCache)
+                      context.getBean(MultiLevelCacheManager.class).getCache("weighted");
+              Assertions.assertThat(cache).isNotNull();
+
+              // Values are weighed by their serialized size by default
+              for (int i = 0; i < 100; i++) {
+                cache.put("key-" + i, "value".repeat(1000));
+              }
+              cache.getLocalCache().cleanUp();
+
+              Assertions.assertThat(cache.getLocalCache().asMap().values())
+                  .isNotEmpty()
+                  .allMatch(String.class::isInstance);
+              Assertions.assertThat(
+                      cache
+                          .getLocalCache()
+                          .policy()
+                          .eviction()
+                          .orElseThrow()
+                          .weightedSize()
+                          .orElseThrow())
+                  .isLessThanOrEqualTo(64 * 1024);
+              Assertions.assertThat(cache.getLocalCache().estimatedSize()).isLessThan(100);
+            });
+
+    runner
+        .withPropertyValues("spring.data.redis.host=" + System.getProperty("HOST"))
+        .withPropertyValues("spring.data.redis.port=" + System.getProperty("PORT"))
+        .withPropertyValues("spring.cache.type=" + CacheType.REDIS.name().toLowerCase())
+        .withPropertyValues("spring.cache.multilevel.local.max-weight=10KB")
+        .withUserConfiguration(CustomWeigherConfiguration.class)
+        .run(
+            context -> {
+              MultiLevelCache cache =
+                  (MultiLevelCache)
+                      context.getBean(MultiLevelCacheManager.class).getCache("weighted");
+              Assertions.assertThat(cache).isNotNull();
+
+              for (int i = 0; i < 100; i++) {
+                cache.put("key-" + i, "value");
+              }
+              cache.getLocalCache().cleanUp();
+
+              Assertions.assertThat(cache.getLocalCache().estimatedSize())
+                  .isLessThanOrEqualTo(10 * 1024 / CustomWeigherConfiguration.WEIGHT);
+            });
+  }
+
+  @Test
+  void serializedLocalCacheRequiresMaxWeight() {
+    runner
+        .withPropertyValues("spring.data.redis.host=" + System.getProperty("HOST"))
+        .withPropertyValues("spring.data.redis.port=" + System.getProperty("PORT"))
+        .withPropertyValues("spring.cache.type=" + CacheType.REDIS.name().toLowerCase())
+        .withPropertyValues("spring.cache.cache-names=test")
+        .withPropertyValues("spring.cache.multilevel.local.storage-mode=serialized")
+        .run(
+            context ->
+                Assertions.assertThat(context.getStartupFailure())
+                    .isNotNull()
+                    .hasMessageContaining("spring.cache.multilevel.local.max-weight"));
+  }
+
+  @Test
+  void persistentTierIsRefusedInTrackingMode(@TempDir Path directory) {
+    runner
+        .withPropertyValues("spring.data.redis.host=" + System.getProperty("HOST"))
+        .withPropertyValues("spring.data.redis.port=" + System.getProperty("PORT"))
+        .withPropertyValues("spring.cache.type=" + CacheType.REDIS.name().toLowerCase())
+        .withPropertyValues("spring.cache.cache-names=test")
+        .withPropertyValues("spring.cache.multilevel.invalidation.mode=tracking")
+        .withPropertyValues("spring.cache.multilevel.local.persistent.enabled=true")
+        .withPropertyValues("spring.cache.multilevel.local.persistent.directory=" + directory)
+        .run(
+            context ->
+                Assertions.assertThat(context.getStartupFailure())
+                    .isNotNull()
+                    .hasStackTraceContaining("spring.cache.multilevel.local.persistent.enabled"));
+  }
+
+  @Test
+  void virtualThreadsExecutionFollowsRuntimeVersion() {
+    runner
+        .withPropertyValues("spring.data.redis.host=" + System.getProperty("HOST"))
+        .withPropertyValues("spring.data.redis.port=" + System.getProperty("PORT"))
+        .withPropertyValues("spring.cache.type=" + CacheType.REDIS.name().toLowerCase())
+        .withPropertyValues("spring.cache.multilevel.execution.virtual-threads=true")
+        .run(
+            context -> {
+              if (Runtime.version().feature() < 21) {
+                Assertions.assertThat(context.getStartupFailure())
+                    .isNotNull()
+                    .hasStackTraceContaining("requires Java 21 or newer");
+                return;
+              }
+
+              MultiLevelCacheExecution execution =
+                  context.getBean(
+                      MultiLevelCacheAutoConfiguration.CACHE_EXECUTION_NAME,
+                      MultiLevelCacheExecution.class);
+              Assertions.assertThat(execution.isVirtualThreads()).isTrue();
+
+              CompletableFuture<Boolean> virtual = new CompletableFuture<>();
+              execution
+                  .getExecutor()
+                  .execute(
+                      () ->
+                          virtual.complete(
+                              Thread.currentThread().toString().startsWith("VirtualThread")));
+              Assertions.assertThat(virtual.get(5, TimeUnit.SECONDS)).isTrue();
+            });
+  }
+
+  @Test
+  void readRoutingUsesDedicatedConnectionFactory() {
+    runner
+        .withPropertyValues("spring.data.redis.host=" + System.getProperty("HOST"))
+        .withPropertyValues("spring.data.redis.port=" + System.getProperty("PORT"))
+        .withPropertyValues("spring.cache.type=" + CacheType.REDIS.name().toLowerCase())
+        .withPropertyValues("spring.cache.multilevel.read-routing.mode=replica-preferred")
+        .withPropertyValues("spring.cache.multilevel.read-routing.read-your-writes-window=0s")
+        .run(
+            context -> {
+              Assertions.assertThat(context)
+                  .hasBean(MultiLevelCacheAutoConfiguration.CACHE_READ_CONNECTION_FACTORY_NAME);
+              // Other beans still get the application connection factory
+              Assertions.assertThat(context.getBean(RedisConnectionFactory.class))
+                  .isNotSameAs(
+                      context.getBean(
+                          MultiLevelCacheAutoConfiguration.CACHE_READ_CONNECTION_FACTORY_NAME));
+
+              // Window is disabled to read own writes via replicas, falling back to master here
+              MultiLevelCache cache =
+                  (MultiLevelCache)
+                      context.getBean(MultiLevelCacheManager.class).getCache("read-routing");
+              Assertions.assertThat(cache).isNotNull();
+              cache.put("key", "value");
+              cache.invalidateLocalCache();
+              Assertions.assertThat(cache.get("key", String.class)).isEqualTo("value");
+            });
+
+    runner
+        .withPropertyValues("spring.data.redis.host=" + System.getProperty("HOST"))
+        .withPropertyValues("spring.data.redis.port=" + System.getProperty("PORT"))
+        .withPropertyValues("spring.cache.type=" + CacheType.REDIS.name().toLowerCase())
+        .run(
+            context ->
+                Assertions.assertThat(context)
+                    .doesNotHaveBean(
+                        MultiLevelCacheAutoConfiguration.CACHE_READ_CONNECTION_FACTORY_NAME));
+  }
+
+  static class CustomWeigherConfiguration {
+    static final int WEIGHT = 1024;
+
+    @Bean
+    LocalCacheWeigher localCacheWeigher() {
+      return (cacheName, key, value) -> WEIGHT;
+    }
+  }
+
   static class CustomSerializerConfiguration {
     @Bean
     RedisSerializer<@NonNull Object> multiLevelCacheValueSerializer() {
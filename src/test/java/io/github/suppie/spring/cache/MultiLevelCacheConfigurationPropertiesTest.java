@@ -3,8 +3,11 @@ package io.github.suppie.spring.cache;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import io.github.suppie.spring.cache.MultiLevelCacheConfigurationProperties.CircuitBreakerProperties;
+import io.github.suppie.spring.cache.MultiLevelCacheConfigurationProperties.PerCacheProperties;
 import java.time.Duration;
+import java.util.Optional;
 import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
 
 class MultiLevelCacheConfigurationPropertiesTest {
 
@@ -55,4 +58,43 @@ class MultiLevelCacheConfigurationPropertiesTest {
     assertThat(configuration.usePrefix()).isTrue();
     assertThat(configuration.getKeyPrefixFor("books")).isEqualTo("ml-books::");
   }
+
+  @Test
+  void toRedisCacheConfigurationAppliesNullValuesTimeToLive() {
+    MultiLevelCacheConfigurationProperties properties =
+        new MultiLevelCacheConfigurationProperties();
+    properties.getNullValues().setEnabled(true);
+    properties.getNullValues().setTimeToLive(Duration.ofSeconds(30));
+
+    var ttlFunction = properties.toRedisCacheConfiguration().getTtlFunction();
+
+    assertThat(ttlFunction.getTimeToLive("key", NullValue.INSTANCE))
+        .isEqualTo(Duration.ofSeconds(30));
+    assertThat(ttlFunction.getTimeToLive("key", null)).isEqualTo(Duration.ofSeconds(30));
+    assertThat(ttlFunction.getTimeToLive("key", "value")).isEqualTo(properties.getTimeToLive());
+  }
+
+  @Test
+  void forCacheAppliesSettingsOfTheCache() {
+    MultiLevelCacheConfigurationProperties properties =
+        new MultiLevelCacheConfigurationProperties();
+    PerCacheProperties sessions = new PerCacheProperties();
+    sessions.setTimeToLive(Optional.of(Duration.ofMinutes(5)));
+    sessions.getLocal().setMaxSize(Optional.of(10));
+    sessions.getLocal().setExpirationMode(Optional.of(LocalExpirationMode.AFTER_READ));
+    properties.getCaches().put("sessions", sessions);
+
+    MultiLevelCacheConfigurationProperties sessionsProperties = properties.forCache("sessions");
+
+    assertThat(sessionsProperties.getTimeToLive()).isEqualTo(Duration.ofMinutes(5));
+    assertThat(sessionsProperties.getLocal().getMaxSize()).isEqualTo(10);
+    assertThat(sessionsProperties.getLocal().getExpirationMode())
+        .isEqualTo(LocalExpirationMode.AFTER_READ);
+    assertThat(sessionsProperties.getLocal().getExpiryJitter()).isEqualTo(50);
+    assertThat(sessionsProperties.getTopic()).isEqualTo(properties.getTopic());
+
+    assertThat(properties.getTimeToLive()).isEqualTo(Duration.ofHours(1));
+    assertThat(properties.getLocal().getMaxSize()).isEqualTo(2000);
+    assertThat(properties.forCache("catalog")).isSameAs(properties);
+  }
 }
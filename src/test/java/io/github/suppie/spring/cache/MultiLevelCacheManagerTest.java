@@ -34,6 +34,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.cache.autoconfigure.CacheAutoConfiguration;
 import org.springframework.boot.data.redis.autoconfigure.DataRedisAutoConfiguration;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.support.NullValue;
 import org.springframework.test.context.ActiveProfiles;
 
 @ActiveProfiles("test")
@@ -107,6 +108,109 @@ class MultiLevelCacheManagerTest extends AbstractRedisIntegrationTest {
           "Too big expiry jitter must throw an exception");
     }
 
+    @Test
+    void negativeRefreshAhead() {
+      MultiLevelCacheConfigurationProperties properties =
+          new MultiLevelCacheConfigurationProperties();
+      properties.getLocal().setRefreshAhead(-1);
+
+      Assertions.assertThrows(
+          IllegalArgumentException.class,
+          () -> new RandomizedLocalExpiry(properties),
+          "Negative refresh ahead must throw an exception");
+    }
+
+    @Test
+    void tooBigRefreshAhead() {
+      MultiLevelCacheConfigurationProperties properties =
+          new MultiLevelCacheConfigurationProperties();
+      properties.getLocal().setRefreshAhead(100);
+
+      Assertions.assertThrows(
+          IllegalArgumentException.class,
+          () -> new RandomizedLocalExpiry(properties),
+          "Too big refresh ahead must throw an exception");
+    }
+
+    @Test
+    void refreshWindowIsShareOfLocalLifetime() {
+      MultiLevelCacheConfigurationProperties properties =
+          new MultiLevelCacheConfigurationProperties();
+      properties.setTimeToLive(Duration.ofSeconds(10));
+      properties.getLocal().setRefreshAhead(20);
+      properties.getLocal().setExpiryJitter(0);
+
+      Assertions.assertEquals(
+          Duration.ofSeconds(1).toNanos(),
+          new RandomizedLocalExpiry(properties).refreshWindow("key"),
+          "Refresh window must be a share of the local lifetime");
+
+      properties.getLocal().setExpiryJitter(50);
+      RandomizedLocalExpiry expiry = new RandomizedLocalExpiry(properties);
+      for (int i = 0; i < 100; i++) {
+        String key = "key-" + i;
+        long lifetime = expiry.expireAfterCreate(key, "value", 0);
+        Assertions.assertEquals(
+            lifetime,
+            expiry.expireAfterCreate(key, "value", 0),
+            "Lifetime of a key must be known without storing it");
+        Assertions.assertEquals(
+            (long) (lifetime * 0.2d),
+            expiry.refreshWindow(key),
+            "Refresh window must be a share of the jittered lifetime of the entry");
+      }
+    }
+
+    @Test
+    void refreshAheadWithExpirationAfterRead() {
+      MultiLevelCacheConfigurationProperties properties =
+          new MultiLevelCacheConfigurationProperties();
+      properties.getLocal().setRefreshAhead(20);
+      properties.getLocal().setExpirationMode(LocalExpirationMode.AFTER_READ);
+
+      Assertions.assertThrows(
+          IllegalArgumentException.class,
+          () -> new RandomizedLocalExpiry(properties),
+          "Refresh ahead must be rejected when reads extend local lifetime");
+    }
+
+    @Test
+    void nullValuesExpireAfterDedicatedTimeToLive() {
+      MultiLevelCacheConfigurationProperties properties =
+          new MultiLevelCacheConfigurationProperties();
+      properties.getNullValues().setEnabled(true);
+      properties.getNullValues().setTimeToLive(Duration.ofSeconds(5));
+
+      RandomizedLocalExpiry expiry = new RandomizedLocalExpiry(properties);
+      long nullTimeToLive = Duration.ofSeconds(5).toNanos();
+
+      Assertions.assertEquals(
+          nullTimeToLive,
+          expiry.expireAfterCreate("key", NullValue.INSTANCE, 0),
+          "Null value must expire after dedicated time to live");
+      Assertions.assertEquals(
+          nullTimeToLive,
+          expiry.expireAfterUpdate("key", NullValue.INSTANCE, 0, Long.MAX_VALUE),
+          "Null value update must expire after dedicated time to live");
+      Assertions.assertEquals(
+          1L,
+          expiry.expireAfterRead("key", NullValue.INSTANCE, 0, 1L),
+          "Reading null value must not extend its lifetime");
+    }
+
+    @Test
+    void zeroNullValuesTimeToLive() {
+      MultiLevelCacheConfigurationProperties properties =
+          new MultiLevelCacheConfigurationProperties();
+      properties.getNullValues().setEnabled(true);
+      properties.getNullValues().setTimeToLive(Duration.ZERO);
+
+      Assertions.assertThrows(
+          IllegalArgumentException.class,
+          () -> new RandomizedLocalExpiry(properties),
+          "Zero null values TTL must throw an exception");
+    }
+
     @Test
     void negativeLocalTimeToLive() {
       MultiLevelCacheConfigurationProperties properties =
@@ -0,0 +1,118 @@
+package io.github.suppie.spring.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.cache.autoconfigure.CacheAutoConfiguration;
+import org.springframework.boot.data.redis.autoconfigure.DataRedisAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+@ActiveProfiles("test")
+@SpringBootTest(
+    classes = {
+      DataRedisAutoConfiguration.class,
+      CacheAutoConfiguration.class,
+      MultiLevelCacheAutoConfiguration.class
+    },
+    properties = {
+      // Databases of the same server stand in for separate Redis servers
+      "spring.cache.multilevel.sharding.nodes[0]=redis://${HOST}:${PORT}/1",
+      "spring.cache.multilevel.sharding.nodes[1]=redis://${HOST}:${PORT}/2"
+    })
+class MultiLevelCacheShardingTestcontainersTest extends AbstractRedisIntegrationTest {
+
+  private static final int ENTRIES = 100;
+
+  @Autowired MultiLevelCacheManager cacheManager;
+
+  @Autowired
+  @Qualifier(MultiLevelCacheAutoConfiguration.CACHE_REDIS_SHARDS_NAME)
+  RedisShards shards;
+
+  @Autowired
+  @Qualifier(MultiLevelCacheAutoConfiguration.CACHE_REDIS_TEMPLATE_NAME)
+  RedisTemplate<Object, Object> multiLevelCacheRedisTemplate;
+
+  @Test
+  void entriesAreSpreadBetweenShards() {
+    final String name = "entriesAreSpreadBetweenShards";
+
+    MultiLevelCache cache = (MultiLevelCache) cacheManager.getCache(name);
+    Assertions.assertNotNull(cache, "Cache should be automatically created upon request");
+    Assertions.assertEquals(2, shards.getShards().size(), "Each node must become a shard");
+
+    keys(name).forEach(key -> cache.put(key, key));
+
+    Map<String, Integer> counts = countEntries(cache);
+    Assertions.assertTrue(counts.values().stream().allMatch(count -> count > 0), counts::toString);
+    Assertions.assertEquals(
+        ENTRIES, counts.values().stream().mapToInt(Integer::intValue).sum(), counts::toString);
+    Assertions.assertTrue(
+        multiLevelCacheRedisTemplate.keys(cache.redisKeyPrefix() + "*").isEmpty(),
+        "Application Redis must not store entries");
+
+    cache.invalidateLocalCache();
+    keys(name).forEach(key -> Assertions.assertEquals(key, cache.get(key, String.class)));
+
+    cache.invalidateLocalCache();
+    Map<String, String> values =
+        cache.getAll(
+            keys(name),
+            misses -> {
+              throw new IllegalStateException("All values must be found in shards: " + misses);
+            });
+    Assertions.assertEquals(ENTRIES, values.size());
+
+    cache.evictAll(keys(name).subList(0, ENTRIES / 2));
+    Assertions.assertEquals(
+        ENTRIES / 2, countEntries(cache).values().stream().mapToInt(Integer::intValue).sum());
+
+    cache.clear();
+    Assertions.assertEquals(
+        0, countEntries(cache).values().stream().mapToInt(Integer::intValue).sum());
+  }
+
+  @Test
+  void bulkWritesAreSpreadBetweenShards() {
+    final String name = "bulkWritesAreSpreadBetweenShards";
+
+    MultiLevelCache cache = (MultiLevelCache) cacheManager.getCache(name);
+    Assertions.assertNotNull(cache, "Cache should be automatically created upon request");
+
+    Map<String, String> entries = new LinkedHashMap<>();
+    keys(name).forEach(key -> entries.put(key, key));
+    cache.putAll(entries);
+
+    Map<String, Integer> counts = countEntries(cache);
+    Assertions.assertTrue(counts.values().stream().allMatch(count -> count > 0), counts::toString);
+
+    cache.invalidateLocalCache();
+    keys(name).forEach(key -> Assertions.assertEquals(key, cache.get(key, String.class)));
+  }
+
+  private Map<String, Integer> countEntries(MultiLevelCache cache) {
+    byte[] pattern = (cache.redisKeyPrefix() + "*").getBytes(StandardCharsets.UTF_8);
+
+    Map<String, Integer> counts = new HashMap<>();
+    for (RedisShards.Shard shard : shards.getShards()) {
+      Set<byte[]> keys =
+          shards.execute(shard, connection -> connection.keyCommands().keys(pattern));
+      counts.put(shard.name(), keys == null ? 0 : keys.size());
+    }
+    return counts;
+  }
+
+  private static List<String> keys(String name) {
+    return IntStream.range(0, ENTRIES).mapToObj(i -> name + "-" + i).toList();
+  }
+}
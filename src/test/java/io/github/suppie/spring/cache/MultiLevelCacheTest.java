@@ -30,6 +30,7 @@ import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig.SlidingWindowT
 import io.github.suppie.spring.cache.MultiLevelCacheConfigurationProperties.CircuitBreakerProperties;
 import java.time.Duration;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
@@ -44,6 +45,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.cache.autoconfigure.CacheAutoConfiguration;
 import org.springframework.boot.data.redis.autoconfigure.DataRedisAutoConfiguration;
@@ -269,4 +271,38 @@ class MultiLevelCacheTest {
       executor.shutdownNow();
     }
   }
+
+  @Test
+  void openCircuitBreakerSkipsRedisAndDefersEvictions() {
+    final String key = "openCircuitBreakerSkipsRedisAndDefersEvictions";
+    final String putKey = key + "-put";
+
+    MultiLevelCache cache = (MultiLevelCache) cacheManager.getCache(key);
+    Assertions.assertNotNull(cache, "Cache should be automatically created upon request");
+
+    CircuitBreaker cb = cacheManager.getCircuitBreaker();
+    cb.transitionToForcedOpenState();
+
+    try {
+      Mockito.clearInvocations(redisConnectionFactory);
+
+      Assertions.assertEquals(key, cache.get(key, () -> key), "Loader must supply the value");
+      Assertions.assertDoesNotThrow(() -> cache.put(putKey, key));
+      Assertions.assertEquals(key, cache.get(putKey, () -> null), "Local cache must be used");
+      Assertions.assertDoesNotThrow(() -> cache.evict(key));
+
+      Mockito.verifyNoInteractions(redisConnectionFactory);
+      Assertions.assertEquals(
+          Set.of(key, putKey),
+          cache.getPendingEvictions(),
+          "Evictions must be deferred until Redis is available");
+
+      Assertions.assertDoesNotThrow(cache::clear);
+      Assertions.assertTrue(cache.isPendingClear(), "Clear must be deferred as well");
+      Assertions.assertTrue(
+          cache.getPendingEvictions().isEmpty(), "Deferred clear must supersede evictions");
+    } finally {
+      cb.transitionToClosedState();
+    }
+  }
 }
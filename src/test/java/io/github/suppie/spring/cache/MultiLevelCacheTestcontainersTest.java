@@ -26,7 +26,21 @@ package io.github.suppie.spring.cache;
 
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 import org.awaitility.Awaitility;
 import org.jspecify.annotations.NonNull;
 import org.junit.jupiter.api.Assertions;
@@ -39,6 +53,7 @@ import org.springframework.boot.cache.autoconfigure.CacheProperties;
 import org.springframework.boot.data.redis.autoconfigure.DataRedisAutoConfiguration;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.listener.ChannelTopic;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
@@ -132,6 +147,218 @@ class MultiLevelCacheTestcontainersTest extends AbstractRedisIntegrationTest {
         () -> cache.get(key, () -> key), "Second call must utilize cache");
   }
 
+  @Test
+  void retrieveTest() throws Exception {
+    final String key = "retrieveTest";
+
+    MultiLevelCache cache = (MultiLevelCache) cacheManager.getCache(key);
+    Assertions.assertNotNull(cache, "Cache should be automatically created upon request");
+
+    Assertions.assertNull(
+        cache.retrieve(key).get(AWAIT_SHORT.toMillis(), TimeUnit.MILLISECONDS),
+        "Entity was not yet created");
+
+    cache.nativePut(key, key);
+
+    Cache.ValueWrapper redisValue =
+        cache.retrieve(key).get(AWAIT_SHORT.toMillis(), TimeUnit.MILLISECONDS);
+    Assertions.assertNotNull(redisValue, "Entity was present in Redis");
+    Assertions.assertEquals(key, redisValue.get(), "Redis value must be returned");
+    Assertions.assertEquals(
+        key,
+        cache.getLocalCache().getIfPresent(key),
+        "Local cache must load value during retrieve");
+
+    CompletableFuture<Cache.ValueWrapper> localValue = cache.retrieve(key);
+    Assertions.assertTrue(localValue.isDone(), "Local cache hit must complete synchronously");
+    Assertions.assertEquals(key, localValue.get().get(), "Local value must be returned");
+  }
+
+  @Test
+  void retrieveLocalHitDoesNotQueryRedis() throws Exception {
+    final String key = "retrieveLocalHitDoesNotQueryRedis";
+
+    MultiLevelCache cache = (MultiLevelCache) cacheManager.getCache(key);
+    Assertions.assertNotNull(cache, "Cache should be automatically created upon request");
+
+    cache.getLocalCache().put(key, key);
+    Assertions.assertNull(cache.nativeLookup(key), "Redis must not contain value");
+
+    CompletableFuture<Cache.ValueWrapper> localValue = cache.retrieve(key);
+    Assertions.assertTrue(localValue.isDone(), "Local cache hit must complete synchronously");
+    Cache.ValueWrapper valueWrapper = localValue.get();
+    Assertions.assertNotNull(valueWrapper, "Local value must be returned without Redis query");
+    Assertions.assertEquals(key, valueWrapper.get(), "Local value must be returned");
+  }
+
+  @Test
+  void retrieveWithLoaderTest() throws Exception {
+    final String key = "retrieveWithLoaderTest";
+    final int concurrency = 16;
+
+    MultiLevelCache cache = (MultiLevelCache) cacheManager.getCache(key);
+    Assertions.assertNotNull(cache, "Cache should be automatically created upon request");
+
+    AtomicInteger loaderCalls = new AtomicInteger();
+    CompletableFuture<String> loaderResult = new CompletableFuture<>();
+    Supplier<CompletableFuture<String>> loader =
+        () -> {
+          loaderCalls.incrementAndGet();
+          return loaderResult;
+        };
+
+    List<CompletableFuture<String>> futures =
+        IntStream.range(0, concurrency).mapToObj(i -> cache.retrieve(key, loader)).toList();
+
+    Awaitility.await()
+        .pollInterval(AWAIT_POLL)
+        .atMost(AWAIT_SHORT)
+        .untilAsserted(() -> Assertions.assertEquals(1, loaderCalls.get()));
+    loaderResult.complete(key);
+
+    for (CompletableFuture<String> future : futures) {
+      Assertions.assertEquals(key, future.get(AWAIT_SHORT.toMillis(), TimeUnit.MILLISECONDS));
+    }
+    Assertions.assertEquals(
+        1, loaderCalls.get(), "Loader must be invoked only once for concurrent retrievals");
+
+    Awaitility.await()
+        .pollInterval(AWAIT_POLL)
+        .atMost(AWAIT_SHORT)
+        .untilAsserted(
+            () -> {
+              Assertions.assertEquals(
+                  key, cache.nativeGet(key), "Underlying cache must contain value");
+              Assertions.assertEquals(
+                  key, cache.getLocalCache().getIfPresent(key), "Local cache must contain value");
+            });
+  }
+
+  @Test
+  void getAllTest() {
+    final String key = "getAllTest";
+    final String localHit = key + "-local";
+    final String redisHit = key + "-redis";
+    final String loaded = key + "-loaded";
+    final String absent = key + "-absent";
+
+    MultiLevelCache cache = (MultiLevelCache) cacheManager.getCache(key);
+    Assertions.assertNotNull(cache, "Cache should be automatically created upon request");
+
+    Assertions.assertDoesNotThrow(() -> cache.put(localHit, localHit));
+    Assertions.assertDoesNotThrow(() -> cache.nativePut(redisHit, redisHit));
+
+    List<Set<String>> loaderCalls = new ArrayList<>();
+    Function<Set<String>, Map<String, String>> bulkLoader =
+        missing -> {
+          loaderCalls.add(Set.copyOf(missing));
+          return missing.contains(loaded) ? Map.of(loaded, loaded) : Map.of();
+        };
+
+    Map<String, String> values =
+        cache.getAll(List.of(localHit, redisHit, loaded, absent), bulkLoader);
+
+    Assertions.assertEquals(
+        List.of(localHit, redisHit, loaded),
+        List.copyOf(values.keySet()),
+        "Values must follow requested order and omit absent keys");
+    values.forEach((k, v) -> Assertions.assertEquals(k, v, "Value must match the key"));
+    Assertions.assertEquals(
+        List.of(Set.of(loaded, absent)),
+        loaderCalls,
+        "Bulk loader must be called once with keys missing in both levels");
+    Assertions.assertEquals(
+        redisHit,
+        cache.getLocalCache().getIfPresent(cache.toLocalKey(redisHit)),
+        "Redis values must be stored in local cache");
+    Assertions.assertEquals(
+        loaded,
+        cache.getLocalCache().getIfPresent(cache.toLocalKey(loaded)),
+        "Loaded values must be stored in local cache");
+
+    cache.getLocalCache().invalidateAll();
+    Assertions.assertEquals(
+        Map.of(loaded, loaded),
+        cache.getAll(List.of(loaded), bulkLoader),
+        "Loaded values must be stored in Redis");
+    Assertions.assertEquals(1, loaderCalls.size(), "Bulk loader must not be called again");
+  }
+
+  @Test
+  void putAllAndEvictAllTest() {
+    final String key = "putAllAndEvictAllTest";
+    final String first = key + "-first";
+    final String second = key + "-second";
+
+    MultiLevelCache cache = (MultiLevelCache) cacheManager.getCache(key);
+    Assertions.assertNotNull(cache, "Cache should be automatically created upon request");
+
+    // Simulates another application instance, listener is registered for the autowired manager
+    MultiLevelCacheManager remoteManager =
+        new MultiLevelCacheManager(
+            cachePropertiesProvider, cacheProperties, multiLevelCacheRedisTemplate, circuitBreaker);
+    MultiLevelCache remoteCache = (MultiLevelCache) remoteManager.getCache(key);
+    Assertions.assertNotNull(remoteCache, "Cache should be automatically created upon request");
+
+    Assertions.assertDoesNotThrow(() -> remoteCache.putAll(Map.of(first, first, second, second)));
+    for (String k : List.of(first, second)) {
+      Assertions.assertEquals(k, remoteCache.nativeGet(k), "Underlying cache must contain value");
+      Assertions.assertEquals(
+          k, remoteCache.getLocalCache().getIfPresent(k), "Local cache must contain value");
+      Assertions.assertEquals(k, cache.get(k, String.class), "Value must be read from Redis");
+    }
+
+    Assertions.assertDoesNotThrow(() -> remoteCache.evictAll(List.of(first, second)));
+    for (String k : List.of(first, second)) {
+      Assertions.assertNull(remoteCache.nativeGet(k), "Underlying cache must not contain value");
+      Assertions.assertNull(
+          remoteCache.getLocalCache().getIfPresent(k), "Local cache must not contain value");
+    }
+
+    Awaitility.await()
+        .atMost(AWAIT_SHORT)
+        .pollInterval(AWAIT_POLL)
+        .untilAsserted(
+            () -> {
+              Assertions.assertNull(
+                  cache.getLocalCache().getIfPresent(first),
+                  "Local cache must be invalidated by eviction notification");
+              Assertions.assertNull(
+                  cache.getLocalCache().getIfPresent(second),
+                  "Local cache must be invalidated by eviction notification");
+            });
+  }
+
+  @Test
+  void immutableKeyConversionIsMemoized() {
+    final String key = "immutableKeyConversionIsMemoized";
+    final UUID uuid = UUID.randomUUID();
+
+    MultiLevelCache cache = (MultiLevelCache) cacheManager.getCache(key);
+    Assertions.assertNotNull(cache, "Cache should be automatically created upon request");
+
+    String localKey = cache.toLocalKey(uuid);
+    Assertions.assertEquals(uuid.toString(), localKey, "Key must be converted to String");
+    Assertions.assertSame(
+        localKey,
+        cache.toLocalKey(UUID.fromString(uuid.toString())),
+        "Conversion of an equal key must be reused");
+    Assertions.assertEquals("42", cache.toLocalKey(42L), "Key must be converted to String");
+
+    // Records might hold mutable components, so their conversions are not reused
+    List<Long> ids = new ArrayList<>(List.of(1L));
+    IdsKey idsKey = new IdsKey(ids);
+    String idsLocalKey = cache.toLocalKey(idsKey);
+    ids.add(2L);
+    Assertions.assertNotEquals(
+        idsLocalKey, cache.toLocalKey(idsKey), "Conversion of a record must not be reused");
+
+    Assertions.assertDoesNotThrow(() -> cache.put(uuid, key));
+    Assertions.assertEquals(key, cache.nativeGet(uuid), "Underlying cache must contain value");
+    Assertions.assertEquals(
+        key, cache.getLocalCache().getIfPresent(localKey), "Local cache must contain value");
+  }
+
   @Test
   void putNullValueTest() {
     final String key = "putNullValueTest";
@@ -231,6 +458,202 @@ class MultiLevelCacheTestcontainersTest extends AbstractRedisIntegrationTest {
     Assertions.assertNull(cache.getLocalCache().getIfPresent(key), "Local cache must evict value");
   }
 
+  @Test
+  void refreshAheadRenewsLocalEntryFromRedis() {
+    final String key = "refreshAheadRenewsLocalEntryFromRedis";
+
+    MultiLevelCacheConfigurationProperties properties =
+        new MultiLevelCacheConfigurationProperties();
+    properties.setTopic(cacheProperties.getTopic());
+    properties.getLocal().setTimeToLive(Optional.of(Duration.ofSeconds(2)));
+    properties.getLocal().setExpiryJitter(0);
+    properties.getLocal().setRefreshAhead(90);
+
+    MultiLevelCacheManager refreshingManager =
+        new MultiLevelCacheManager(
+            cachePropertiesProvider, properties, multiLevelCacheRedisTemplate, circuitBreaker);
+    MultiLevelCache cache = (MultiLevelCache) refreshingManager.getCache(key);
+    Assertions.assertNotNull(cache, "Cache should be automatically created upon request");
+
+    String localKey = cache.toLocalKey(key);
+    Assertions.assertDoesNotThrow(() -> cache.put(key, "initial"));
+    Assertions.assertDoesNotThrow(() -> cache.nativePut(key, "updated"));
+
+    Awaitility.await()
+        .pollInterval(AWAIT_POLL)
+        .atMost(AWAIT_SHORT)
+        .untilAsserted(
+            () -> {
+              Assertions.assertNotNull(cache.lookup(key), "Local entry must still be served");
+              Assertions.assertEquals(
+                  "updated",
+                  cache.getLocalCache().getIfPresent(localKey),
+                  "Local entry must be refreshed from Redis before it expires");
+            });
+  }
+
+  @Test
+  void earlyRecomputeRecomputesOnlyWhenDue() {
+    final String key = "earlyRecomputeRecomputesOnlyWhenDue";
+
+    MultiLevelCacheConfigurationProperties properties =
+        new MultiLevelCacheConfigurationProperties();
+    properties.setTopic(cacheProperties.getTopic());
+    properties.getEarlyRecompute().setEnabled(true);
+
+    MultiLevelCacheManager recomputingManager =
+        new MultiLevelCacheManager(
+            cachePropertiesProvider, properties, multiLevelCacheRedisTemplate, circuitBreaker);
+    MultiLevelCache cache = (MultiLevelCache) recomputingManager.getCache(key);
+    Assertions.assertNotNull(cache, "Cache should be automatically created upon request");
+
+    String localKey = cache.toLocalKey(key);
+    long farFromExpiration = System.currentTimeMillis() + Duration.ofHours(1).toMillis();
+    long closeToExpiration = System.currentTimeMillis() + Duration.ofSeconds(1).toMillis();
+    long expensive = Long.MAX_VALUE / 4;
+
+    cache.nativePut(key, new MultiLevelCacheEntry("current", 1L, farFromExpiration));
+    Assertions.assertEquals(
+        "current",
+        cache.get(key, () -> "recomputed"),
+        "Value far from expiration must be returned as is");
+
+    cache.getLocalCache().invalidate(localKey);
+    cache.nativePut(key, new MultiLevelCacheEntry("current", expensive, closeToExpiration));
+    Assertions.assertEquals(
+        "recomputed",
+        cache.get(key, () -> "recomputed"),
+        "Expensive value close to expiration must be recomputed");
+
+    cache.getLocalCache().invalidate(localKey);
+    cache.nativePut(key, new MultiLevelCacheEntry("current", expensive, closeToExpiration));
+    Assertions.assertEquals(
+        "current",
+        cache.get(
+            key,
+            () -> {
+              throw new IllegalStateException("Backing store is not available");
+            }),
+        "Failed early recomputation must fall back to the current value");
+  }
+
+  @Test
+  void earlyRecomputeMetadataIsStoredForAsyncLoads() {
+    final String key = "earlyRecomputeMetadataIsStoredForAsyncLoads";
+
+    MultiLevelCacheConfigurationProperties properties =
+        new MultiLevelCacheConfigurationProperties();
+    properties.setTopic(cacheProperties.getTopic());
+    properties.getEarlyRecompute().setEnabled(true);
+
+    MultiLevelCacheManager recomputingManager =
+        new MultiLevelCacheManager(
+            cachePropertiesProvider, properties, multiLevelCacheRedisTemplate, circuitBreaker);
+    MultiLevelCache cache = (MultiLevelCache) recomputingManager.getCache(key);
+    Assertions.assertNotNull(cache, "Cache should be automatically created upon request");
+
+    Assertions.assertEquals(
+        "loaded",
+        cache.retrieve(key, () -> CompletableFuture.completedFuture("loaded")).join(),
+        "Value must be loaded");
+
+    Awaitility.await()
+        .pollInterval(AWAIT_POLL)
+        .atMost(AWAIT_SHORT)
+        .untilAsserted(
+            () -> {
+              MultiLevelCacheEntry entry =
+                  Assertions.assertInstanceOf(
+                      MultiLevelCacheEntry.class,
+                      cache.nativeLookup(key),
+                      "Asynchronously loaded value must carry early recomputation metadata");
+              Assertions.assertEquals("loaded", entry.getValue());
+            });
+  }
+
+  @Test
+  void nullValuesAreCachedInBothTiers() {
+    final String key = "nullValuesAreCachedInBothTiers";
+
+    MultiLevelCacheConfigurationProperties properties =
+        new MultiLevelCacheConfigurationProperties();
+    properties.setTopic(cacheProperties.getTopic());
+    properties.getNullValues().setEnabled(true);
+
+    MultiLevelCacheManager negativeCachingManager =
+        new MultiLevelCacheManager(
+            cachePropertiesProvider, properties, multiLevelCacheRedisTemplate, circuitBreaker);
+    MultiLevelCache cache = (MultiLevelCache) negativeCachingManager.getCache(key);
+    Assertions.assertNotNull(cache, "Cache should be automatically created upon request");
+
+    String localKey = cache.toLocalKey(key);
+    AtomicInteger loaderCalls = new AtomicInteger();
+    Callable<Object> loader =
+        () -> {
+          loaderCalls.incrementAndGet();
+          return null;
+        };
+
+    Assertions.assertNull(cache.get(key, loader), "Absent value must be returned as null");
+    Assertions.assertEquals(
+        NullValue.INSTANCE,
+        cache.getLocalCache().getIfPresent(localKey),
+        "Local cache must contain null value marker");
+
+    cache.getLocalCache().invalidate(localKey);
+    Cache.ValueWrapper wrapper = cache.get(key);
+    Assertions.assertNotNull(wrapper, "Redis must contain null value marker");
+    Assertions.assertNull(wrapper.get(), "Cached null value must be returned as null");
+
+    Assertions.assertNull(cache.get(key, loader), "Absent value must be served from cache");
+    Assertions.assertEquals(1, loaderCalls.get(), "Value loader must be invoked only once");
+
+    cache.put(key, key);
+    Assertions.assertEquals(key, cache.get(key, loader), "Put must replace null value marker");
+  }
+
+  @Test
+  void bloomFilterSkipsRedisForAbsentKeys() {
+    final String key = "bloomFilterSkipsRedisForAbsentKeys";
+
+    MultiLevelCacheConfigurationProperties properties =
+        new MultiLevelCacheConfigurationProperties();
+    properties.setTopic(cacheProperties.getTopic());
+    properties.getBloomFilter().setEnabled(true);
+
+    MultiLevelCacheManager bloomManager =
+        new MultiLevelCacheManager(
+            cachePropertiesProvider, properties, multiLevelCacheRedisTemplate, circuitBreaker);
+    MultiLevelCache cache = (MultiLevelCache) bloomManager.getCache(key);
+    Assertions.assertNotNull(cache, "Cache should be automatically created upon request");
+
+    CacheKeyFilter keyFilter = cache.getKeyFilter();
+    Assertions.assertNotNull(keyFilter, "Bloom filter must be enabled");
+    Awaitility.await().pollInterval(AWAIT_POLL).atMost(AWAIT_SHORT).until(keyFilter::isReady);
+
+    Assertions.assertDoesNotThrow(() -> cache.nativePut(key, key));
+    Assertions.assertNull(cache.lookup(key), "Unknown key must not be queried in Redis");
+    Assertions.assertEquals(1, keyFilter.skippedCount(), "Skipped lookup must be counted");
+
+    cache.invalidateLocalEntry(cache.toLocalKey(key));
+    Assertions.assertEquals(key, cache.lookup(key), "Remotely written key must be queried");
+
+    MultiLevelCacheManager restartedManager =
+        new MultiLevelCacheManager(
+            cachePropertiesProvider, properties, multiLevelCacheRedisTemplate, circuitBreaker);
+    MultiLevelCache restartedCache = (MultiLevelCache) restartedManager.getCache(key);
+    Assertions.assertNotNull(restartedCache, "Restarted cache should be created upon request");
+
+    CacheKeyFilter restartedKeyFilter = restartedCache.getKeyFilter();
+    Assertions.assertNotNull(restartedKeyFilter, "Bloom filter must be enabled");
+    Awaitility.await()
+        .pollInterval(AWAIT_POLL)
+        .atMost(AWAIT_SHORT)
+        .until(restartedKeyFilter::isReady);
+    Assertions.assertEquals(
+        key, restartedCache.lookup(key), "Key present in Redis must be found by the scan");
+  }
+
   @Test
   void putBroadcastsInvalidationToOtherInstance() {
     final String key = "putBroadcastsInvalidationToOtherInstance";
@@ -301,6 +724,66 @@ class MultiLevelCacheTestcontainersTest extends AbstractRedisIntegrationTest {
     }
   }
 
+  @Test
+  void offloadedEvictionsArePublishedInOrder() {
+    final String key = "offloadedEvictionsArePublishedInOrder";
+
+    MultiLevelCacheConfigurationProperties properties =
+        new MultiLevelCacheConfigurationProperties();
+    properties.setTopic(cacheProperties.getTopic());
+    properties.getExecution().setVirtualThreads(true);
+
+    // Stands in for virtual threads: every task starts a thread of its own
+    MultiLevelCacheManager offloadingManager =
+        new MultiLevelCacheManager(
+            cachePropertiesProvider,
+            properties,
+            multiLevelCacheRedisTemplate,
+            circuitBreaker,
+            MultiLevelCacheOptions.builder()
+                .executor(runnable -> new Thread(runnable).start())
+                .build());
+    MultiLevelCache cache = (MultiLevelCache) offloadingManager.getCache(key);
+    Assertions.assertNotNull(cache, "Cache should be automatically created upon request");
+
+    List<String> received = new CopyOnWriteArrayList<>();
+    RedisMessageListenerContainer listener = new RedisMessageListenerContainer();
+    listener.setConnectionFactory(
+        Objects.requireNonNull(multiLevelCacheRedisTemplate.getConnectionFactory()));
+    listener.addMessageListener(
+        (message, pattern) -> {
+          MultiLevelCacheEvictMessage event =
+              (MultiLevelCacheEvictMessage)
+                  multiLevelCacheRedisTemplate.getValueSerializer().deserialize(message.getBody());
+          if (event != null && key.equals(event.getCacheName())) {
+            received.add(event.getEntryKey());
+          }
+        },
+        new ChannelTopic(cacheProperties.getTopic()));
+    listener.afterPropertiesSet();
+    listener.start();
+
+    try {
+      List<String> evicted =
+          IntStream.range(0, 100).mapToObj(i -> cache.toLocalKey(key + i)).toList();
+      IntStream.range(0, 100).forEach(i -> cache.evict(key + i));
+
+      Awaitility.await()
+          .pollInterval(AWAIT_POLL)
+          .atMost(AWAIT_MEDIUM)
+          .untilAsserted(
+              () ->
+                  Assertions.assertEquals(
+                      evicted, received, "Notifications must arrive in order of evictions"));
+    } finally {
+      listener.stop();
+      try {
+        listener.destroy();
+      } catch (Exception ignored) {
+      }
+    }
+  }
+
   @Test
   void invalidateTest() {
     final String key = "invalidateTest";
@@ -317,4 +800,6 @@ class MultiLevelCacheTestcontainersTest extends AbstractRedisIntegrationTest {
     Assertions.assertNull(cache.nativeGet(key), "Underlying cache must evict value");
     Assertions.assertNull(cache.getLocalCache().getIfPresent(key), "Local cache must evict value");
   }
+
+  private record IdsKey(List<Long> ids) {}
 }
@@ -0,0 +1,119 @@
+package io.github.suppie.spring.cache;
+
+import java.time.Duration;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.cache.autoconfigure.CacheAutoConfiguration;
+import org.springframework.boot.data.redis.autoconfigure.DataRedisAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+@ActiveProfiles("test")
+@SpringBootTest(
+    classes = {
+      DataRedisAutoConfiguration.class,
+      CacheAutoConfiguration.class,
+      MultiLevelCacheAutoConfiguration.class
+    },
+    properties = "spring.cache.multilevel.invalidation.mode=tracking")
+class MultiLevelCacheTrackingTestcontainersTest extends AbstractRedisIntegrationTest {
+
+  private static final Duration AWAIT_MEDIUM = Duration.ofSeconds(10);
+  private static final Duration AWAIT_POLL = Duration.ofMillis(100);
+
+  @Autowired MultiLevelCacheManager cacheManager;
+  @Autowired MultiLevelCacheInvalidationTracker tracker;
+
+  @Autowired
+  @Qualifier(MultiLevelCacheAutoConfiguration.CACHE_REDIS_TEMPLATE_NAME)
+  RedisTemplate<Object, Object> multiLevelCacheRedisTemplate;
+
+  @Test
+  void redisPushesInvalidationsForChangedKeys() {
+    final String key = "redisPushesInvalidationsForChangedKeys";
+
+    Assertions.assertTrue(tracker.isRunning(), "Tracker must be started with the context");
+
+    MultiLevelCache cache = (MultiLevelCache) cacheManager.getCache(key);
+    Assertions.assertNotNull(cache, "Cache should be automatically created upon request");
+
+    // Writes of this instance are reported as well, which confirms that cache keys are tracked
+    cache.getLocalCache().put(key, key);
+    Awaitility.await()
+        .atMost(AWAIT_MEDIUM)
+        .pollInterval(AWAIT_POLL)
+        .untilAsserted(
+            () -> {
+              boolean invalidated = cache.getLocalCache().getIfPresent(key) == null;
+              if (!invalidated) {
+                cache.nativePut(key, key);
+              }
+              Assertions.assertTrue(invalidated, "Local entry must be invalidated by Redis");
+            });
+
+    final String external = key + "-external";
+    cache.getLocalCache().put(external, external);
+    cache.nativePut(external, external);
+    awaitInvalidation(cache, external);
+
+    // Plain Redis command does not publish eviction message, like a service in another language
+    cache.getLocalCache().put(external, external);
+    multiLevelCacheRedisTemplate.delete(cache.redisKeyPrefix() + external);
+
+    awaitInvalidation(cache, external);
+  }
+
+  @Test
+  void ownWritesKeepLocalEntry() {
+    final String key = "ownWritesKeepLocalEntry";
+
+    MultiLevelCache cache = (MultiLevelCache) cacheManager.getCache(key);
+    Assertions.assertNotNull(cache, "Cache should be automatically created upon request");
+
+    // Tracking of the cache prefix is enabled asynchronously, wait until changes are reported
+    final String probe = key + "-probe";
+    cache.getLocalCache().put(probe, probe);
+    Awaitility.await()
+        .atMost(AWAIT_MEDIUM)
+        .pollInterval(AWAIT_POLL)
+        .untilAsserted(
+            () -> {
+              boolean invalidated = cache.getLocalCache().getIfPresent(probe) == null;
+              if (!invalidated) {
+                cache.nativePut(probe, probe);
+              }
+              Assertions.assertTrue(invalidated, "Local entry must be invalidated by Redis");
+            });
+
+    OwnWrites ownWrites = cache.getOwnWrites();
+    Assertions.assertNotNull(ownWrites, "Own writes must be remembered in tracking mode");
+
+    cache.put(key, key);
+    Awaitility.await()
+        .atMost(AWAIT_MEDIUM)
+        .pollInterval(AWAIT_POLL)
+        .until(() -> !ownWrites.isPending(key));
+
+    Assertions.assertEquals(
+        key, cache.getLocalCache().getIfPresent(key), "Own write must keep local entry");
+
+    // Write of another client is still applied
+    cache.nativePut(key, key + "-external");
+    awaitInvalidation(cache, key);
+  }
+
+  private static void awaitInvalidation(MultiLevelCache cache, String key) {
+    Awaitility.await()
+        .atMost(AWAIT_MEDIUM)
+        .pollInterval(AWAIT_POLL)
+        .untilAsserted(
+            () ->
+                Assertions.assertNull(
+                    cache.getLocalCache().getIfPresent(key),
+                    "Local entry must be invalidated by Redis"));
+  }
+}
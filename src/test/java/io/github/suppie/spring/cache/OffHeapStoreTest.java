@@ -0,0 +1,123 @@
+package io.github.suppie.spring.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+class OffHeapStoreTest {
+
+  private static final long TIME_TO_LIVE = TimeUnit.MINUTES.toNanos(1);
+
+  @Test
+  void valuesSpanningSeveralBlocksAreCopiedBack() {
+    OffHeapStore store = store(64, 1);
+    byte[] value = bytes("value".repeat(100));
+
+    assertThat(store.put("key", value, TIME_TO_LIVE)).isTrue();
+
+    assertThat(store.get("key")).isEqualTo(value).isNotSameAs(value);
+    assertThat(store.usedBytes()).isEqualTo(512);
+    assertThat(store.allocatedBytes()).isEqualTo(1024);
+    assertThat(store.hitCount()).isEqualTo(1);
+  }
+
+  @Test
+  void replacedAndRemovedValuesReleaseBlocks() {
+    OffHeapStore store = store(64, 1);
+
+    store.put("key", bytes("value".repeat(100)), TIME_TO_LIVE);
+    store.put("key", bytes("value"), TIME_TO_LIVE);
+
+    assertThat(store.get("key")).isEqualTo(bytes("value"));
+    assertThat(store.usedBytes()).isEqualTo(64);
+
+    store.remove("key");
+
+    assertThat(store.get("key")).isNull();
+    assertThat(store.size()).isZero();
+    assertThat(store.usedBytes()).isZero();
+    assertThat(store.missCount()).isEqualTo(1);
+  }
+
+  @Test
+  void expiredValuesAreNotReturned() {
+    OffHeapStore store = store(64, 1);
+
+    store.put("key", bytes("value"), 0);
+
+    assertThat(store.get("key")).isNull();
+    assertThat(store.size()).isZero();
+  }
+
+  @Test
+  void clockEvictionKeepsRecentlyReadValues() {
+    // 16 blocks of a single segment, one block per value
+    OffHeapStore store = store(64, 1);
+    for (int i = 0; i < 16; i++) {
+      store.put("key-" + i, bytes("value-" + i), TIME_TO_LIVE);
+    }
+    assertThat(store.get("key-0")).isNotNull();
+
+    store.put("key-16", bytes("value-16"), TIME_TO_LIVE);
+
+    assertThat(store.size()).isEqualTo(16);
+    assertThat(store.get("key-0")).isEqualTo(bytes("value-0"));
+    assertThat(store.get("key-1")).isNull();
+    assertThat(store.get("key-16")).isEqualTo(bytes("value-16"));
+  }
+
+  @Test
+  void valuesLargerThanSegmentAreNotStored() {
+    OffHeapStore store = store(64, 1);
+    store.put("key", bytes("value"), TIME_TO_LIVE);
+
+    assertThat(store.put("key", new byte[2048], TIME_TO_LIVE)).isFalse();
+
+    assertThat(store.get("key")).isNull();
+  }
+
+  @Test
+  void clearReleasesSlabs() {
+    OffHeapStore store = store(64, 4);
+    for (int i = 0; i < 100; i++) {
+      store.put("key-" + i, bytes("value-" + i), TIME_TO_LIVE);
+    }
+
+    store.clear();
+
+    assertThat(store.size()).isZero();
+    assertThat(store.allocatedBytes()).isZero();
+    assertThat(store.get("key-0")).isNull();
+  }
+
+  @Test
+  void invalidSettingsAreRejected() {
+    DataSize kilobyte = DataSize.ofKilobytes(1);
+
+    assertThatThrownBy(() -> new OffHeapStore(kilobyte, kilobyte, kilobyte, 0))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new OffHeapStore(kilobyte, kilobyte, DataSize.ofBytes(0), 1))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new OffHeapStore(kilobyte, DataSize.ofBytes(64), kilobyte, 1))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new OffHeapStore(kilobyte, kilobyte, kilobyte, 2))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static OffHeapStore store(int blockSize, int segments) {
+    DataSize slabSize = DataSize.ofKilobytes(1);
+    return new OffHeapStore(
+        DataSize.ofBytes(slabSize.toBytes() * segments),
+        slabSize,
+        DataSize.ofBytes(blockSize),
+        segments);
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,36 @@
+package io.github.suppie.spring.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class OwnWritesTest {
+
+  @Test
+  void onePushIsSkippedPerWrite() {
+    OwnWrites ownWrites = new OwnWrites(100, Duration.ofMinutes(1));
+
+    ownWrites.record("key");
+    ownWrites.record("key");
+
+    assertThat(ownWrites.take("key")).isTrue();
+    assertThat(ownWrites.isPending("key")).isTrue();
+    assertThat(ownWrites.take("key")).isTrue();
+    assertThat(ownWrites.isPending("key")).isFalse();
+
+    // Push of another client is applied
+    assertThat(ownWrites.take("key")).isFalse();
+    assertThat(ownWrites.take("other")).isFalse();
+  }
+
+  @Test
+  void clearForgetsWrites() {
+    OwnWrites ownWrites = new OwnWrites(100, Duration.ofMinutes(1));
+
+    ownWrites.record("key");
+    ownWrites.clear();
+
+    assertThat(ownWrites.take("key")).isFalse();
+  }
+}
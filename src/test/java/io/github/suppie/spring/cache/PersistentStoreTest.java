@@ -0,0 +1,125 @@
+package io.github.suppie.spring.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+class PersistentStoreTest {
+
+  private static final long TIME_TO_LIVE = TimeUnit.MINUTES.toNanos(1);
+  private static final DataSize CAPACITY = DataSize.ofKilobytes(4);
+
+  @TempDir Path directory;
+
+  @Test
+  void entriesSurviveReopening() {
+    PersistentStore store = open();
+    store.reconcile(Set.of());
+    store.put("key-1", bytes("value-1"), TIME_TO_LIVE);
+    store.put("key-2", bytes("value-2"), TIME_TO_LIVE);
+    store.put("key-2", bytes("value-3"), TIME_TO_LIVE);
+    store.put("key-3", bytes("value-4"), TIME_TO_LIVE);
+    store.remove("key-3");
+    store.close();
+
+    PersistentStore reopened = open();
+    try {
+      assertThat(reopened.size()).isEqualTo(2);
+      assertThat(reopened.getSyncedAt()).isPositive();
+
+      reopened.reconcile(Set.of());
+
+      assertThat(reopened.get("key-1")).isEqualTo(bytes("value-1"));
+      assertThat(reopened.get("key-2")).isEqualTo(bytes("value-3"));
+      assertThat(reopened.get("key-3")).isNull();
+    } finally {
+      reopened.close();
+    }
+  }
+
+  @Test
+  void loadedEntriesAreServedOnceReconciled() {
+    PersistentStore store = open();
+    store.reconcile(Set.of());
+    store.put("key-1", bytes("value-1"), TIME_TO_LIVE);
+    store.put("key-2", bytes("value-2"), TIME_TO_LIVE);
+    store.close();
+
+    PersistentStore reopened = open();
+    try {
+      assertThat(reopened.get("key-1")).isNull();
+
+      reopened.reconcile(Set.of("key-2"));
+
+      assertThat(reopened.isReconciled()).isTrue();
+      assertThat(reopened.get("key-1")).isEqualTo(bytes("value-1"));
+      assertThat(reopened.get("key-2")).isNull();
+
+      reopened.reconcile(null);
+
+      assertThat(reopened.size()).isZero();
+    } finally {
+      reopened.close();
+    }
+  }
+
+  @Test
+  void expiredEntriesAreNotServed() {
+    PersistentStore store = open();
+    try {
+      store.reconcile(Set.of());
+      store.put("key", bytes("value"), 0);
+
+      assertThat(store.get("key")).isNull();
+    } finally {
+      store.close();
+    }
+  }
+
+  @Test
+  void fullFileKeepsMostRecentEntries() {
+    PersistentStore store = open();
+    store.reconcile(Set.of());
+    for (int i = 0; i < 200; i++) {
+      store.put("key-" + i, bytes(("value-" + i).repeat(10)), TIME_TO_LIVE);
+    }
+    long size = store.size();
+
+    assertThat(store.get("key-199")).isEqualTo(bytes("value-199".repeat(10)));
+    assertThat(store.get("key-0")).isNull();
+    assertThat(store.usedBytes()).isLessThanOrEqualTo(CAPACITY.toBytes());
+    store.close();
+
+    PersistentStore reopened = open();
+    try {
+      assertThat(reopened.size()).isEqualTo(size);
+    } finally {
+      reopened.close();
+    }
+  }
+
+  @Test
+  void fileIsUsedByOneStoreOnly() {
+    PersistentStore store = open();
+    try {
+      assertThatThrownBy(this::open).isInstanceOf(IllegalStateException.class);
+    } finally {
+      store.close();
+    }
+  }
+
+  private PersistentStore open() {
+    return new PersistentStore(directory, "cache", CAPACITY);
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,82 @@
+package io.github.suppie.spring.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import io.github.suppie.spring.cache.MultiLevelCacheConfigurationProperties.ReadRoutingProperties;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+class ReadRoutingTest {
+
+  private static final Duration WINDOW = Duration.ofMillis(200);
+
+  private final RedisConnectionFactory connectionFactory =
+      Mockito.mock(RedisConnectionFactory.class);
+
+  @Test
+  void recentlyChangedKeysAreReadFromMaster() {
+    ReadRouting routing = new ReadRouting(connectionFactory, properties(WINDOW), 10);
+
+    assertThat(routing.readsFromReplicas("key")).isTrue();
+
+    routing.recordChange("key");
+    assertThat(routing.readsFromReplicas("key")).isFalse();
+    assertThat(routing.readsFromReplicas("other")).isTrue();
+    assertThat(routing.readsFromReplicas(List.of("other", "key"))).isFalse();
+
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .untilAsserted(() -> assertThat(routing.readsFromReplicas("key")).isTrue());
+  }
+
+  @Test
+  void allKeysAreReadFromMasterAfterClear() {
+    ReadRouting routing = new ReadRouting(connectionFactory, properties(WINDOW), 10);
+
+    routing.recordChange(null);
+    assertThat(routing.readsFromReplicas("key")).isFalse();
+    assertThat(routing.readsFromReplicas(List.of("key", "other"))).isFalse();
+
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .untilAsserted(
+            () -> assertThat(routing.readsFromReplicas(List.of("key", "other"))).isTrue());
+  }
+
+  @Test
+  void zeroWindowAlwaysReadsFromReplicas() {
+    ReadRouting routing = new ReadRouting(connectionFactory, properties(Duration.ZERO), 10);
+
+    routing.recordChange("key");
+    routing.recordChange(null);
+    assertThat(routing.readsFromReplicas("key")).isTrue();
+  }
+
+  @Test
+  void masterModeRoutesOnlyHedgedReads() {
+    ReadRoutingProperties properties = properties(WINDOW);
+    assertThat(new ReadRouting(connectionFactory, properties, 10).isRoutingReads()).isTrue();
+
+    properties.setMode(ReadRoutingMode.MASTER);
+    assertThat(new ReadRouting(connectionFactory, properties, 10).isRoutingReads()).isFalse();
+  }
+
+  @Test
+  void negativeWindowIsRejected() {
+    ReadRoutingProperties properties = properties(Duration.ofMillis(-1));
+    assertThatThrownBy(() -> new ReadRouting(connectionFactory, properties, 10))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static ReadRoutingProperties properties(Duration window) {
+    ReadRoutingProperties properties = new ReadRoutingProperties();
+    properties.setMode(ReadRoutingMode.REPLICA_PREFERRED);
+    properties.setReadYourWritesWindow(window);
+    return properties;
+  }
+}
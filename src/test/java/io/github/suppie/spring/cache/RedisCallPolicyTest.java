@@ -0,0 +1,321 @@
+package io.github.suppie.spring.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.github.resilience4j.core.functions.CheckedSupplier;
+import io.github.suppie.spring.cache.MultiLevelCacheConfigurationProperties.RedisCallProperties;
+import io.github.suppie.spring.cache.RedisCallPolicy.Operation;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class RedisCallPolicyTest {
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void callsWithoutBudgetRunOnCallingThread() throws Throwable {
+    RedisCallProperties properties = new RedisCallProperties();
+    properties.setMaxConcurrentCalls(1);
+    RedisCallPolicy policy = new RedisCallPolicy("test", properties, executor, false, null);
+    Thread caller = Thread.currentThread();
+
+    for (Operation operation : Operation.values()) {
+      assertThat(policy.tryAcquirePermission()).isTrue();
+      assertThat(policy.decorate(operation, Thread::currentThread).get()).isSameAs(caller);
+    }
+
+    // Every call returned its permission
+    assertThat(policy.tryAcquirePermission()).isTrue();
+  }
+
+  @Test
+  void callExceedingBudgetTimesOut() throws Throwable {
+    RedisCallProperties properties = new RedisCallProperties();
+    properties.setWriteTimeout(Optional.of(Duration.ofMillis(50)));
+    RedisCallPolicy policy = new RedisCallPolicy("test", properties, executor, false, null);
+    CountDownLatch release = new CountDownLatch(1);
+
+    CheckedSupplier<String> slow =
+        policy.decorate(
+            Operation.WRITE,
+            () -> {
+              release.await(5, TimeUnit.SECONDS);
+              return "value";
+            });
+
+    long startedAt = System.nanoTime();
+    assertThatThrownBy(slow::get).isInstanceOf(TimeoutException.class);
+    assertThat(System.nanoTime() - startedAt).isLessThan(TimeUnit.SECONDS.toNanos(1));
+    release.countDown();
+
+    // Other operations are not bounded
+    assertThat(policy.decorate(Operation.LOOKUP, () -> "value").get()).isEqualTo("value");
+  }
+
+  @Test
+  void timedOutCallHoldsPermissionUntilItCompletes() {
+    RedisCallProperties properties = new RedisCallProperties();
+    properties.setWriteTimeout(Optional.of(Duration.ofMillis(50)));
+    properties.setMaxConcurrentCalls(1);
+    RedisCallPolicy policy = new RedisCallPolicy("test", properties, executor, false, null);
+    CountDownLatch release = new CountDownLatch(1);
+
+    assertThat(policy.tryAcquirePermission()).isTrue();
+    CheckedSupplier<String> slow =
+        policy.decorate(
+            Operation.WRITE,
+            () -> {
+              release.await(5, TimeUnit.SECONDS);
+              return "value";
+            });
+
+    assertThatThrownBy(slow::get).isInstanceOf(TimeoutException.class);
+    assertThat(policy.tryAcquirePermission()).isFalse();
+
+    release.countDown();
+    Awaitility.await().atMost(Duration.ofSeconds(1)).until(policy::tryAcquirePermission);
+    policy.close();
+  }
+
+  @Test
+  void timedOutAsyncCallHoldsPermissionUntilItCompletes() {
+    RedisCallProperties properties = new RedisCallProperties();
+    properties.setLookupTimeout(Optional.of(Duration.ofMillis(50)));
+    properties.setMaxConcurrentCalls(1);
+    RedisCallPolicy policy = new RedisCallPolicy("test", properties, executor, false, null);
+    CompletableFuture<String> retrieval = new CompletableFuture<>();
+
+    assertThat(policy.tryAcquirePermission()).isTrue();
+    CompletableFuture<String> result =
+        policy.decorateAsync(Operation.LOOKUP, () -> retrieval).get();
+
+    assertThatThrownBy(result::join).hasCauseInstanceOf(TimeoutException.class);
+    assertThat(retrieval).isNotDone();
+    assertThat(policy.tryAcquirePermission()).isFalse();
+
+    retrieval.complete("value");
+    assertThat(policy.tryAcquirePermission()).isTrue();
+    policy.close();
+  }
+
+  @Test
+  void slowLookupIsHedged() throws Throwable {
+    RedisCallProperties properties = new RedisCallProperties();
+    properties.setLookupTimeout(Optional.of(Duration.ofSeconds(1)));
+    properties.setHedgeDelay(Optional.of(Duration.ofMillis(20)));
+    RedisCallPolicy policy = new RedisCallPolicy("test", properties, executor, false, null);
+    AtomicInteger calls = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+
+    CheckedSupplier<String> lookup =
+        policy.decorate(
+            Operation.LOOKUP,
+            () -> {
+              if (calls.incrementAndGet() == 1) {
+                // First call is stuck, hedged call replies
+                release.await(5, TimeUnit.SECONDS);
+                return "slow";
+              }
+              return "fast";
+            });
+
+    assertThat(lookup.get()).isEqualTo("fast");
+    assertThat(calls.get()).isEqualTo(2);
+    release.countDown();
+  }
+
+  @Test
+  void hedgeCallIsSentInsteadOfRepeatingLookup() throws Throwable {
+    RedisCallProperties properties = new RedisCallProperties();
+    properties.setHedgeDelay(Optional.of(Duration.ofMillis(20)));
+    RedisCallPolicy policy = new RedisCallPolicy("test", properties, executor, false, null);
+    CountDownLatch release = new CountDownLatch(1);
+
+    CheckedSupplier<String> lookup =
+        policy.decorate(
+            Operation.LOOKUP,
+            () -> {
+              release.await(5, TimeUnit.SECONDS);
+              return "master";
+            },
+            () -> "replica");
+
+    assertThat(lookup.get()).isEqualTo("replica");
+    release.countDown();
+  }
+
+  @Test
+  void failedLookupDoesNotDiscardHedge() throws Throwable {
+    RedisCallProperties properties = new RedisCallProperties();
+    properties.setHedgeDelay(Optional.of(Duration.ofMillis(20)));
+    RedisCallPolicy policy = new RedisCallPolicy("test", properties, executor, false, null);
+    CountDownLatch hedged = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    CheckedSupplier<String> lookup =
+        policy.decorate(
+            Operation.LOOKUP,
+            () -> {
+              // Call fails once hedge was sent, while hedge is still running
+              hedged.await(5, TimeUnit.SECONDS);
+              throw new IllegalStateException("master failed");
+            },
+            () -> {
+              hedged.countDown();
+              release.await(5, TimeUnit.SECONDS);
+              return "replica";
+            });
+
+    CompletableFuture<String> result =
+        CompletableFuture.supplyAsync(
+            () -> {
+              try {
+                return lookup.get();
+              } catch (Throwable e) {
+                throw new CompletionException(e);
+              }
+            },
+            executor);
+
+    TimeUnit.MILLISECONDS.sleep(100);
+    assertThat(result).isNotDone();
+
+    release.countDown();
+    assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("replica");
+  }
+
+  @Test
+  void lookupFailsOnceEverySentCallFailed() {
+    RedisCallProperties properties = new RedisCallProperties();
+    properties.setHedgeDelay(Optional.of(Duration.ofMillis(20)));
+    RedisCallPolicy policy = new RedisCallPolicy("test", properties, executor, false, null);
+    CountDownLatch hedged = new CountDownLatch(1);
+
+    CheckedSupplier<String> lookup =
+        policy.decorate(
+            Operation.LOOKUP,
+            () -> {
+              hedged.await(5, TimeUnit.SECONDS);
+              throw new IllegalStateException("master failed");
+            },
+            () -> {
+              hedged.countDown();
+              throw new IllegalStateException("replica failed");
+            });
+
+    assertThatThrownBy(lookup::get).isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void fastLookupIsNotHedged() throws Throwable {
+    RedisCallProperties properties = new RedisCallProperties();
+    properties.setHedgeDelay(Optional.of(Duration.ofMillis(200)));
+    RedisCallPolicy policy = new RedisCallPolicy("test", properties, executor, false, null);
+    AtomicInteger calls = new AtomicInteger();
+
+    assertThat(policy.decorate(Operation.LOOKUP, calls::incrementAndGet).get()).isEqualTo(1);
+
+    TimeUnit.MILLISECONDS.sleep(400);
+    assertThat(calls.get()).isEqualTo(1);
+  }
+
+  @Test
+  void concurrentCallsAreLimitedWithoutWaiting() {
+    RedisCallProperties properties = new RedisCallProperties();
+    properties.setMaxConcurrentCalls(1);
+    RedisCallPolicy policy = new RedisCallPolicy("test", properties, executor, false, null);
+
+    assertThat(policy.tryAcquirePermission()).isTrue();
+    assertThat(policy.tryAcquirePermission()).isFalse();
+
+    policy.onComplete();
+    assertThat(policy.tryAcquirePermission()).isTrue();
+  }
+
+  @Test
+  void cachesShareBoundedCallPool() throws Throwable {
+    RedisCallProperties properties = new RedisCallProperties();
+    properties.setLookupTimeout(Optional.of(Duration.ofSeconds(1)));
+    ExecutorService pool = RedisCallPolicy.newCallExecutor("shared-", 1);
+    RedisCallPolicy first = new RedisCallPolicy("first", properties, executor, false, pool);
+    RedisCallPolicy second = new RedisCallPolicy("second", properties, executor, false, pool);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    try {
+      assertThat(second.decorate(Operation.LOOKUP, () -> Thread.currentThread().getName()).get())
+          .startsWith("shared-");
+
+      CompletableFuture<String> busy =
+          CompletableFuture.supplyAsync(
+              () -> {
+                try {
+                  return first
+                      .decorate(
+                          Operation.LOOKUP,
+                          () -> {
+                            started.countDown();
+                            release.await(5, TimeUnit.SECONDS);
+                            return "value";
+                          })
+                      .get();
+                } catch (Throwable e) {
+                  throw new CompletionException(e);
+                }
+              },
+              executor);
+      assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+      // Only thread of the pool is busy with the call of the other cache
+      assertThatThrownBy(() -> second.decorate(Operation.LOOKUP, () -> "value").get())
+          .isInstanceOf(RejectedExecutionException.class);
+
+      release.countDown();
+      assertThat(busy.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  void invalidPropertiesAreRejected() {
+    RedisCallProperties timeout = new RedisCallProperties();
+    timeout.setLookupTimeout(Optional.of(Duration.ZERO));
+    assertThatThrownBy(() -> new RedisCallPolicy("test", timeout, executor, false, null))
+        .isInstanceOf(IllegalArgumentException.class);
+
+    RedisCallProperties concurrency = new RedisCallProperties();
+    concurrency.setMaxConcurrentCalls(-1);
+    assertThatThrownBy(() -> new RedisCallPolicy("test", concurrency, executor, false, null))
+        .isInstanceOf(IllegalArgumentException.class);
+
+    RedisCallProperties hedge = new RedisCallProperties();
+    hedge.setHedgeDelay(Optional.of(Duration.ofMillis(-1)));
+    assertThatThrownBy(() -> new RedisCallPolicy("test", hedge, executor, false, null))
+        .isInstanceOf(IllegalArgumentException.class);
+
+    RedisCallProperties threads = new RedisCallProperties();
+    threads.setLookupTimeout(Optional.of(Duration.ofSeconds(1)));
+    threads.setCallThreads(0);
+    assertThatThrownBy(() -> new RedisCallPolicy("test", threads, executor, false, null))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
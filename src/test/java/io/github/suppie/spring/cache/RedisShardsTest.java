@@ -0,0 +1,137 @@
+package io.github.suppie.spring.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.suppie.spring.cache.RedisShards.Shard;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+class RedisShardsTest {
+
+  private static final int KEYS = 100_000;
+  private static final int VIRTUAL_NODES = 160;
+
+  @Test
+  void keysAreSpreadEvenly() {
+    RedisShards shards = new RedisShards(shards("a", "b", "c", "d"), VIRTUAL_NODES);
+
+    Map<String, Integer> counts = new HashMap<>();
+    for (byte[] key : keys()) {
+      counts.merge(shards.shardOf(key).name(), 1, Integer::sum);
+    }
+
+    assertThat(counts).hasSize(4);
+    // Each shard is expected to own a quarter of keys
+    counts
+        .values()
+        .forEach(count -> assertThat(count).isBetween(KEYS / 4 * 8 / 10, KEYS / 4 * 12 / 10));
+  }
+
+  @Test
+  void addingShardMovesOnlyItsShareOfKeys() {
+    RedisShards before = new RedisShards(shards("a", "b", "c", "d"), VIRTUAL_NODES);
+    RedisShards after = new RedisShards(shards("a", "b", "c", "d", "e"), VIRTUAL_NODES);
+
+    int moved = 0;
+    for (byte[] key : keys()) {
+      String from = before.shardOf(key).name();
+      String to = after.shardOf(key).name();
+      if (!from.equals(to)) {
+        // Keys move only to the added shard
+        assertThat(to).isEqualTo("e");
+        moved++;
+      }
+    }
+
+    assertThat(moved).isBetween(KEYS / 5 * 8 / 10, KEYS / 5 * 12 / 10);
+  }
+
+  @Test
+  void routingDoesNotDependOnShardOrder() {
+    RedisShards forward = new RedisShards(shards("a", "b", "c"), VIRTUAL_NODES);
+    RedisShards backward = new RedisShards(shards("c", "b", "a"), VIRTUAL_NODES);
+
+    for (byte[] key : keys()) {
+      assertThat(forward.shardOf(key).name()).isEqualTo(backward.shardOf(key).name());
+    }
+  }
+
+  @Test
+  void groupingKeepsKeyIndexes() {
+    RedisShards shards = new RedisShards(shards("a", "b"), VIRTUAL_NODES);
+    List<byte[]> keys = keys().subList(0, 100);
+
+    Map<Shard, List<Integer>> groups = shards.groupByShard(keys);
+
+    assertThat(groups.values().stream().mapToInt(List::size).sum()).isEqualTo(keys.size());
+    groups.forEach(
+        (shard, indexes) ->
+            indexes.forEach(index -> assertThat(shards.shardOf(keys.get(index))).isEqualTo(shard)));
+  }
+
+  @Test
+  void shardFailuresAreReportedPerShard() {
+    RedisShards shards = new RedisShards(shards("a", "b"), VIRTUAL_NODES);
+    Shard failing = shards.getShards().get(0);
+
+    assertThatThrownBy(
+            () ->
+                shards.call(
+                    failing,
+                    () -> {
+                      throw new IllegalStateException("Redis is down");
+                    }))
+        .isInstanceOf(RedisShardException.class)
+        .hasCauseInstanceOf(IllegalStateException.class);
+    assertThat(failing.circuitBreaker().getMetrics().getNumberOfFailedCalls()).isEqualTo(1);
+    assertThat(shards.getShards().get(1).circuitBreaker().getMetrics().getNumberOfFailedCalls())
+        .isZero();
+
+    failing.circuitBreaker().transitionToForcedOpenState();
+    assertThatThrownBy(() -> shards.call(failing, () -> "value"))
+        .isInstanceOf(RedisShardException.class);
+    assertThat(shards.call(shards.getShards().get(1), () -> "value")).isEqualTo("value");
+  }
+
+  @Test
+  void invalidShardsAreRejected() {
+    List<Shard> duplicates = shards("a", "a");
+    assertThatThrownBy(() -> new RedisShards(duplicates, VIRTUAL_NODES))
+        .isInstanceOf(IllegalArgumentException.class);
+
+    List<Shard> none = List.of();
+    assertThatThrownBy(() -> new RedisShards(none, VIRTUAL_NODES))
+        .isInstanceOf(IllegalArgumentException.class);
+
+    List<Shard> valid = shards("a");
+    assertThatThrownBy(() -> new RedisShards(valid, 0))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static List<Shard> shards(String... names) {
+    List<Shard> shards = new ArrayList<>();
+    for (String name : names) {
+      shards.add(
+          new Shard(
+              name,
+              Mockito.mock(RedisConnectionFactory.class),
+              CircuitBreaker.ofDefaults("shard-" + name)));
+    }
+    return shards;
+  }
+
+  private static List<byte[]> keys() {
+    return IntStream.range(0, KEYS)
+        .mapToObj(i -> ("cache::key-" + i).getBytes(StandardCharsets.UTF_8))
+        .toList();
+  }
+}
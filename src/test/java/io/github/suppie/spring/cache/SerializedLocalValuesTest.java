@@ -0,0 +1,65 @@
+package io.github.suppie.spring.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+class SerializedLocalValuesTest {
+
+  private final RedisSerializer<Object> serializer = RedisSerializer.json();
+  private final AtomicInteger deserializations = new AtomicInteger();
+
+  @Test
+  void valuesAreKeptSerialized() {
+    SerializedLocalValues values = values(0);
+
+    Object localValue = values.encode("value");
+
+    assertThat(localValue).isNotEqualTo("value");
+    assertThat(SerializedLocalValues.weigh("key", localValue))
+        .isEqualTo(serializer.serialize("value").length);
+    assertThat(values.decode(localValue)).isEqualTo("value");
+    assertThat(values.decode(localValue)).isEqualTo("value");
+    assertThat(deserializations).hasValue(2);
+  }
+
+  @Test
+  void nullValuesAreKeptAsIs() {
+    SerializedLocalValues values = values(0);
+
+    Object localValue = values.encode(NullValue.INSTANCE);
+
+    assertThat(localValue).isSameAs(NullValue.INSTANCE);
+    assertThat(SerializedLocalValues.weigh("key", localValue)).isEqualTo(1);
+    assertThat(values.decode(localValue)).isSameAs(NullValue.INSTANCE);
+    assertThat(deserializations).hasValue(0);
+  }
+
+  @Test
+  void decodedValuesAreReusedUntilReplaced() {
+    SerializedLocalValues values = values(10);
+
+    Object localValue = values.encode("value");
+    Object decoded = values.decode(localValue);
+
+    assertThat(values.decode(localValue)).isSameAs(decoded);
+    assertThat(deserializations).hasValue(1);
+
+    Object replaced = values.encode("value");
+    assertThat(values.decode(replaced)).isEqualTo("value");
+    assertThat(deserializations).hasValue(2);
+  }
+
+  private SerializedLocalValues values(int decodedSize) {
+    return new SerializedLocalValues(
+        serializer::serialize,
+        bytes -> {
+          deserializations.incrementAndGet();
+          return serializer.deserialize(bytes);
+        },
+        decodedSize);
+  }
+}
@@ -0,0 +1,109 @@
+package io.github.suppie.spring.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.suppie.spring.cache.MultiLevelCacheManager.RandomizedLocalExpiry;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class SharedLocalCacheTest {
+
+  private final RandomizedLocalExpiry expiry =
+      new RandomizedLocalExpiry(new MultiLevelCacheConfigurationProperties());
+
+  @Test
+  void entriesOfCachesAreKeptApart() {
+    SharedLocalCache shared = new SharedLocalCache(100);
+    LocalEntries users = shared.entries(expiry, (key, value) -> 1);
+    LocalEntries orders = shared.entries(expiry, (key, value) -> 1);
+
+    users.put("key", "user");
+    orders.put("key", "order");
+    orders.put("other", "order");
+
+    assertThat(users.getIfPresent("key")).isEqualTo("user");
+    assertThat(orders.getIfPresent("key")).isEqualTo("order");
+    assertThat(users.getIfPresent("other")).isNull();
+    assertThat(users.estimatedSize()).isEqualTo(1);
+    assertThat(orders.estimatedSize()).isEqualTo(2);
+    assertThat(shared.estimatedSize()).isEqualTo(3);
+    assertThat(users.stats().hitCount()).isEqualTo(1);
+    assertThat(users.stats().missCount()).isEqualTo(1);
+    assertThat(orders.stats().hitCount()).isEqualTo(1);
+  }
+
+  @Test
+  void invalidationRemovesEntriesOfOneCache() {
+    SharedLocalCache shared = new SharedLocalCache(100);
+    LocalEntries users = shared.entries(expiry, (key, value) -> 1);
+    LocalEntries orders = shared.entries(expiry, (key, value) -> 1);
+
+    users.put("key", "user");
+    users.put("other", "user");
+    users.put("third", "user");
+    orders.put("key", "order");
+
+    users.invalidate("other");
+    assertThat(users.estimatedSize()).isEqualTo(2);
+
+    users.invalidateAll(List.of("third"));
+    assertThat(users.getIfPresent("third")).isNull();
+
+    users.invalidateAll();
+
+    assertThat(users.estimatedSize()).isZero();
+    assertThat(users.getIfPresent("key")).isNull();
+    assertThat(users.hottestKeys(10)).isEmpty();
+    assertThat(orders.getIfPresent("key")).isEqualTo("order");
+    assertThat(orders.estimatedSize()).isEqualTo(1);
+
+    users.put("key", "again");
+    assertThat(users.getIfPresent("key")).isEqualTo("again");
+    assertThat(users.estimatedSize()).isEqualTo(1);
+  }
+
+  @Test
+  void evictionIsSharedBetweenCaches() {
+    SharedLocalCache shared = new SharedLocalCache(100);
+    LocalEntries idle = shared.entries(expiry, (key, value) -> 1);
+    LocalEntries busy = shared.entries(expiry, (key, value) -> 1);
+
+    for (int i = 0; i < 10; i++) {
+      idle.put("key-" + i, "idle");
+    }
+    for (int i = 0; i < 500; i++) {
+      busy.put("key-" + i, "busy");
+    }
+    shared.cleanUp();
+
+    assertThat(shared.estimatedSize()).isLessThanOrEqualTo(100);
+    assertThat(busy.estimatedSize()).isGreaterThan(10);
+    assertThat(idle.estimatedSize() + busy.estimatedSize()).isEqualTo(shared.estimatedSize());
+    assertThat(idle.stats().evictionCount() + busy.stats().evictionCount()).isEqualTo(410);
+
+    busy.invalidateAll();
+    assertThat(busy.estimatedSize()).isZero();
+    assertThat(idle.estimatedSize()).isLessThanOrEqualTo(10);
+  }
+
+  @Test
+  void policyIsScopedToCache() {
+    SharedLocalCache shared = new SharedLocalCache(100);
+    LocalEntries users = shared.entries(expiry, (key, value) -> 1);
+    LocalEntries orders = shared.entries(expiry, (key, value) -> 1);
+
+    users.put("key", "user");
+    orders.put("other", "order");
+
+    assertThat(users.hottestKeys(10)).containsExactly("key");
+    assertThat(TimeUnit.NANOSECONDS.toMinutes(users.expiresAfter("key"))).isBetween(14L, 45L);
+    assertThat(users.expiresAfter("other")).isEqualTo(Long.MAX_VALUE);
+
+    assertThat(users.replace("key", "replaced", TimeUnit.MINUTES.toNanos(1))).isTrue();
+    assertThat(users.replace("other", "replaced", TimeUnit.MINUTES.toNanos(1))).isFalse();
+    assertThat(users.getIfPresent("key")).isEqualTo("replaced");
+    assertThat(users.expiresAfter("key")).isLessThanOrEqualTo(TimeUnit.MINUTES.toNanos(1));
+    assertThat(orders.getIfPresent("other")).isEqualTo("order");
+  }
+}
@@ -0,0 +1,141 @@
+package io.github.suppie.spring.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+  private final SingleFlight flights = new SingleFlight();
+  private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void concurrentCallsForSameKeyAreCoalesced() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+
+    Callable<String> call =
+        () -> {
+          calls.incrementAndGet();
+          release.await(5, TimeUnit.SECONDS);
+          return "value";
+        };
+
+    List<Future<String>> futures =
+        IntStream.range(0, 8)
+            .mapToObj(i -> executor.submit(() -> flights.execute("key", call, null)))
+            .toList();
+
+    // Every other caller waits for the call of the first one before it completes
+    Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> flights.waiting("key") == 7);
+    release.countDown();
+
+    for (Future<String> future : futures) {
+      assertThat(future.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+    }
+    assertThat(calls.get()).isEqualTo(1);
+    assertThat(flights.inFlight()).isZero();
+  }
+
+  @Test
+  void failureIsSharedWithWaitingCallers() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    Future<Object> owner =
+        executor.submit(
+            () ->
+                flights.execute(
+                    "key",
+                    () -> {
+                      started.countDown();
+                      release.await(5, TimeUnit.SECONDS);
+                      throw new IllegalStateException("Test failure");
+                    },
+                    null));
+
+    started.await(5, TimeUnit.SECONDS);
+    Future<Object> waiter = executor.submit(() -> flights.execute("key", () -> "value", null));
+
+    Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> flights.waiting("key") == 1);
+    release.countDown();
+
+    assertThatThrownBy(() -> owner.get(5, TimeUnit.SECONDS))
+        .hasCauseInstanceOf(IllegalStateException.class);
+    assertThatThrownBy(() -> waiter.get(5, TimeUnit.SECONDS))
+        .hasCauseInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void waitingCallerTimesOut() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    executor.submit(
+        () ->
+            flights.execute(
+                "key",
+                () -> {
+                  started.countDown();
+                  return release.await(5, TimeUnit.SECONDS);
+                },
+                null));
+
+    started.await(5, TimeUnit.SECONDS);
+
+    assertThatThrownBy(() -> flights.execute("key", () -> true, Duration.ofMillis(50)))
+        .isInstanceOf(TimeoutException.class);
+
+    release.countDown();
+  }
+
+  @Test
+  void nestedCallForSameKeyDoesNotDeadlock() throws Exception {
+    String result =
+        flights.execute("key", () -> flights.execute("key", () -> "nested", null), null);
+
+    assertThat(result).isEqualTo("nested");
+  }
+
+  @Test
+  void exclusiveCallsAreSerialized() throws Exception {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+
+    Callable<Integer> call =
+        () -> {
+          maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+          TimeUnit.MILLISECONDS.sleep(10);
+          return running.decrementAndGet();
+        };
+
+    List<Future<Integer>> futures =
+        IntStream.range(0, 8)
+            .mapToObj(i -> executor.submit(() -> flights.exclusive("key", call)))
+            .toList();
+
+    for (Future<Integer> future : futures) {
+      future.get(5, TimeUnit.SECONDS);
+    }
+    assertThat(maxRunning.get()).isEqualTo(1);
+  }
+}
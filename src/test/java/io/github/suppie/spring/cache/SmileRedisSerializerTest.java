@@ -0,0 +1,93 @@
+package io.github.suppie.spring.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+class SmileRedisSerializerTest {
+
+  private final SmileRedisSerializer serializer = new SmileRedisSerializer();
+
+  @Test
+  void valuesKeepTheirClasses() {
+    Product product =
+        new Product(
+            42L,
+            "shirt",
+            new ArrayList<>(List.of(new Variant("blue", 10.5), new Variant("red", 11.5))),
+            new LinkedHashMap<>(Map.of("material", "cotton")));
+
+    assertThat(roundTrip(product)).isEqualTo(product);
+    assertThat(roundTrip("value")).isEqualTo("value");
+    assertThat(roundTrip(42L)).isEqualTo(42L);
+    assertThat(roundTrip(42)).isEqualTo(42);
+    assertThat(roundTrip(new ArrayList<>(List.of(1L, 2L)))).isEqualTo(List.of(1L, 2L));
+  }
+
+  @Test
+  void onlyTrustedClassesAreReadBack() {
+    URI uri = URI.create("https://example.com");
+
+    assertThatThrownBy(() -> roundTrip(uri)).isInstanceOf(SerializationException.class);
+
+    SmileRedisSerializer trusting = new SmileRedisSerializer(List.of("java.net"));
+    assertThat(trusting.deserialize(trusting.serialize(uri))).isEqualTo(uri);
+  }
+
+  @Test
+  void evictionMessagesAreSupported() {
+    List<String> keys = new ArrayList<>(List.of("a", "b"));
+    MultiLevelCacheEvictMessage message =
+        new MultiLevelCacheEvictMessage("cache", null, "sender", keys);
+
+    assertThat(roundTrip(message)).isEqualTo(message);
+  }
+
+  @Test
+  void nullValuesAreSupported() {
+    assertThat(roundTrip(NullValue.INSTANCE)).isSameAs(NullValue.INSTANCE);
+    assertThat(serializer.serialize(null)).isEmpty();
+    assertThat(serializer.deserialize(null)).isNull();
+    assertThat(serializer.deserialize(new byte[0])).isNull();
+  }
+
+  @Test
+  void valuesAreSmallerThanJson() {
+    List<Variant> variants = new ArrayList<>();
+    variants.add(new Variant("blue", 10.5));
+    variants.add(new Variant("red", 11.5));
+    variants.add(new Variant("green", 12.5));
+    Product product =
+        new Product(42L, "shirt", variants, new LinkedHashMap<>(Map.of("material", "cotton")));
+
+    assertThat(serializer.serialize(product))
+        .hasSizeLessThan(RedisSerializer.json().serialize(product).length);
+  }
+
+  @Test
+  void corruptedValuesAreRejected() {
+    byte[] serialized = serializer.serialize("value".repeat(100));
+    byte[] corrupted = Arrays.copyOf(serialized, serialized.length / 2);
+
+    assertThatThrownBy(() -> serializer.deserialize(corrupted))
+        .isInstanceOf(SerializationException.class);
+  }
+
+  private Object roundTrip(Object value) {
+    return serializer.deserialize(serializer.serialize(value));
+  }
+
+  record Product(long id, String name, List<Variant> variants, Map<String, String> attributes) {}
+
+  record Variant(String color, double price) {}
+}
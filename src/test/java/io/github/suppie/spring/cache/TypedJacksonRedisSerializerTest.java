@@ -0,0 +1,77 @@
+package io.github.suppie.spring.cache;
+
+import static io.github.suppie.spring.cache.ValueSerializerType.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.SerializationException;
+
+class TypedJacksonRedisSerializerTest {
+
+  private static final Product PRODUCT =
+      new Product(42L, "shirt", new ArrayList<>(List.of("blue", "red")));
+
+  @Test
+  void valuesAreWrittenWithoutClassNames() {
+    TypedJacksonRedisSerializer serializer =
+        TypedJacksonRedisSerializer.of(JSON, Product.class);
+
+    byte[] serialized = serializer.serialize(PRODUCT);
+
+    assertThat(new String(serialized, StandardCharsets.UTF_8))
+        .doesNotContain(Product.class.getSimpleName());
+    assertThat(serializer.deserialize(serialized)).isEqualTo(PRODUCT);
+  }
+
+  @Test
+  void smileValuesAreSmallerThanUntypedOnes() {
+    TypedJacksonRedisSerializer serializer =
+        TypedJacksonRedisSerializer.of(SMILE, Product.class);
+
+    byte[] serialized = serializer.serialize(PRODUCT);
+
+    assertThat(serialized).hasSizeLessThan(new SmileRedisSerializer().serialize(PRODUCT).length);
+    assertThat(serializer.deserialize(serialized)).isEqualTo(PRODUCT);
+  }
+
+  @Test
+  void cacheMetadataIsSupported() {
+    for (ValueSerializerType format : new ValueSerializerType[] {JSON, SMILE}) {
+      TypedJacksonRedisSerializer serializer =
+          TypedJacksonRedisSerializer.of(format, Product.class);
+
+      assertThat(serializer.deserialize(serializer.serialize(NullValue.INSTANCE)))
+          .isSameAs(NullValue.INSTANCE);
+
+      MultiLevelCacheEntry entry = new MultiLevelCacheEntry(PRODUCT, 10L, 1000L);
+      assertThat(serializer.deserialize(serializer.serialize(entry))).isEqualTo(entry);
+
+      assertThat(serializer.serialize(null)).isEmpty();
+      assertThat(serializer.deserialize(null)).isNull();
+    }
+  }
+
+  @Test
+  void valuesOfOtherClassesAreRejected() {
+    TypedJacksonRedisSerializer serializer =
+        TypedJacksonRedisSerializer.of(JSON, Product.class);
+
+    assertThatThrownBy(() -> serializer.serialize("value"))
+        .isInstanceOf(SerializationException.class);
+    assertThatThrownBy(() -> serializer.serialize(new MultiLevelCacheEntry("value", 10L, 1000L)))
+        .isInstanceOf(SerializationException.class);
+  }
+
+  @Test
+  void javaSerializationIsNotSupported() {
+    assertThatThrownBy(() -> TypedJacksonRedisSerializer.of(JDK, Product.class))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  record Product(long id, String name, List<String> colors) {}
+}